@@ -0,0 +1,29 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MAX_ID = parseInt(__ENV.MAX_ID || '10000');
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-arrival-rate',
+            rate: parseInt(__ENV.RATE || '2000'),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const id = 1 + Math.floor(Math.random() * MAX_ID);
+    const byId = http.get(`${BASE_URL}/api/v1/users/${id}`, { tags: { route: '/api/v1/users/{id}' } });
+    check(byId, { 'user found or missing': (r) => r.status === 200 || r.status === 404 });
+
+    const page = http.get(`${BASE_URL}/api/v1/users/period?from=1980-01-01&to=1989-12-31&limit=50`,
+        { tags: { route: '/api/v1/users/period' } });
+    check(page, { 'period page ok': (r) => r.status === 200 });
+}
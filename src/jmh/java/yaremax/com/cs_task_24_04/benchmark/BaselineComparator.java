@@ -0,0 +1,78 @@
+package yaremax.com.cs_task_24_04.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BaselineComparator {
+
+    public static void main(String[] args) throws IOException {
+        Path baselinePath = Path.of(args[0]);
+        Path resultPath = Path.of(args[1]);
+        double tolerance = Double.parseDouble(args[2]);
+
+        if (!Files.exists(baselinePath)) {
+            System.out.println("No baseline at " + baselinePath + ", skipping comparison");
+            return;
+        }
+
+        Map<String, JsonNode> results = index(resultPath);
+        Map<String, JsonNode> baselines = index(baselinePath);
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> baseline : baselines.entrySet()) {
+            JsonNode result = results.get(baseline.getKey());
+            if (result == null) {
+                // Expected when jmh.args selects a subset of the benchmarks
+                System.out.println("WARNING: " + baseline.getKey() + " has a baseline but was not run");
+                continue;
+            }
+
+            double baselineScore = baseline.getValue().at("/primaryMetric/score").asDouble();
+            double score = result.at("/primaryMetric/score").asDouble();
+            boolean higherIsBetter = "thrpt".equals(result.get("mode").asText());
+            double change = (score - baselineScore) / baselineScore;
+            boolean regressed = higherIsBetter ? change < -tolerance : change > tolerance;
+
+            System.out.printf("%-80s %14.3f -> %14.3f (%+.1f%%)%s%n", baseline.getKey(), baselineScore, score,
+                    change * 100, regressed ? "  REGRESSION" : "");
+            if (regressed) {
+                regressions++;
+            }
+        }
+
+        List<String> missing = results.keySet().stream()
+                .filter(key -> !baselines.containsKey(key))
+                .sorted()
+                .toList();
+        missing.forEach(key -> System.out.println(key + " has no baseline  MISSING"));
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than " + (tolerance * 100) + "%");
+        }
+        if (!missing.isEmpty()) {
+            System.out.println(missing.size() + " benchmark(s) have no entry in " + baselinePath + ", re-record it with -Djmh.result=" + baselinePath);
+        }
+        if (regressions > 0 || !missing.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> index(Path path) throws IOException {
+        Map<String, JsonNode> benchmarks = new HashMap<>();
+        for (JsonNode benchmark : new ObjectMapper().readTree(path.toFile())) {
+            String key = benchmark.get("benchmark").asText() + " " + benchmark.get("mode").asText();
+            JsonNode params = benchmark.get("params");
+            if (params != null) {
+                key += " " + params;
+            }
+            benchmarks.put(key, benchmark);
+        }
+        return benchmarks;
+    }
+}
@@ -0,0 +1,56 @@
+package yaremax.com.cs_task_24_04.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import yaremax.com.cs_task_24_04.user.UserCursor;
+import yaremax.com.cs_task_24_04.user.directory.BirthDateIndex;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Range lookups on a birth date index holding a million users born over 60 years.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BirthDateIndexBenchmark {
+    private static final int USERS = 1_000_000;
+    private static final LocalDate FIRST = LocalDate.of(1950, 1, 1);
+    private static final int DAYS = 60 * 365;
+
+    private BirthDateIndex index;
+    private long version;
+
+    @Setup
+    public void setUp() {
+        index = new BirthDateIndex(true, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        index.load(LongStream.rangeClosed(1, USERS)
+                .mapToObj(id -> new UserCursor(FIRST.plusDays(id * DAYS / USERS), id)));
+    }
+
+    @Benchmark
+    public long countYear() {
+        LocalDate from = FIRST.plusDays(ThreadLocalRandom.current().nextInt(DAYS - 365));
+        return index.count(from, from.plusYears(1));
+    }
+
+    @Benchmark
+    public List<UserCursor> pageOfYear() {
+        LocalDate from = FIRST.plusDays(ThreadLocalRandom.current().nextInt(DAYS - 365));
+        return index.findPage(from, 0L, from.plusYears(1), 50);
+    }
+
+    @Benchmark
+    public void updateBirthDate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        index.put(1L + random.nextInt(USERS), FIRST.plusDays(random.nextInt(DAYS)), ++version);
+    }
+}
@@ -0,0 +1,60 @@
+package yaremax.com.cs_task_24_04.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import yaremax.com.cs_task_24_04.exceptions.ApiException;
+import yaremax.com.cs_task_24_04.exceptions.GlobalExceptionHandler;
+import yaremax.com.cs_task_24_04.exceptions.ResourceNotFoundException;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throwing a 404 and turning it into the response body: the previous path (stack trace, zone lookup, Jackson) against
+ * the current handler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+    private GlobalExceptionHandler handler;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler(new SimpleMeterRegistry(), Duration.ofSeconds(1));
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public Object notFound() {
+        try {
+            throw new ResourceNotFoundException("User with id 42 not found");
+        } catch (ResourceNotFoundException ex) {
+            return handler.handleNotFoundExceptions(ex, null).getBody();
+        }
+    }
+
+    @Benchmark
+    public String notFoundLegacy() throws JsonProcessingException {
+        try {
+            throw new RuntimeException("User with id 42 not found");
+        } catch (RuntimeException ex) {
+            ApiException apiException = ApiException.builder()
+                    .httpStatus(HttpStatus.NOT_FOUND)
+                    .message("(" + ex.getClass().getSimpleName() + ") " + ex.getMessage())
+                    .timeStamp(ZonedDateTime.now(ZoneId.of("Z")))
+                    .build();
+            return objectMapper.writeValueAsString(apiException);
+        }
+    }
+}
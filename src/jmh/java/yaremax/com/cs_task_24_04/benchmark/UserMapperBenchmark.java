@@ -0,0 +1,46 @@
+package yaremax.com.cs_task_24_04.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import yaremax.com.cs_task_24_04.mappers.UserMapper;
+import yaremax.com.cs_task_24_04.user.User;
+import yaremax.com.cs_task_24_04.user.UserDto;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+    private UserMapper userMapper;
+    private User user;
+    private UserDto userDto;
+
+    @Setup
+    public void setUp() {
+        userMapper = new UserMapper();
+        user = User.builder()
+                .id(1L)
+                .email("john.doe@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 5, 15))
+                .address("123 Main St")
+                .phone("555-1234")
+                .build();
+        userDto = userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public UserDto toDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userMapper.toEntity(userDto);
+    }
+}
@@ -0,0 +1,73 @@
+package yaremax.com.cs_task_24_04.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import yaremax.com.cs_task_24_04.CsTask2404Application;
+import yaremax.com.cs_task_24_04.user.UserPage;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.user.UserService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database type-ahead over 100,000 users, with a one-letter query that matches a few thousand of them and a longer one
+ * that matches a handful.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dspring.devtools.restart.enabled=false")
+public class UserSearchBenchmark {
+    private static final int USERS = 100_000;
+    private static final String[] NAMES = {"Anna", "Boris", "Carla", "Dmytro", "Elena", "Fedir", "Galyna", "Ihor",
+            "Kateryna", "Larysa", "Mykola", "Nadia", "Oleh", "Petro", "Roman", "Sofia", "Taras", "Uliana", "Vira", "Yurii"};
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CsTask2404Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:search-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=WARN");
+        userService = context.getBean(UserService.class);
+        List<Object[]> rows = new ArrayList<>(USERS);
+        for (int i = 1; i <= USERS; i++) {
+            String firstName = NAMES[i % NAMES.length];
+            String lastName = NAMES[(i / NAMES.length) % NAMES.length] + "enko" + i;
+            rows.add(new Object[]{i, "user" + i + "@example.com", "example.com", firstName, lastName,
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(i % 20_000))});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "insert into users (id, email, email_domain, first_name, last_name, birth_date, version) values (?, ?, ?, ?, ?, ?, 0)",
+                rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserPage<UserResponse> oneLetter() {
+        return userService.searchUsers("a", null, 20);
+    }
+
+    @Benchmark
+    public UserPage<UserResponse> longPrefix() {
+        return userService.searchUsers("annaenko12", null, 20);
+    }
+}
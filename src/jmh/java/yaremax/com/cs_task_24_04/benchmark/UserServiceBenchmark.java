@@ -0,0 +1,70 @@
+package yaremax.com.cs_task_24_04.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import yaremax.com.cs_task_24_04.CsTask2404Application;
+import yaremax.com.cs_task_24_04.user.UserDto;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.user.UserService;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dspring.devtools.restart.enabled=false")
+public class UserServiceBenchmark {
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private Long existingUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CsTask2404Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=WARN");
+        userService = context.getBean(UserService.class);
+        existingUserId = userService.createUser(newUser()).id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private UserDto newUser() {
+        return UserDto.builder()
+                .email("user" + sequence.incrementAndGet() + "@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 5, 15))
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse create() {
+        return userService.createUser(newUser());
+    }
+
+    @Benchmark
+    public UserResponse get() {
+        return userService.getUserById(existingUserId);
+    }
+
+    @Benchmark
+    public UserResponse patch() {
+        return userService.patchUser(existingUserId, UserDto.builder().lastName("Doe" + sequence.incrementAndGet()).build(), null);
+    }
+}
@@ -0,0 +1,76 @@
+package yaremax.com.cs_task_24_04.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.user.UserDto;
+import yaremax.com.cs_task_24_04.validator.common.BirthDateValidator;
+import yaremax.com.cs_task_24_04.validator.common.EmailValidator;
+import yaremax.com.cs_task_24_04.validator.common.FirstNameValidator;
+import yaremax.com.cs_task_24_04.validator.common.LastNameValidator;
+import yaremax.com.cs_task_24_04.validator.user.FullUserDtoValidator;
+import yaremax.com.cs_task_24_04.validator.user.PartialUserDtoValidator;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+    private EmailValidator emailValidator;
+    private FullUserDtoValidator fullUserDtoValidator;
+    private PartialUserDtoValidator partialUserDtoValidator;
+    private UserDto fullUser;
+    private UserDto partialUser;
+
+    @Setup
+    public void setUp() {
+        emailValidator = new EmailValidator();
+        FirstNameValidator firstNameValidator = new FirstNameValidator();
+        LastNameValidator lastNameValidator = new LastNameValidator();
+        BirthDateValidator birthDateValidator = new BirthDateValidator(18);
+        fullUserDtoValidator = new FullUserDtoValidator(emailValidator, firstNameValidator, lastNameValidator, birthDateValidator);
+        partialUserDtoValidator = new PartialUserDtoValidator(emailValidator, firstNameValidator, lastNameValidator, birthDateValidator);
+
+        fullUser = UserDto.builder()
+                .email("john.doe@example.co.uk")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(1990, 5, 15))
+                .address("123 Main St")
+                .phone("555-1234")
+                .build();
+        partialUser = UserDto.builder()
+                .email("jane.doe@example.com")
+                .lastName("Doe")
+                .build();
+    }
+
+    @Benchmark
+    public void emailValid() {
+        emailValidator.validate("john.doe22@example.co.uk");
+    }
+
+    @Benchmark
+    public void emailInvalid(Blackhole blackhole) {
+        try {
+            emailValidator.validate("john_doe@example.com");
+        } catch (InvalidDataException ex) {
+            blackhole.consume(ex);
+        }
+    }
+
+    @Benchmark
+    public void fullUserDto() {
+        fullUserDtoValidator.validate(fullUser);
+    }
+
+    @Benchmark
+    public void partialUserDto() {
+        partialUserDtoValidator.validate(partialUser);
+    }
+}
@@ -0,0 +1,22 @@
+package yaremax.com.cs_task_24_04.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import yaremax.com.cs_task_24_04.user.BirthDatePageQuery;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.user.cache.SingleFlight;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<BirthDatePageQuery, List<UserResponse>> birthDatePageFlight(
+            @Value("${app.config.singleFlight.maxWait}") Duration maxWait, MeterRegistry meterRegistry) {
+        return new SingleFlight<>("users.birthDatePage", maxWait, meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+package yaremax.com.cs_task_24_04.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadsConfig {
+    private static final int MIN_JAVA_VERSION = 21;
+
+    public VirtualThreadsConfig() {
+        if (Runtime.version().feature() < MIN_JAVA_VERSION) {
+            throw new IllegalStateException("The virtual-threads profile requires Java " + MIN_JAVA_VERSION
+                    + " or newer, running on " + Runtime.version());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package yaremax.com.cs_task_24_04.exceptions;
 import lombok.Builder;
 import org.springframework.http.HttpStatus;
 
+import java.time.Clock;
 import java.time.ZonedDateTime;
 
 @Builder
@@ -10,4 +11,13 @@ public record ApiException (
         String message,
         HttpStatus httpStatus,
         ZonedDateTime timeStamp) {
+    static final Clock UTC = Clock.systemUTC();
+
+    public static ApiException of(RuntimeException ex, HttpStatus httpStatus) {
+        return ApiException.builder()
+                .httpStatus(httpStatus)
+                .message("(" + ex.getClass().getSimpleName() + ") " + ex.getMessage())
+                .timeStamp(ZonedDateTime.now(UTC))
+                .build();
+    }
 }
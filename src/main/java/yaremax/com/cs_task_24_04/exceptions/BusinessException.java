@@ -0,0 +1,15 @@
+package yaremax.com.cs_task_24_04.exceptions;
+
+/**
+ * Base class for expected client errors. These are thrown for every rejected request and their stack traces are
+ * never logged, so they are not captured.
+ */
+public abstract class BusinessException extends RuntimeException {
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+    }
+
+    protected BusinessException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -1,6 +1,6 @@
 package yaremax.com.cs_task_24_04.exceptions;
 
-public class DuplicateResourceException extends RuntimeException {
+public class DuplicateResourceException extends BusinessException {
     public DuplicateResourceException(String message) {
         super(message);
     }
@@ -0,0 +1,32 @@
+package yaremax.com.cs_task_24_04.exceptions;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+
+/**
+ * Renders the {@link ApiException} JSON for one exception type without going through Jackson: everything but the
+ * message and the timestamp is serialized once up front.
+ */
+final class ErrorResponseTemplate {
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+
+    private final String prefix;
+    private final String suffix;
+
+    ErrorResponseTemplate(Class<?> exceptionType, HttpStatus httpStatus) {
+        StringBuilder prefix = new StringBuilder("{\"message\":\"(");
+        ENCODER.quoteAsString(exceptionType.getSimpleName(), prefix);
+        this.prefix = prefix.append(") ").toString();
+        this.suffix = "\",\"httpStatus\":\"" + httpStatus.name() + "\",\"timeStamp\":\"";
+    }
+
+    String render(String message, Instant timestamp) {
+        String text = String.valueOf(message);
+        StringBuilder json = new StringBuilder(prefix.length() + text.length() + suffix.length() + 40);
+        json.append(prefix);
+        ENCODER.quoteAsString(text, json);
+        return json.append(suffix).append(timestamp).append("\"}").toString();
+    }
+}
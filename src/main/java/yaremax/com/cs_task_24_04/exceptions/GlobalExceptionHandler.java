@@ -1,36 +1,56 @@
 package yaremax.com.cs_task_24_04.exceptions;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.Duration;
 import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @ControllerAdvice
+@Profile("!reactive")
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     private static final String LOGGER_MESSAGE_PREFIX = "⚠⚠⚠ Exception was thrown with message: ";
+    private static final String EXCEPTIONS_METRIC = "api.exceptions";
+    private static final String SUPPRESSED_LOGS_METRIC = "api.exceptions.logs.suppressed";
 
-    private ApiException buildApiException(RuntimeException ex, HttpStatus httpStatus) {
-        return ApiException.builder()
-                .httpStatus(httpStatus)
-                .message("(" + ex.getClass().getSimpleName() + ") " + ex.getMessage())
-                .timeStamp(ZonedDateTime.now(ZoneId.of("Z")))
-                .build();
+    private final MeterRegistry meterRegistry;
+    private final long logIntervalNanos;
+    private final Map<Class<?>, ErrorType> errorTypes = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry,
+                                  @Value("${app.config.errors.logInterval}") Duration logInterval) {
+        this.meterRegistry = meterRegistry;
+        this.logIntervalNanos = logInterval.toNanos();
     }
 
     private ResponseEntity<Object> handleException(RuntimeException ex, HttpServletRequest request, HttpStatus httpStatus) {
-        ApiException apiException = buildApiException(ex, httpStatus);
-        LOGGER.error(LOGGER_MESSAGE_PREFIX + "{}", ex.getMessage());
-        return new ResponseEntity<>(apiException, apiException.httpStatus());
+        ErrorType errorType = errorTypes.computeIfAbsent(ex.getClass(), type -> new ErrorType(type, httpStatus));
+        errorType.thrown.increment();
+
+        long suppressed = errorType.acquireLogPermit(logIntervalNanos);
+        if (suppressed >= 0) {
+            LOGGER.warn(LOGGER_MESSAGE_PREFIX + "{} ({} similar suppressed)", ex.getMessage(), suppressed);
+        }
+
+        return ResponseEntity.status(errorType.httpStatus)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorType.template.render(ex.getMessage(), ApiException.UTC.instant()));
     }
 
 
@@ -48,4 +68,39 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<Object> handleNotFoundExceptions(RuntimeException ex, HttpServletRequest request){
         return handleException(ex, request, HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(value = {PreconditionFailedException.class})
+    public ResponseEntity<Object> handlePreconditionFailedExceptions(RuntimeException ex, HttpServletRequest request){
+        return handleException(ex, request, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // Per exception type: the response template, its metrics, and a window that lets one log line through per interval.
+    private final class ErrorType {
+        private final HttpStatus httpStatus;
+        private final ErrorResponseTemplate template;
+        private final Counter thrown;
+        private final Counter suppressedLogs;
+        private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+        private final AtomicLong suppressedSinceLastLog = new AtomicLong();
+
+        private ErrorType(Class<?> type, HttpStatus httpStatus) {
+            String exception = type.getSimpleName();
+            this.httpStatus = httpStatus;
+            this.template = new ErrorResponseTemplate(type, httpStatus);
+            this.thrown = meterRegistry.counter(EXCEPTIONS_METRIC, "exception", exception, "status", String.valueOf(httpStatus.value()));
+            this.suppressedLogs = meterRegistry.counter(SUPPRESSED_LOGS_METRIC, "exception", exception);
+        }
+
+        // Returns how many log lines were suppressed since the last one, or -1 if this one should be suppressed too.
+        private long acquireLogPermit(long intervalNanos) {
+            long now = System.nanoTime();
+            long next = nextLogAt.get();
+            if (now - next >= 0 && nextLogAt.compareAndSet(next, now + intervalNanos)) {
+                return suppressedSinceLastLog.getAndSet(0);
+            }
+            suppressedSinceLastLog.incrementAndGet();
+            suppressedLogs.increment();
+            return -1;
+        }
+    }
 }
@@ -1,6 +1,6 @@
 package yaremax.com.cs_task_24_04.exceptions;
 
-public class InvalidDataException extends RuntimeException {
+public class InvalidDataException extends BusinessException {
     public InvalidDataException(String message) {
         super(message);
     }
@@ -0,0 +1,7 @@
+package yaremax.com.cs_task_24_04.exceptions;
+
+public class PreconditionFailedException extends BusinessException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,53 @@
+package yaremax.com.cs_task_24_04.exceptions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.format.DateTimeParseException;
+
+@RestControllerAdvice
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveExceptionHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+    private static final String LOGGER_MESSAGE_PREFIX = "⚠⚠⚠ Exception was thrown with message: ";
+    private static final String EXCEPTIONS_METRIC = "api.exceptions";
+
+    private final MeterRegistry meterRegistry;
+
+    private ResponseEntity<ApiException> handleException(RuntimeException ex, HttpStatus httpStatus) {
+        meterRegistry.counter(EXCEPTIONS_METRIC, "exception", ex.getClass().getSimpleName(), "status", String.valueOf(httpStatus.value()))
+                .increment();
+        ApiException apiException = ApiException.of(ex, httpStatus);
+        LOGGER.error(LOGGER_MESSAGE_PREFIX + "{}", ex.getMessage());
+        return new ResponseEntity<>(apiException, apiException.httpStatus());
+    }
+
+    @ExceptionHandler(value = {InvalidDataException.class, DateTimeParseException.class})
+    public ResponseEntity<ApiException> handleBadRequestExceptions(RuntimeException ex) {
+        return handleException(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(value = {DuplicateResourceException.class})
+    public ResponseEntity<ApiException> handleConflictExceptions(RuntimeException ex) {
+        return handleException(ex, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(value = {ResourceNotFoundException.class})
+    public ResponseEntity<ApiException> handleNotFoundExceptions(RuntimeException ex) {
+        return handleException(ex, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(value = {PreconditionFailedException.class})
+    public ResponseEntity<ApiException> handlePreconditionFailedExceptions(RuntimeException ex) {
+        return handleException(ex, HttpStatus.PRECONDITION_FAILED);
+    }
+}
@@ -1,7 +1,7 @@
 package yaremax.com.cs_task_24_04.exceptions;
 
-public class ResourceNotFoundException extends RuntimeException{
-    public ResourceNotFoundException(String message){
+public class ResourceNotFoundException extends BusinessException {
+    public ResourceNotFoundException(String message) {
         super(message);
     }
 
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
 import yaremax.com.cs_task_24_04.user.User;
 import yaremax.com.cs_task_24_04.user.UserDto;
+import yaremax.com.cs_task_24_04.user.UserResponse;
 
 @Component
 public class UserMapper implements Mapper<User, UserDto> {
@@ -24,6 +25,22 @@ public class UserMapper implements Mapper<User, UserDto> {
                 .build();
     }
 
+    public UserResponse toResponse(User user) {
+        if (user == null) {
+            throw new InvalidDataException("User is null");
+        }
+
+        return new UserResponse(
+                user.getId(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getBirthDate(),
+                user.getAddress(),
+                user.getPhone(),
+                user.getVersion());
+    }
+
     @Override
     public User toEntity(UserDto userDto) {
         if (userDto == null) {
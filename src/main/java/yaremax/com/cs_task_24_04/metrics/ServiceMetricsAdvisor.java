@@ -0,0 +1,70 @@
+package yaremax.com.cs_task_24_04.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.stereotype.Component;
+import yaremax.com.cs_task_24_04.user.UserService;
+import yaremax.com.cs_task_24_04.user.stats.UserStatsService;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the user services. This is a plain interceptor rather than an {@code @Aspect} or
+ * {@code @Timed}: those build a join point and invoke the advice reflectively on each call, which cost more than a
+ * cached {@code getUserById}. Timers are built once per method and looked up by {@link Method}; only failed calls
+ * build a key for their exception tag.
+ */
+@Component
+public class ServiceMetricsAdvisor extends StaticMethodMatcherPointcutAdvisor implements MethodInterceptor {
+    private static final Map<Class<?>, String> METRIC_NAMES = Map.of(
+            UserService.class, "user.service",
+            UserStatsService.class, "user.stats");
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> failureTimers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAdvisor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        setAdvice(this);
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return METRIC_NAMES.containsKey(method.getDeclaringClass()) && Modifier.isPublic(method.getModifiers());
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            timers.computeIfAbsent(method, key -> timer(key, NO_EXCEPTION))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable ex) {
+            String exception = ex.getClass().getSimpleName();
+            failureTimers.computeIfAbsent(method.getDeclaringClass().getSimpleName() + '/' + method.getName() + '/' + exception,
+                            key -> timer(method, exception))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+    }
+
+    private Timer timer(Method method, String exception) {
+        return Timer.builder(METRIC_NAMES.get(method.getDeclaringClass()))
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,48 @@
+package yaremax.com.cs_task_24_04.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ValidatorMetricsAspect {
+    private static final String METRIC_NAME = "validator";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("execution(* yaremax.com.cs_task_24_04.validator.Validator+.validate(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        String outcome = "valid";
+        try {
+            return joinPoint.proceed();
+        } catch (InvalidDataException ex) {
+            outcome = "rejected";
+            throw ex;
+        } catch (RuntimeException ex) {
+            outcome = "error";
+            throw ex;
+        } finally {
+            timer(joinPoint.getTarget().getClass().getSimpleName(), outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String validator, String outcome) {
+        return timers.computeIfAbsent(validator + '/' + outcome, key -> Timer.builder(METRIC_NAME)
+                .tag("validator", validator)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+}
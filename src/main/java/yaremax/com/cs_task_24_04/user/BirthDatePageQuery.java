@@ -0,0 +1,6 @@
+package yaremax.com.cs_task_24_04.user;
+
+import java.time.LocalDate;
+
+public record BirthDatePageQuery(LocalDate afterDate, long afterId, LocalDate to, int limit) {
+}
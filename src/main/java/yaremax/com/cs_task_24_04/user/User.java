@@ -2,18 +2,34 @@ package yaremax.com.cs_task_24_04.user;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Locale;
 
 @Data
 @Entity
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_email", columnNames = "email")
+}, indexes = {
+        @Index(name = "idx_users_birth_date_id", columnList = "birth_date, id"),
+        @Index(name = "idx_users_last_name_birth_date_id", columnList = "last_name, birth_date, id"),
+        @Index(name = "idx_users_email_domain_birth_date_id", columnList = "email_domain, birth_date, id"),
+        @Index(name = "idx_users_updated_at_id", columnList = "updated_at, id")
+})
 public class User {
+    // Ticks in microseconds, the precision timestamps are stored with, so in-memory values match the database.
+    public static final Clock CLOCK = Clock.tick(Clock.systemUTC(), Duration.ofNanos(1_000));
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -30,4 +46,41 @@ public class User {
 
     private String address;
     private String phone;
+
+    // Derived from email so domain filters can use an index; kept in step on every write path.
+    @Setter(AccessLevel.NONE)
+    private String emailDomain;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @Setter(AccessLevel.NONE)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Setter(AccessLevel.NONE)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    void onCreate() {
+        createdAt = CLOCK.instant();
+        updatedAt = createdAt;
+        emailDomain = emailDomainOf(email);
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = CLOCK.instant();
+        emailDomain = emailDomainOf(email);
+    }
+
+    public static String emailDomainOf(String email) {
+        if (email == null) return null;
+        return email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
 }
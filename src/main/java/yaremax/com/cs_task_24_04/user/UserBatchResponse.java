@@ -0,0 +1,6 @@
+package yaremax.com.cs_task_24_04.user;
+
+import java.util.List;
+
+public record UserBatchResponse(List<UserResponse> users, List<Long> missingIds) {
+}
@@ -0,0 +1,32 @@
+package yaremax.com.cs_task_24_04.user;
+
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+public final class UserConstraints {
+    public static final String UNIQUE_EMAIL = "uk_users_email";
+
+    private UserConstraints() {
+    }
+
+    /**
+     * Whether the violation is the unique email constraint, as opposed to e.g. a NOT NULL or length violation.
+     * PostgreSQL reports the bare constraint name; H2 reports the name of the index backing it. R2DBC exceptions carry
+     * no constraint name, so for them the driver's message, which quotes it, is checked instead.
+     */
+    public static boolean isDuplicateEmail(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                String name = violation.getConstraintName().toLowerCase(Locale.ROOT);
+                return name.equals(UNIQUE_EMAIL) || name.endsWith("." + UNIQUE_EMAIL) || name.contains(UNIQUE_EMAIL + "_index");
+            }
+            if (cause instanceof R2dbcDataIntegrityViolationException violation && violation.getMessage() != null) {
+                return violation.getMessage().toLowerCase(Locale.ROOT).contains("\"" + UNIQUE_EMAIL + "\"");
+            }
+        }
+        return false;
+    }
+}
@@ -1,61 +1,283 @@
 package yaremax.com.cs_task_24_04.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import yaremax.com.cs_task_24_04.exceptions.PreconditionFailedException;
+import yaremax.com.cs_task_24_04.user.bulk.BulkImportResult;
+import yaremax.com.cs_task_24_04.user.bulk.UserBulkImportService;
+import yaremax.com.cs_task_24_04.user.changes.UserChangeFeedService;
+import yaremax.com.cs_task_24_04.user.changes.UserChangesPage;
+import yaremax.com.cs_task_24_04.user.export.ExportFormat;
+import yaremax.com.cs_task_24_04.user.export.UserExportService;
+import yaremax.com.cs_task_24_04.user.stats.BirthDateHistogram;
+import yaremax.com.cs_task_24_04.user.stats.BucketSize;
+import yaremax.com.cs_task_24_04.user.stats.UserStatsService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/users")
 @AllArgsConstructor
 public class UserController {
+    private static final int EXPORT_BUFFER_SIZE = 1 << 16;
+
     private final UserService userService;
+    private final UserBulkImportService userBulkImportService;
+    private final UserChangeFeedService userChangeFeedService;
+    private final UserStatsService userStatsService;
+    private final UserExportService userExportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUser(@PathVariable Long id) {
-        User user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+    public ResponseEntity<UserResponse> getUser(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String eTag = eTag(userService.getUserVersion(id));
+            if (request.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+        UserResponse user = userService.getUserById(id);
+        return ResponseEntity.ok().eTag(eTag(user.version())).body(user);
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
+    public ResponseEntity<UserPage<UserResponse>> getAllUsers(
+            @RequestParam(name = "bornFrom", required = false) LocalDate bornFrom,
+            @RequestParam(name = "bornTo", required = false) LocalDate bornTo,
+            @RequestParam(name = "lastName", required = false) String lastName,
+            @RequestParam(name = "emailDomain", required = false) String emailDomain,
+            @RequestParam(name = "hasPhone", required = false) Boolean hasPhone,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        UserFilter filter = new UserFilter(bornFrom, bornTo, lastName, emailDomain, hasPhone);
+        UserPage<UserResponse> users = filter.isEmpty() && sort == null
+                ? userService.getUsersPage(after, limit)
+                : userService.getFilteredUsersPage(filter, UserSort.parse(sort), after, limit);
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<UserPage<UserResponse>> searchUsers(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        UserPage<UserResponse> users = userService.searchUsers(query, after, limit);
+        return ResponseEntity.ok(users);
+    }
+
+    @GetMapping("/changes")
+    public CompletableFuture<ResponseEntity<UserChangesPage>> getChanges(
+            @RequestParam(name = "since", required = false) String since,
+            @RequestParam(name = "limit", defaultValue = "100") int limit,
+            @RequestParam(name = "waitSeconds", defaultValue = "0") long waitSeconds) {
+        return userChangeFeedService.awaitChanges(since, limit, Duration.ofSeconds(waitSeconds))
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writeJsonArray(out, userService::streamAllUsers));
+    }
+
     @GetMapping("/period")
-    public ResponseEntity<List<User>> getAllUsersByBirthDateRange(
+    public ResponseEntity<UserPage<UserResponse>> getAllUsersByBirthDateRange(
             @RequestParam(name = "from") LocalDate from,
-            @RequestParam(name = "to") LocalDate to) {
-        List<User> specificUsers = userService.getAllUsersByBirthDateRange(from, to);
+            @RequestParam(name = "to") LocalDate to,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        UserPage<UserResponse> specificUsers = userService.getUsersPageByBirthDateRange(from, to, after, limit);
         return ResponseEntity.ok(specificUsers);
     }
 
+    @GetMapping("/period/ids")
+    public ResponseEntity<UserPage<Long>> getUserIdsByBirthDateRange(
+            @RequestParam(name = "from") LocalDate from,
+            @RequestParam(name = "to") LocalDate to,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "500") int limit) {
+        UserPage<Long> ids = userService.getUserIdsByBirthDateRange(from, to, after, limit);
+        return ResponseEntity.ok(ids);
+    }
+
+    @GetMapping("/period/count")
+    public ResponseEntity<UserCount> countUsersByBirthDateRange(
+            @RequestParam(name = "from") LocalDate from,
+            @RequestParam(name = "to") LocalDate to) {
+        long count = userService.countUsersByBirthDateRange(from, to);
+        return ResponseEntity.ok(new UserCount(count));
+    }
+
+    @GetMapping("/stats/birth-years")
+    public ResponseEntity<BirthDateHistogram> getBirthDateHistogram(
+            @RequestParam(name = "from", required = false) LocalDate from,
+            @RequestParam(name = "to", required = false) LocalDate to,
+            @RequestParam(name = "bucket", defaultValue = "year") String bucket) {
+        return ResponseEntity.ok(userStatsService.getBirthDateHistogram(from, to, BucketSize.parse(bucket)));
+    }
+
+    @GetMapping(path = "/period", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllUsersByBirthDateRange(
+            @RequestParam(name = "from") LocalDate from,
+            @RequestParam(name = "to") LocalDate to) {
+        userService.validateBirthDateRange(from, to);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writeJsonArray(out, consumer -> userService.streamUsersByBirthDateRange(from, to, consumer)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            @RequestParam(name = "from", required = false) LocalDate from,
+            @RequestParam(name = "to", required = false) LocalDate to,
+            @RequestParam(name = "after", defaultValue = "0") long after,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        DateRange range = userExportService.checkRange(new DateRange(from, to));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("users." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(acceptEncoding)) {
+            return response.body(out -> userExportService.export(exportFormat, range, after, out));
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+            userExportService.export(exportFormat, range, after, compressed);
+            compressed.finish();
+        });
+    }
+
     @PostMapping
-    public ResponseEntity<User> createUser(@RequestBody UserDto user) {
-        User createdUser = userService.createUser(user);
+    public ResponseEntity<UserResponse> createUser(@RequestBody UserDto user) {
+        UserResponse createdUser = userService.createUser(user);
         return ResponseEntity.ok(createdUser);
     }
 
+    @PostMapping("/batch-get")
+    public ResponseEntity<UserBatchResponse> getUsersByIds(@RequestBody UserBatchRequest request) {
+        UserBatchResponse users = userService.getUsersByIds(request.ids());
+        return ResponseEntity.ok(users);
+    }
+
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResult> importUsers(InputStream body) throws IOException {
+        try (MappingIterator<UserDto> users = objectMapper.readerFor(UserDto.class).readValues(body)) {
+            BulkImportResult result = userBulkImportService.importUsers(users);
+            return ResponseEntity.ok(result);
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id,
-                                           @RequestBody UserDto updatedUser) {
-        User user = userService.updateUser(id, updatedUser);
-        return ResponseEntity.ok(user);
+    public ResponseEntity<UserResponse> updateUser(@PathVariable Long id,
+                                                   @RequestBody UserDto updatedUser,
+                                                   @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserResponse user = userService.updateUser(id, updatedUser, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(user.version())).body(user);
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<User> patchUser(@PathVariable Long id,
-                                          @RequestBody UserDto partialUser) {
-        User user = userService.patchUser(id, partialUser);
-        return ResponseEntity.ok(user);
+    public ResponseEntity<UserResponse> patchUser(@PathVariable Long id,
+                                                  @RequestBody UserDto partialUser,
+                                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserResponse user = userService.patchUser(id, partialUser, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(user.version())).body(user);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteUser(@PathVariable Long id) {
-        userService.deleteUser(id);
+    public ResponseEntity<String> deleteUser(@PathVariable Long id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.deleteUser(id, expectedVersion(ifMatch));
         return ResponseEntity.ok("Successfully deleted user");
     }
+
+    // RFC 9110: an explicit gzip (or x-gzip) entry wins over "*", and q=0 means "not acceptable".
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzip = null;
+        Double any = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        Double quality = gzip != null ? gzip : any;
+        return quality != null && quality > 0;
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Only a single strong ETag or "*" is accepted; anything else cannot match the current version.
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the precondition failure below
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version");
+    }
+
+    private void writeJsonArray(OutputStream out, Consumer<Consumer<UserResponse>> source) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartArray();
+            source.accept(user -> {
+                try {
+                    generator.writeObject(user);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            generator.writeEndArray();
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package yaremax.com.cs_task_24_04.user;
+
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+public record UserCursor(LocalDate birthDate, Long id) {
+    private static final char SEPARATOR = ':';
+
+    public UserCursor(Long id) {
+        this(null, id);
+    }
+
+    public String encode() {
+        String raw = birthDate == null ? String.valueOf(id) : birthDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return new UserCursor(Long.parseLong(raw));
+            }
+            return new UserCursor(LocalDate.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new InvalidDataException("Invalid cursor", ex);
+        }
+    }
+}
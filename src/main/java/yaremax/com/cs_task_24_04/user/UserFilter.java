@@ -0,0 +1,10 @@
+package yaremax.com.cs_task_24_04.user;
+
+import java.time.LocalDate;
+
+public record UserFilter(LocalDate bornFrom, LocalDate bornTo, String lastNamePrefix, String emailDomain, Boolean hasPhone) {
+
+    public boolean isEmpty() {
+        return bornFrom == null && bornTo == null && lastNamePrefix == null && emailDomain == null && hasPhone == null;
+    }
+}
@@ -0,0 +1,6 @@
+package yaremax.com.cs_task_24_04.user;
+
+import java.util.List;
+
+public record UserPage<T>(List<T> items, String nextCursor) {
+}
@@ -1,13 +1,119 @@
 package yaremax.com.cs_task_24_04.user;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import yaremax.com.cs_task_24_04.user.changes.ChangedUser;
+import yaremax.com.cs_task_24_04.user.stats.BirthMonthCount;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    String SELECT_RESPONSE = "select new yaremax.com.cs_task_24_04.user.UserResponse("
+            + "u.id, u.email, u.firstName, u.lastName, u.birthDate, u.address, u.phone, u.version) from User u";
+
     boolean existsByEmail(String email);
-    List<User> findUsersByBirthDateBetween(LocalDate from, LocalDate to);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query(SELECT_RESPONSE + " where u.id = :id")
+    @Transactional(readOnly = true)
+    Optional<UserResponse> findResponseById(@Param("id") Long id);
+
+    @Query(SELECT_RESPONSE + " where u.id in :ids")
+    @Transactional(readOnly = true)
+    List<UserResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select u.version from User u where u.id = :id")
+    @Transactional(readOnly = true)
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("delete from User u where u.id = :id and u.version = :version")
+    int deleteByIdAndVersion(@Param("id") Long id, @Param("version") Long version);
+
+    @Query(SELECT_RESPONSE + " where u.id > :afterId order by u.id")
+    List<UserResponse> findPageAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(SELECT_RESPONSE + " order by u.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<UserResponse> streamAllOrderedById();
+
+    @Query(SELECT_RESPONSE + " where u.birthDate between :afterDate and :to"
+            + " and (u.birthDate > :afterDate or u.id > :afterId) order by u.birthDate, u.id")
+    @Transactional(readOnly = true)
+    List<UserResponse> findBirthDatePage(@Param("afterDate") LocalDate afterDate,
+                                         @Param("afterId") Long afterId,
+                                         @Param("to") LocalDate to,
+                                         Limit limit);
+
+    @Query(SELECT_RESPONSE + " where u.id > :afterId order by u.id")
+    @Transactional(readOnly = true)
+    List<UserResponse> findAfterId(@Param("afterId") long afterId, Limit limit);
+
+    @Query(SELECT_RESPONSE + " where u.id > :afterId and u.birthDate between :from and :to order by u.id")
+    @Transactional(readOnly = true)
+    List<UserResponse> findByBirthDateBetweenAfterId(@Param("from") LocalDate from,
+                                                     @Param("to") LocalDate to,
+                                                     @Param("afterId") long afterId,
+                                                     Limit limit);
+
+    @Query(SELECT_RESPONSE + " where u.birthDate between :from and :to order by u.birthDate, u.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<UserResponse> streamByBirthDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new yaremax.com.cs_task_24_04.user.changes.ChangedUser(u.id, u.email, u.firstName, u.lastName,"
+            + " u.birthDate, u.address, u.phone, u.version, u.updatedAt) from User u"
+            + " where u.updatedAt >= :afterTime and u.updatedAt <= :until"
+            + " and (u.updatedAt > :afterTime or u.id > :afterId) order by u.updatedAt, u.id")
+    @Transactional(readOnly = true)
+    List<ChangedUser> findChangesAfter(@Param("afterTime") Instant afterTime,
+                                       @Param("afterId") Long afterId,
+                                       @Param("until") Instant until,
+                                       Limit limit);
+
+    @Query("select new yaremax.com.cs_task_24_04.user.UserCursor(u.birthDate, u.id) from User u"
+            + " where u.birthDate between :afterDate and :to"
+            + " and (u.birthDate > :afterDate or u.id > :afterId) order by u.birthDate, u.id")
+    @Transactional(readOnly = true)
+    List<UserCursor> findBirthDateIdPage(@Param("afterDate") LocalDate afterDate,
+                                         @Param("afterId") Long afterId,
+                                         @Param("to") LocalDate to,
+                                         Limit limit);
+
+    @Transactional(readOnly = true)
+    long countByBirthDateBetween(LocalDate from, LocalDate to);
+
+    @Query("select new yaremax.com.cs_task_24_04.user.DateRange(min(u.birthDate), max(u.birthDate)) from User u")
+    @Transactional(readOnly = true)
+    DateRange findBirthDateRange();
+
+    @Query("select new yaremax.com.cs_task_24_04.user.stats.BirthMonthCount("
+            + "extract(year from u.birthDate), extract(month from u.birthDate), count(u)) from User u"
+            + " where u.birthDate between :from and :to"
+            + " group by extract(year from u.birthDate), extract(month from u.birthDate)")
+    @Transactional(readOnly = true)
+    List<BirthMonthCount> countByBirthMonth(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new yaremax.com.cs_task_24_04.user.UserCursor(u.birthDate, u.id) from User u"
+            + " where u.birthDate is not null order by u.birthDate, u.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    Stream<UserCursor> streamBirthDatesOrdered();
 }
@@ -0,0 +1,14 @@
+package yaremax.com.cs_task_24_04.user;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<UserResponse> updateNonNullFields(Long id, UserDto changes, Long expectedVersion);
+
+    List<UserResponse> searchByPrefix(String prefix, int offset, int limit);
+
+    List<UserResponse> findPage(Specification<User> filter, UserSort sort, UserCursor after, int limit);
+}
@@ -0,0 +1,152 @@
+package yaremax.com.cs_task_24_04.user;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<UserResponse> updateNonNullFields(Long id, UserDto changes, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+
+        boolean changed = set(update, user, "email", changes.getEmail())
+                | set(update, user, "emailDomain", User.emailDomainOf(changes.getEmail()))
+                | set(update, user, "firstName", changes.getFirstName())
+                | set(update, user, "lastName", changes.getLastName())
+                | set(update, user, "birthDate", changes.getBirthDate())
+                | set(update, user, "address", changes.getAddress())
+                | set(update, user, "phone", changes.getPhone());
+
+        if (changed) {
+            Path<Long> version = user.get("version");
+            update.set(version, cb.sum(version, 1L));
+            update.set(user.<Instant>get("updatedAt"), User.CLOCK.instant());
+            update.where(expectedVersion == null
+                    ? cb.equal(user.get("id"), id)
+                    : cb.and(cb.equal(user.get("id"), id), cb.equal(version, expectedVersion)));
+            if (entityManager.createQuery(update).executeUpdate() == 0) {
+                return Optional.empty();
+            }
+        }
+        return entityManager.createQuery(UserRepository.SELECT_RESPONSE + " where u.id = :id", UserResponse.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .filter(response -> changed || expectedVersion == null || expectedVersion.equals(response.version()))
+                .findFirst();
+    }
+
+    /**
+     * Name matches rank before email matches, then by the matched value and id. Each field is searched by its own leg,
+     * ordered and limited on the matched value, so that on PostgreSQL every leg is a range scan of one of the prefix
+     * indexes created by {@link UserSchemaInitializer} that stops after {@code offset + limit} rows; only the merge of
+     * those few rows is sorted. A row is returned by the first leg it matches in, like the rank it would get.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserResponse> searchByPrefix(String prefix, int offset, int limit) {
+        String collate = isPostgres() ? " COLLATE \"C\"" : "";
+        String firstName = "lower(first_name)" + collate;
+        String lastName = "lower(last_name)" + collate;
+        String email = "lower(email)" + collate;
+        String sql = "select id, email, first_name, last_name, birth_date, address, phone, version from ("
+                + leg(0, firstName, like(firstName))
+                + " union all " + leg(0, lastName, like(lastName) + " and not " + like(firstName))
+                + " union all " + leg(1, email, like(email) + " and not (" + like(firstName) + " or " + like(lastName) + ")")
+                + ") matches order by rnk, k, id limit :limit offset :offset";
+
+        return entityManager.createNativeQuery(sql, Object[].class)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("email", String.class)
+                .addScalar("first_name", String.class)
+                .addScalar("last_name", String.class)
+                .addScalar("birth_date", LocalDate.class)
+                .addScalar("address", String.class)
+                .addScalar("phone", String.class)
+                .addScalar("version", Long.class)
+                .setTupleTransformer((row, aliases) -> new UserResponse((Long) row[0], (String) row[1], (String) row[2],
+                        (String) row[3], (LocalDate) row[4], (String) row[5], (String) row[6], (Long) row[7]))
+                .setParameter("pattern", UserSpecifications.startsWith(prefix))
+                .setParameter("window", offset + limit)
+                .setParameter("limit", limit)
+                .setParameter("offset", offset)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserResponse> findPage(Specification<User> filter, UserSort sort, UserCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserResponse> query = cb.createQuery(UserResponse.class);
+        Root<User> user = query.from(User.class);
+
+        Predicate where = filter.and(UserSpecifications.after(sort, after)).toPredicate(user, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+        query.select(response(cb, user)).orderBy(sort.field() == UserSort.Field.ID
+                ? List.of(order(cb, user.get("id"), sort.direction()))
+                : List.of(order(cb, user.get("birthDate"), sort.direction()), order(cb, user.get("id"), sort.direction())));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static String like(String key) {
+        return "(" + key + " like :pattern escape '" + UserSpecifications.LIKE_ESCAPE + "')";
+    }
+
+    private static String leg(int rank, String key, String where) {
+        return "(select " + rank + " as rnk, " + key + " as k, id, email, first_name, last_name, birth_date, address, phone, version"
+                + " from users where " + where + " order by k, id limit :window)";
+    }
+
+    // C collation makes prefix LIKE index-searchable and orders keys the way Java compares strings, as UserPrefixIndex does.
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    private static CompoundSelection<UserResponse> response(CriteriaBuilder cb, Root<User> user) {
+        return cb.construct(UserResponse.class, user.get("id"), user.get("email"), user.get("firstName"),
+                user.get("lastName"), user.get("birthDate"), user.get("address"), user.get("phone"), user.get("version"));
+    }
+
+    private static Order order(CriteriaBuilder cb, Expression<?> expression, Sort.Direction direction) {
+        return direction.isAscending() ? cb.asc(expression) : cb.desc(expression);
+    }
+
+    private static <T> boolean set(CriteriaUpdate<User> update, Root<User> user, String attribute, T value) {
+        if (value == null) {
+            return false;
+        }
+        update.set(user.get(attribute), value);
+        return true;
+    }
+}
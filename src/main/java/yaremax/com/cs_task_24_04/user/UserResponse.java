@@ -0,0 +1,13 @@
+package yaremax.com.cs_task_24_04.user;
+
+import java.time.LocalDate;
+
+public record UserResponse(Long id,
+                           String email,
+                           String firstName,
+                           String lastName,
+                           LocalDate birthDate,
+                           String address,
+                           String phone,
+                           Long version) {
+}
@@ -0,0 +1,69 @@
+package yaremax.com.cs_task_24_04.user;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * PostgreSQL-only parts of the users schema that {@code ddl-auto=update} cannot manage: the C-collated prefix indexes
+ * behind {@code /search}, a pattern index for last name prefix filters (plain btree indexes cannot serve {@code LIKE}
+ * under a non-C collation), and the batched email domain backfill for rows written before that column existed.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class UserSchemaInitializer implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserSchemaInitializer.class);
+    private static final List<String> STATEMENTS = List.of(
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS users_first_name_prefix_idx ON users ((lower(first_name) COLLATE \"C\"), id)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS users_last_name_prefix_idx ON users ((lower(last_name) COLLATE \"C\"), id)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS users_email_prefix_idx ON users ((lower(email) COLLATE \"C\"), id)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS users_last_name_pattern_idx ON users (last_name text_pattern_ops, birth_date, id)");
+    // Each batch commits on its own so the backfill never holds many row locks; once done, finding no rows to fill is
+    // an index lookup on the leading email_domain column.
+    private static final int BACKFILL_BATCH = 10_000;
+    private static final String BACKFILL_EMAIL_DOMAIN = "UPDATE users SET email_domain = lower(regexp_replace(email, '^.*@', ''))"
+            + " WHERE id IN (SELECT id FROM users WHERE email_domain IS NULL LIMIT " + BACKFILL_BATCH + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) return;
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (DataAccessException ex) {
+                LOGGER.warn("Schema statement failed, the queries it serves will be slower: {} ({})", statement, ex.getMessage());
+            }
+        }
+        backfillEmailDomains();
+    }
+
+    private void backfillEmailDomains() {
+        long filled = 0;
+        try {
+            int updated;
+            do {
+                updated = jdbcTemplate.update(BACKFILL_EMAIL_DOMAIN);
+                filled += updated;
+            } while (updated == BACKFILL_BATCH);
+        } catch (DataAccessException ex) {
+            LOGGER.warn("Email domain backfill stopped after {} rows, domain filters miss the rest: {}", filled, ex.getMessage());
+            return;
+        }
+        if (filled > 0) {
+            LOGGER.info("Filled the email domain of {} users", filled);
+        }
+    }
+}
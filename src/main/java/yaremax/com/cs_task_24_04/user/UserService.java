@@ -1,99 +1,408 @@
 package yaremax.com.cs_task_24_04.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import yaremax.com.cs_task_24_04.exceptions.DuplicateResourceException;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.exceptions.PreconditionFailedException;
 import yaremax.com.cs_task_24_04.exceptions.ResourceNotFoundException;
 import yaremax.com.cs_task_24_04.mappers.UserMapper;
+import yaremax.com.cs_task_24_04.user.cache.SingleFlight;
+import yaremax.com.cs_task_24_04.user.cache.UserCache;
+import yaremax.com.cs_task_24_04.user.changes.UserChangeFeedService;
+import yaremax.com.cs_task_24_04.user.changes.UserTombstone;
+import yaremax.com.cs_task_24_04.user.changes.UserTombstoneRepository;
+import yaremax.com.cs_task_24_04.user.directory.BirthDateIndex;
+import yaremax.com.cs_task_24_04.user.directory.UserDirectory;
+import yaremax.com.cs_task_24_04.user.outbox.UserChangeType;
+import yaremax.com.cs_task_24_04.user.outbox.UserOutbox;
+import yaremax.com.cs_task_24_04.user.search.SearchCursor;
+import yaremax.com.cs_task_24_04.user.search.UserPrefixIndex;
 import yaremax.com.cs_task_24_04.validator.common.DateRangeValidator;
 import yaremax.com.cs_task_24_04.validator.user.FullUserDtoValidator;
 import yaremax.com.cs_task_24_04.validator.user.PartialUserDtoValidator;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class UserService {
+    public static final int MAX_PAGE_LIMIT = 500;
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int MAX_SEARCH_LIMIT = 100;
+    public static final int MAX_SEARCH_RESULTS = 1000;
+    public static final int MAX_SEARCH_QUERY_LENGTH = 100;
+
     private final UserMapper userMapper;
     private final UserRepository userRepository;
     private final FullUserDtoValidator fullUserDtoValidator;
     private final PartialUserDtoValidator partialUserDtoValidator;
     private final DateRangeValidator dateRangeValidator;
+    private final UserCache userCache;
+    private final SingleFlight<BirthDatePageQuery, List<UserResponse>> birthDatePageFlight;
+    private final UserPrefixIndex userPrefixIndex;
+    private final UserOutbox userOutbox;
+    private final UserTombstoneRepository userTombstoneRepository;
+    private final UserDirectory userDirectory;
+    private final BirthDateIndex birthDateIndex;
+    private final UserChangeFeedService userChangeFeedService;
 
-    public User createUser(UserDto userDto) {
+    @Transactional
+    public UserResponse createUser(UserDto userDto) {
         fullUserDtoValidator.validate(userDto);
-        if (userRepository.existsByEmail(userDto.getEmail())) throw new DuplicateResourceException("User with email " + userDto.getEmail() + " already exists");
-        return userRepository.save(userMapper.toEntity(userDto));
+        try {
+            User createdUser = userRepository.saveAndFlush(userMapper.toEntity(userDto));
+            UserResponse response = userMapper.toResponse(createdUser);
+            userOutbox.record(UserChangeType.CREATED, response);
+            afterCommit(() -> {
+                userCache.evict(response.id());
+                userPrefixIndex.put(response);
+                userDirectory.put(response);
+                birthDateIndex.put(response.id(), response.birthDate(), response.version());
+                userChangeFeedService.committed(createdUser.getUpdatedAt());
+            });
+            return response;
+        } catch (DataIntegrityViolationException ex) {
+            if (!UserConstraints.isDuplicateEmail(ex)) throw ex;
+            throw new DuplicateResourceException("User with email " + userDto.getEmail() + " already exists", ex);
+        }
     }
 
-    public User getUserById(Long id) {
-        return userRepository.findById(id)
+    public UserResponse getUserById(Long id) {
+        if (userDirectory.isReady()) {
+            return userDirectory.find(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User with id " + id + " not found"));
+        }
+        return userCache.get(id, userRepository::findResponseById)
                 .orElseThrow(() -> new ResourceNotFoundException("User with id " + id + " not found"));
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public UserBatchResponse getUsersByIds(List<Long> ids) {
+        if (ids == null) throw new InvalidDataException("Ids must be provided");
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.contains(null)) throw new InvalidDataException("Ids must not contain null");
+        if (distinctIds.size() > MAX_BATCH_SIZE) throw new InvalidDataException("At most " + MAX_BATCH_SIZE + " distinct ids can be requested at once");
+
+        Map<Long, Optional<UserResponse>> found = userCache.getAll(distinctIds, userRepository::findResponsesByIdIn);
+        List<UserResponse> users = new ArrayList<>(distinctIds.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Optional<UserResponse> user = found.getOrDefault(id, Optional.empty());
+            if (user.isPresent()) {
+                users.add(user.get());
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new UserBatchResponse(users, missingIds);
     }
 
-    public User updateUser(Long id, UserDto updatedUserDto) {
-        fullUserDtoValidator.validate(updatedUserDto);
-        User existingUser = userRepository.findById(id)
+    public long getUserVersion(Long id) {
+        if (userDirectory.isReady()) {
+            return userDirectory.find(id)
+                    .map(UserResponse::version)
+                    .orElseThrow(() -> new ResourceNotFoundException("User with id " + id + " not found"));
+        }
+        UserResponse cached = userCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.version();
+        }
+        return userRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User with id " + id + " not found"));
-        if (!existingUser.getEmail().equals(updatedUserDto.getEmail())
-                && userRepository.existsByEmail(updatedUserDto.getEmail())) throw new DuplicateResourceException("Email " + updatedUserDto.getEmail() + " already occupied");
+    }
 
-        existingUser.setEmail(updatedUserDto.getEmail());
-        existingUser.setFirstName(updatedUserDto.getFirstName());
-        existingUser.setLastName(updatedUserDto.getLastName());
-        existingUser.setBirthDate(updatedUserDto.getBirthDate());
+    @Transactional(readOnly = true)
+    public UserPage<UserResponse> getUsersPage(String after, int limit) {
+        validateLimit(limit);
+        long afterId = after == null ? 0L : UserCursor.decode(after).id();
 
+        List<UserResponse> users = userDirectory.isReady()
+                ? userDirectory.findPageAfterId(afterId, limit + 1)
+                : userRepository.findPageAfterId(afterId, Limit.of(limit + 1));
+        return toPage(users, limit, user -> new UserCursor(user.id()));
+    }
 
-        if (updatedUserDto.getAddress() != null) {
-            existingUser.setAddress(existingUser.getAddress());
+    // Filters and sorts other than the default id order go through the specification query; all of them stay keyset paged.
+    public UserPage<UserResponse> getFilteredUsersPage(UserFilter filter, UserSort sort, String after, int limit) {
+        validateLimit(limit);
+        if (filter.hasPhone() != null && filter.bornFrom() == null && filter.bornTo() == null
+                && filter.lastNamePrefix() == null && filter.emailDomain() == null) {
+            // no index leads with has-phone, so on its own it would be a filtered walk of the whole table
+            throw new InvalidDataException("hasPhone must be combined with bornFrom, bornTo, lastName or emailDomain");
+        }
+        if (filter.bornFrom() != null && filter.bornTo() != null) {
+            dateRangeValidator.validate(new DateRange(filter.bornFrom(), filter.bornTo()));
         }
-        if (updatedUserDto.getPhone() != null) {
-            existingUser.setPhone(existingUser.getPhone());
+        UserFilter normalized = new UserFilter(filter.bornFrom(), filter.bornTo(),
+                normalizeLastNamePrefix(filter.lastNamePrefix()), normalizeEmailDomain(filter.emailDomain()), filter.hasPhone());
+
+        UserCursor cursor = null;
+        if (after != null) {
+            cursor = UserCursor.decode(after);
+            if ((cursor.birthDate() == null) != (sort.field() == UserSort.Field.ID)) throw new InvalidDataException("Invalid cursor");
         }
 
-        return userRepository.save(existingUser);
+        List<UserResponse> users = userRepository.findPage(UserSpecifications.matching(normalized), sort, cursor, limit + 1);
+        return toPage(users, limit, sort::cursorOf);
+    }
+
+    // Type-ahead over first name, last name and email prefixes; pages are offset based and capped, since nobody pages deep.
+    public UserPage<UserResponse> searchUsers(String query, String after, int limit) {
+        String prefix = UserPrefixIndex.normalize(query);
+        if (prefix == null || prefix.isEmpty()) throw new InvalidDataException("Search query must not be empty");
+        if (prefix.length() > MAX_SEARCH_QUERY_LENGTH) throw new InvalidDataException("Search query must be at most " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) throw new InvalidDataException("Limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        int offset = after == null ? 0 : SearchCursor.decode(after).offset();
+        if (offset >= MAX_SEARCH_RESULTS) throw new InvalidDataException("Search results are limited to the first " + MAX_SEARCH_RESULTS + " matches");
+
+        List<UserResponse> users;
+        if (userPrefixIndex.isReady()) {
+            List<Long> ids = userPrefixIndex.search(prefix, offset, limit + 1);
+            Map<Long, Optional<UserResponse>> found = userCache.getAll(ids, userRepository::findResponsesByIdIn);
+            users = ids.stream()
+                    .map(found::get)
+                    .filter(Objects::nonNull)
+                    .flatMap(Optional::stream)
+                    .toList();
+        } else {
+            users = userRepository.searchByPrefix(prefix, offset, limit + 1);
+        }
+
+        if (users.size() <= limit || offset + limit >= MAX_SEARCH_RESULTS) {
+            return new UserPage<>(users.subList(0, Math.min(users.size(), limit)), null);
+        }
+        return new UserPage<>(users.subList(0, limit), new SearchCursor(offset + limit).encode());
     }
 
-    public User patchUser(Long id, UserDto partialUserDto) {
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserResponse> consumer) {
+        try (Stream<UserResponse> users = userRepository.streamAllOrderedById()) {
+            users.forEach(consumer);
+        }
+    }
+
+    @Transactional
+    public UserResponse updateUser(Long id, UserDto updatedUserDto, Long expectedVersion) {
+        fullUserDtoValidator.validate(updatedUserDto);
+        return applyChanges(id, updatedUserDto, expectedVersion);
+    }
+
+    @Transactional
+    public UserResponse patchUser(Long id, UserDto partialUserDto, Long expectedVersion) {
         partialUserDtoValidator.validate(partialUserDto);
-        User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User with id " + id + " not found"));
+        return applyChanges(id, partialUserDto, expectedVersion);
+    }
 
-        if (partialUserDto.getEmail() != null) {
-            if (!existingUser.getEmail().equals(partialUserDto.getEmail())
-                    && userRepository.existsByEmail(partialUserDto.getEmail())) throw new DuplicateResourceException("Email " + partialUserDto.getEmail() + " already occupied");
-            existingUser.setEmail(partialUserDto.getEmail());
+    @Transactional
+    public void deleteUser(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            if (!userRepository.existsById(id)) throw new ResourceNotFoundException("User with id " + id + " not found");
+            userRepository.deleteById(id);
+        } else if (userRepository.deleteByIdAndVersion(id, expectedVersion) == 0) {
+            throw versionMismatchOrNotFound(id, expectedVersion);
         }
-        if (partialUserDto.getFirstName() != null) {
-            existingUser.setFirstName(partialUserDto.getFirstName());
+        Instant deletedAt = User.CLOCK.instant();
+        userTombstoneRepository.save(new UserTombstone(id, deletedAt));
+        userOutbox.recordDeleted(id);
+        afterCommit(() -> {
+            userCache.evict(id);
+            userPrefixIndex.remove(id);
+            userDirectory.remove(id, expectedVersion);
+            birthDateIndex.remove(id, expectedVersion);
+            userChangeFeedService.committed(deletedAt);
+        });
+    }
+
+    // Not transactional: callers coalesced onto an in-flight query must not hold a connection while they wait.
+    public UserPage<UserResponse> getUsersPageByBirthDateRange(LocalDate from, LocalDate to, String after, int limit) {
+        dateRangeValidator.validate(new DateRange(from, to));
+        validateLimit(limit);
+        UserCursor start = birthDatePageStart(from, after);
+        LocalDate afterDate = start.birthDate();
+        long afterId = start.id();
+
+        // The index answers the range scan, so the directory or the cache only has to serve lookups by id.
+        if (birthDateIndex.isReady()) {
+            List<UserCursor> entries = birthDateIndex.findPage(afterDate, afterId, to, limit + 1);
+            List<Long> ids = entries.stream().limit(limit).map(UserCursor::id).toList();
+            return new UserPage<>(hydrate(ids), entries.size() > limit ? entries.get(limit - 1).encode() : null);
         }
-        if (partialUserDto.getLastName() != null) {
-            existingUser.setLastName(partialUserDto.getLastName());
+        BirthDatePageQuery query = new BirthDatePageQuery(afterDate, afterId, to, limit + 1);
+        List<UserResponse> users = birthDatePageFlight.execute(query, () -> userRepository.findBirthDatePage(
+                query.afterDate(), query.afterId(), query.to(), Limit.of(query.limit())));
+        return toPage(users, limit, user -> new UserCursor(user.birthDate(), user.id()));
+    }
+
+    public UserPage<Long> getUserIdsByBirthDateRange(LocalDate from, LocalDate to, String after, int limit) {
+        dateRangeValidator.validate(new DateRange(from, to));
+        validateLimit(limit);
+        UserCursor start = birthDatePageStart(from, after);
+
+        List<UserCursor> entries = birthDateIndex.isReady()
+                ? birthDateIndex.findPage(start.birthDate(), start.id(), to, limit + 1)
+                : userRepository.findBirthDateIdPage(start.birthDate(), start.id(), to, Limit.of(limit + 1));
+        List<Long> ids = entries.stream().limit(limit).map(UserCursor::id).toList();
+        return new UserPage<>(ids, entries.size() > limit ? entries.get(limit - 1).encode() : null);
+    }
+
+    public long countUsersByBirthDateRange(LocalDate from, LocalDate to) {
+        dateRangeValidator.validate(new DateRange(from, to));
+        return birthDateIndex.isReady()
+                ? birthDateIndex.count(from, to)
+                : userRepository.countByBirthDateBetween(from, to);
+    }
+
+    /**
+     * Lets streaming endpoints reject an invalid range before the response is committed.
+     */
+    public void validateBirthDateRange(LocalDate from, LocalDate to) {
+        dateRangeValidator.validate(new DateRange(from, to));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamUsersByBirthDateRange(LocalDate from, LocalDate to, Consumer<UserResponse> consumer) {
+        dateRangeValidator.validate(new DateRange(from, to));
+        if (birthDateIndex.isReady()) {
+            streamFromBirthDateIndex(from, to, consumer);
+            return;
         }
-        if (partialUserDto.getBirthDate() != null) {
-            existingUser.setBirthDate(partialUserDto.getBirthDate());
+        try (Stream<UserResponse> users = userRepository.streamByBirthDateBetween(from, to)) {
+            users.forEach(consumer);
         }
-        if (partialUserDto.getAddress() != null) {
-            existingUser.setAddress(partialUserDto.getAddress());
+    }
+
+    // Hydrates the index in batches of ids, so the database only ever serves primary key lookups.
+    private void streamFromBirthDateIndex(LocalDate from, LocalDate to, Consumer<UserResponse> consumer) {
+        UserCursor position = new UserCursor(from, 0L);
+        while (true) {
+            List<UserCursor> entries = birthDateIndex.findPage(position.birthDate(), position.id(), to, MAX_BATCH_SIZE);
+            if (entries.isEmpty()) return;
+            List<Long> ids = entries.stream().map(UserCursor::id).toList();
+            Map<Long, UserResponse> found = userRepository.findResponsesByIdIn(ids).stream()
+                    .collect(Collectors.toMap(UserResponse::id, Function.identity()));
+            inIndexOrder(ids, found::get).forEach(consumer);
+            if (entries.size() < MAX_BATCH_SIZE) return;
+            position = entries.get(entries.size() - 1);
+        }
+    }
+
+    private List<UserResponse> hydrate(List<Long> ids) {
+        if (userDirectory.isReady()) {
+            return inIndexOrder(ids, id -> userDirectory.find(id).orElse(null));
         }
-        if (partialUserDto.getPhone() != null) {
-            existingUser.setPhone(partialUserDto.getPhone());
+        Map<Long, Optional<UserResponse>> found = userCache.getAll(ids, userRepository::findResponsesByIdIn);
+        return inIndexOrder(ids, id -> found.getOrDefault(id, Optional.empty()).orElse(null));
+    }
+
+    // Users deleted after the index was read are skipped.
+    private static List<UserResponse> inIndexOrder(List<Long> ids, Function<Long, UserResponse> lookup) {
+        List<UserResponse> users = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            UserResponse user = lookup.apply(id);
+            if (user != null) users.add(user);
         }
-        return userRepository.save(existingUser);
+        return users;
     }
 
-    public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) throw new ResourceNotFoundException("User with id " + id + " not found");
-        userRepository.deleteById(id);
+    private static UserCursor birthDatePageStart(LocalDate from, String after) {
+        if (after == null) return new UserCursor(from, 0L);
+        UserCursor cursor = UserCursor.decode(after);
+        if (cursor.birthDate() == null) throw new InvalidDataException("Invalid cursor");
+        return cursor.birthDate().isBefore(from) ? new UserCursor(from, 0L) : cursor;
     }
 
-    public List<User> getAllUsersByBirthDateRange(LocalDate from, LocalDate to) {
-        dateRangeValidator.validate(new DateRange(from, to));
-        return userRepository.findUsersByBirthDateBetween(from, to);
+    private UserResponse applyChanges(Long id, UserDto changes, Long expectedVersion) {
+        try {
+            // the update stamps the row later in the transaction, so this is never after its change time
+            Instant changedAt = User.CLOCK.instant();
+            UserResponse updatedUser = userRepository.updateNonNullFields(id, changes, expectedVersion)
+                    .orElseThrow(() -> versionMismatchOrNotFound(id, expectedVersion));
+            // an empty patch only checks the user and its version; nothing was written, so there is nothing to publish
+            if (isEmpty(changes)) return updatedUser;
+            userOutbox.record(UserChangeType.UPDATED, updatedUser);
+            afterCommit(() -> {
+                userCache.evict(id);
+                userPrefixIndex.put(updatedUser);
+                userDirectory.put(updatedUser);
+                birthDateIndex.put(id, updatedUser.birthDate(), updatedUser.version());
+                userChangeFeedService.committed(changedAt);
+            });
+            return updatedUser;
+        } catch (DataIntegrityViolationException ex) {
+            if (!UserConstraints.isDuplicateEmail(ex)) throw ex;
+            throw new DuplicateResourceException("Email " + changes.getEmail() + " already occupied", ex);
+        }
+    }
+
+    private static boolean isEmpty(UserDto changes) {
+        return changes.getEmail() == null && changes.getFirstName() == null && changes.getLastName() == null
+                && changes.getBirthDate() == null && changes.getAddress() == null && changes.getPhone() == null;
+    }
+
+    // Only called once a conditional statement matched no row, so the extra lookup stays off the happy path.
+    private RuntimeException versionMismatchOrNotFound(Long id, Long expectedVersion) {
+        if (expectedVersion != null && userRepository.findVersionById(id).isPresent()) {
+            return new PreconditionFailedException("User with id " + id + " was modified concurrently");
+        }
+        return new ResourceNotFoundException("User with id " + id + " not found");
+    }
+
+    // Caches must not be refreshed from a transaction that may still roll back; outside one there is nothing to wait for.
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String normalizeLastNamePrefix(String prefix) {
+        if (prefix == null) return null;
+        String trimmed = prefix.trim();
+        if (trimmed.isEmpty()) throw new InvalidDataException("Last name filter must not be empty");
+        return trimmed;
+    }
+
+    private static String normalizeEmailDomain(String domain) {
+        if (domain == null) return null;
+        String normalized = User.emailDomainOf(domain.trim());
+        if (normalized.isEmpty()) throw new InvalidDataException("Email domain filter must not be empty");
+        return normalized;
+    }
+
+    private void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) throw new InvalidDataException("Limit must be between 1 and " + MAX_PAGE_LIMIT);
+    }
+
+    private UserPage<UserResponse> toPage(List<UserResponse> users, int limit, Function<UserResponse, UserCursor> cursorOf) {
+        if (users.size() <= limit) {
+            return new UserPage<>(users, null);
+        }
+        List<UserResponse> items = users.subList(0, limit);
+        return new UserPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
     }
 }
@@ -0,0 +1,55 @@
+package yaremax.com.cs_task_24_04.user;
+
+import org.springframework.data.domain.Sort;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+
+import java.util.Locale;
+
+/**
+ * Orders supported by the filtered listing. Both are total orders ending in {@code id}, so pages can be keyed on the
+ * last row instead of an offset.
+ */
+public record UserSort(Field field, Sort.Direction direction) {
+    public static final UserSort DEFAULT = new UserSort(Field.ID, Sort.Direction.ASC);
+
+    public enum Field {
+        ID("id"),
+        BIRTH_DATE("birthDate");
+
+        private final String parameter;
+
+        Field(String parameter) {
+            this.parameter = parameter;
+        }
+    }
+
+    // Accepts the usual "property[,asc|desc]" form, e.g. "birthDate,desc".
+    public static UserSort parse(String sort) {
+        if (sort == null) {
+            return DEFAULT;
+        }
+        String[] parts = sort.split(",", -1);
+        if (parts.length > 2) throw new InvalidDataException("Invalid sort " + sort);
+
+        Field field = null;
+        for (Field candidate : Field.values()) {
+            if (candidate.parameter.equals(parts[0].trim())) {
+                field = candidate;
+            }
+        }
+        if (field == null) throw new InvalidDataException("Users can only be sorted by id or birthDate");
+
+        if (parts.length == 1) {
+            return new UserSort(field, Sort.Direction.ASC);
+        }
+        return switch (parts[1].trim().toLowerCase(Locale.ROOT)) {
+            case "asc" -> new UserSort(field, Sort.Direction.ASC);
+            case "desc" -> new UserSort(field, Sort.Direction.DESC);
+            default -> throw new InvalidDataException("Sort direction must be asc or desc");
+        };
+    }
+
+    public UserCursor cursorOf(UserResponse user) {
+        return field == Field.ID ? new UserCursor(user.id()) : new UserCursor(user.birthDate(), user.id());
+    }
+}
@@ -0,0 +1,78 @@
+package yaremax.com.cs_task_24_04.user;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Filters for the user listing. Each supported combination is served by one of the indexes declared on {@link User}:
+ * email domain, last name and birth date lead their own composite index, and has-phone only ever narrows one of those.
+ */
+public final class UserSpecifications {
+    static final char LIKE_ESCAPE = '\\';
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> matching(UserFilter filter) {
+        return Specification.where(bornBetween(filter.bornFrom(), filter.bornTo()))
+                .and(lastNameStartsWith(filter.lastNamePrefix()))
+                .and(emailDomainIs(filter.emailDomain()))
+                .and(hasPhone(filter.hasPhone()));
+    }
+
+    public static Specification<User> bornBetween(LocalDate from, LocalDate to) {
+        return (user, query, cb) -> {
+            if (from == null && to == null) return null;
+            Path<LocalDate> birthDate = user.get("birthDate");
+            if (from == null) return cb.lessThanOrEqualTo(birthDate, to);
+            if (to == null) return cb.greaterThanOrEqualTo(birthDate, from);
+            return cb.between(birthDate, from, to);
+        };
+    }
+
+    public static Specification<User> lastNameStartsWith(String prefix) {
+        return (user, query, cb) -> prefix == null ? null : cb.like(user.get("lastName"), startsWith(prefix), LIKE_ESCAPE);
+    }
+
+    public static Specification<User> emailDomainIs(String domain) {
+        return (user, query, cb) -> domain == null ? null : cb.equal(user.get("emailDomain"), domain);
+    }
+
+    public static Specification<User> hasPhone(Boolean hasPhone) {
+        return (user, query, cb) -> {
+            if (hasPhone == null) return null;
+            return hasPhone ? cb.isNotNull(user.get("phone")) : cb.isNull(user.get("phone"));
+        };
+    }
+
+    // Rows strictly after the cursor in the given order, written so the leading sort column stays an index range.
+    public static Specification<User> after(UserSort sort, UserCursor cursor) {
+        return (user, query, cb) -> {
+            if (cursor == null) return null;
+            boolean ascending = sort.direction().isAscending();
+            Path<Long> id = user.get("id");
+            Predicate idAfter = ascending ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+            if (sort.field() == UserSort.Field.ID) {
+                return idAfter;
+            }
+            Path<LocalDate> birthDate = user.get("birthDate");
+            return ascending
+                    ? cb.and(cb.greaterThanOrEqualTo(birthDate, cursor.birthDate()), cb.or(cb.greaterThan(birthDate, cursor.birthDate()), idAfter))
+                    : cb.and(cb.lessThanOrEqualTo(birthDate, cursor.birthDate()), cb.or(cb.lessThan(birthDate, cursor.birthDate()), idAfter));
+        };
+    }
+
+    static String startsWith(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 4);
+        for (char c : prefix.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -0,0 +1,6 @@
+package yaremax.com.cs_task_24_04.user.bulk;
+
+import java.util.List;
+
+public record BulkImportResult(int total, int created, int rejected, List<BulkRowError> errors) {
+}
@@ -0,0 +1,4 @@
+package yaremax.com.cs_task_24_04.user.bulk;
+
+public record BulkRowError(int row, String email, String message) {
+}
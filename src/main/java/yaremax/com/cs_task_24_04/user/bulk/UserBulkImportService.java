@@ -0,0 +1,188 @@
+package yaremax.com.cs_task_24_04.user.bulk;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.mappers.UserMapper;
+import yaremax.com.cs_task_24_04.user.User;
+import yaremax.com.cs_task_24_04.user.UserConstraints;
+import yaremax.com.cs_task_24_04.user.UserDto;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.user.cache.UserCache;
+import yaremax.com.cs_task_24_04.user.changes.UserChangeFeedService;
+import yaremax.com.cs_task_24_04.user.directory.BirthDateIndex;
+import yaremax.com.cs_task_24_04.user.directory.UserDirectory;
+import yaremax.com.cs_task_24_04.user.outbox.UserChangeType;
+import yaremax.com.cs_task_24_04.user.outbox.UserOutbox;
+import yaremax.com.cs_task_24_04.user.search.UserPrefixIndex;
+import yaremax.com.cs_task_24_04.validator.user.FullUserDtoValidator;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@Profile("!reactive")
+public class UserBulkImportService {
+    private final UserMapper userMapper;
+    private final UserRepository userRepository;
+    private final FullUserDtoValidator fullUserDtoValidator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final UserCache userCache;
+    private final UserPrefixIndex userPrefixIndex;
+    private final UserDirectory userDirectory;
+    private final BirthDateIndex birthDateIndex;
+    private final UserOutbox userOutbox;
+    private final UserChangeFeedService userChangeFeedService;
+    private final int chunkSize;
+
+    public UserBulkImportService(UserMapper userMapper,
+                                 UserRepository userRepository,
+                                 FullUserDtoValidator fullUserDtoValidator,
+                                 TransactionTemplate transactionTemplate,
+                                 EntityManager entityManager,
+                                 UserCache userCache,
+                                 UserPrefixIndex userPrefixIndex,
+                                 UserDirectory userDirectory,
+                                 BirthDateIndex birthDateIndex,
+                                 UserOutbox userOutbox,
+                                 UserChangeFeedService userChangeFeedService,
+                                 @Value("${app.config.bulk.chunkSize}") int chunkSize) {
+        this.userMapper = userMapper;
+        this.userRepository = userRepository;
+        this.fullUserDtoValidator = fullUserDtoValidator;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.userCache = userCache;
+        this.userPrefixIndex = userPrefixIndex;
+        this.userDirectory = userDirectory;
+        this.birthDateIndex = birthDateIndex;
+        this.userOutbox = userOutbox;
+        this.userChangeFeedService = userChangeFeedService;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkImportResult importUsers(Iterator<UserDto> users) {
+        List<BulkRowError> errors = new ArrayList<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int total = 0;
+        int created = 0;
+
+        while (true) {
+            UserDto userDto;
+            try {
+                if (!users.hasNext()) break;
+                userDto = users.next();
+            } catch (RuntimeException ex) {
+                errors.add(new BulkRowError(total, null, "Malformed input, import stopped: " + ex.getMessage()));
+                total++;
+                break;
+            }
+
+            chunk.add(new Row(total++, userDto));
+            if (chunk.size() == chunkSize) {
+                created += importChunk(chunk, errors);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += importChunk(chunk, errors);
+        }
+
+        return new BulkImportResult(total, created, errors.size(), errors);
+    }
+
+    private int importChunk(List<Row> chunk, List<BulkRowError> errors) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        Set<String> emails = new HashSet<>();
+        for (Row row : chunk) {
+            try {
+                fullUserDtoValidator.validate(row.userDto());
+            } catch (InvalidDataException ex) {
+                errors.add(row.error(ex.getMessage()));
+                continue;
+            }
+            if (!emails.add(row.userDto().getEmail())) {
+                errors.add(row.error("Duplicate email in request"));
+                continue;
+            }
+            valid.add(row);
+        }
+        if (valid.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> existingEmails = userRepository.findExistingEmails(emails);
+        List<Row> accepted = new ArrayList<>(valid.size());
+        for (Row row : valid) {
+            if (existingEmails.contains(row.userDto().getEmail())) {
+                errors.add(row.error("User with email " + row.userDto().getEmail() + " already exists"));
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            Instant changedAt = User.CLOCK.instant();
+            List<UserResponse> created = transactionTemplate.execute(status -> {
+                List<User> users = userRepository.saveAll(accepted.stream().map(row -> userMapper.toEntity(row.userDto())).toList());
+                List<UserResponse> responses = users.stream().map(userMapper::toResponse).toList();
+                userOutbox.recordAll(UserChangeType.CREATED, responses);
+                userRepository.flush();
+                entityManager.clear();
+                return responses;
+            });
+            userCache.evictAll(created.stream().map(UserResponse::id).toList());
+            created.forEach(userPrefixIndex::put);
+            created.forEach(userDirectory::put);
+            created.forEach(user -> birthDateIndex.put(user.id(), user.birthDate(), user.version()));
+            userChangeFeedService.committed(changedAt);
+            return accepted.size();
+        } catch (DataIntegrityViolationException ex) {
+            return importRowByRow(accepted, errors);
+        }
+    }
+
+    private int importRowByRow(List<Row> rows, List<BulkRowError> errors) {
+        int created = 0;
+        for (Row row : rows) {
+            User user = userMapper.toEntity(row.userDto());
+            try {
+                Instant changedAt = User.CLOCK.instant();
+                UserResponse response = transactionTemplate.execute(status -> {
+                    UserResponse saved = userMapper.toResponse(userRepository.save(user));
+                    userOutbox.record(UserChangeType.CREATED, saved);
+                    return saved;
+                });
+                userCache.evict(response.id());
+                userPrefixIndex.put(response);
+                userDirectory.put(response);
+                birthDateIndex.put(response.id(), response.birthDate(), response.version());
+                userChangeFeedService.committed(changedAt);
+                created++;
+            } catch (DataIntegrityViolationException ex) {
+                if (!UserConstraints.isDuplicateEmail(ex)) throw ex;
+                errors.add(row.error("User with email " + row.userDto().getEmail() + " already exists"));
+            }
+        }
+        return created;
+    }
+
+    private record Row(int index, UserDto userDto) {
+        BulkRowError error(String message) {
+            return new BulkRowError(index, userDto == null ? null : userDto.getEmail(), message);
+        }
+    }
+}
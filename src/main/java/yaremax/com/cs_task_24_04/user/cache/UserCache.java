@@ -0,0 +1,175 @@
+package yaremax.com.cs_task_24_04.user.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+@Component
+public class UserCache {
+    private static final String CACHE_NAME = "users";
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final AsyncCache<Long, Optional<UserResponse>> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final boolean negativeEnabled;
+    private final long maxWaitNanos;
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter timeouts;
+
+    public UserCache(@Value("${app.config.cache.users.maxSize}") long maxSize,
+                     @Value("${app.config.cache.users.ttl}") Duration ttl,
+                     @Value("${app.config.cache.users.negativeEnabled}") boolean negativeEnabled,
+                     @Value("${app.config.cache.users.negativeTtl}") Duration negativeTtl,
+                     @Value("${app.config.singleFlight.maxWait}") Duration maxWait,
+                     MeterRegistry meterRegistry) {
+        this.negativeEnabled = negativeEnabled;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.leaders = SingleFlight.counter(meterRegistry, CACHE_NAME, "leader");
+        this.coalesced = SingleFlight.counter(meterRegistry, CACHE_NAME, "coalesced");
+        this.timeouts = SingleFlight.counter(meterRegistry, CACHE_NAME, "timeout");
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PresenceAwareExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * The first caller to miss an id puts an incomplete future in the cache and runs the loader on its own thread,
+     * outside the cache's locks, so a slow query neither blocks other ids nor pins a virtual thread's carrier; concurrent
+     * callers for the same id wait for that future for at most {@code maxWait} and then load on their own, without
+     * caching. An eviction issued while the load runs removes the future, so a row read before a write commits is
+     * handed to the callers already waiting but never cached.
+     */
+    public Optional<UserResponse> get(Long id, Function<Long, Optional<UserResponse>> loader) {
+        CompletableFuture<Optional<UserResponse>> call = new CompletableFuture<>();
+        CompletableFuture<Optional<UserResponse>> cached = cache.get(id, (key, executor) -> call);
+        if (cached != call) {
+            return cached.isDone() ? present(cached.join()) : await(cached, id, loader);
+        }
+
+        leaders.increment();
+        try {
+            Optional<UserResponse> loaded = loader.apply(id);
+            call.complete(loaded.isPresent() || negativeEnabled ? loaded : null);
+            return loaded;
+        } catch (RuntimeException ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private Optional<UserResponse> await(CompletableFuture<Optional<UserResponse>> call, Long id,
+                                         Function<Long, Optional<UserResponse>> loader) {
+        coalesced.increment();
+        try {
+            return present(call.get(maxWaitNanos, TimeUnit.NANOSECONDS));
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            return loader.apply(id);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight load", ex);
+        }
+    }
+
+    // A user missing without negative caching completes its load with null.
+    private static Optional<UserResponse> present(Optional<UserResponse> user) {
+        return user == null ? Optional.empty() : user;
+    }
+
+    /**
+     * Loads the missing ids in one call, outside the cache. Each id is cached only if no eviction hit it while the load
+     * ran: {@link #evict} bumps the id's generation before invalidating, and the result is stored under the map lock
+     * only when the generation is still the one seen before the load.
+     */
+    public Map<Long, Optional<UserResponse>> getAll(Collection<Long> ids, Function<List<Long>, List<UserResponse>> loader) {
+        Map<Long, Optional<UserResponse>> result = new HashMap<>(cache.synchronous().getAllPresent(ids));
+        List<Long> missing = ids.stream().distinct().filter(id -> !result.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, Long> started = new HashMap<>();
+        missing.forEach(id -> started.put(id, generation(id)));
+        Map<Long, Optional<UserResponse>> loaded = new HashMap<>();
+        missing.forEach(id -> loaded.put(id, Optional.empty()));
+        loader.apply(missing).forEach(user -> loaded.put(user.id(), Optional.of(user)));
+
+        loaded.forEach((id, user) -> {
+            if (user.isEmpty() && !negativeEnabled) {
+                return;
+            }
+            cache.asMap().compute(id, (key, current) ->
+                    current == null && generation(key) == started.get(key) ? CompletableFuture.completedFuture(user) : current);
+            result.put(id, user);
+        });
+        return result;
+    }
+
+    public UserResponse getIfPresent(Long id) {
+        Optional<UserResponse> cached = cache.synchronous().getIfPresent(id);
+        return cached == null ? null : cached.orElse(null);
+    }
+
+    public void evict(Long id) {
+        generations.incrementAndGet(stripe(id));
+        cache.synchronous().invalidate(id);
+    }
+
+    public void evictAll(Collection<Long> ids) {
+        ids.forEach(id -> generations.incrementAndGet(stripe(id)));
+        cache.synchronous().invalidateAll(ids);
+    }
+
+    private long generation(Long id) {
+        return generations.get(stripe(id));
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (GENERATION_STRIPES - 1);
+    }
+
+    private record PresenceAwareExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<Long, Optional<UserResponse>> {
+        @Override
+        public long expireAfterCreate(Long id, Optional<UserResponse> user, long currentTime) {
+            return user.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long id, Optional<UserResponse> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long id, Optional<UserResponse> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package yaremax.com.cs_task_24_04.user.changes;
+
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in the change feed: the change time and user id of the last change a client has seen.
+ */
+public record ChangeWatermark(Instant time, long id) {
+    public static final ChangeWatermark START = new ChangeWatermark(Instant.EPOCH, 0L);
+    private static final char SEPARATOR = '_';
+
+    public String encode() {
+        String raw = time.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeWatermark decode(String watermark) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) throw new InvalidDataException("Invalid watermark");
+            return new ChangeWatermark(Instant.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new InvalidDataException("Invalid watermark", ex);
+        }
+    }
+
+    boolean isBefore(Instant otherTime, long otherId) {
+        int byTime = time.compareTo(otherTime);
+        return byTime < 0 || (byTime == 0 && id < otherId);
+    }
+}
@@ -0,0 +1,15 @@
+package yaremax.com.cs_task_24_04.user.changes;
+
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public record ChangedUser(UserResponse user, Instant updatedAt) {
+
+    // Constructor expression target: JPQL cannot nest "new" expressions.
+    public ChangedUser(Long id, String email, String firstName, String lastName, LocalDate birthDate,
+                       String address, String phone, Long version, Instant updatedAt) {
+        this(new UserResponse(id, email, firstName, lastName, birthDate, address, phone, version), updatedAt);
+    }
+}
@@ -0,0 +1,12 @@
+package yaremax.com.cs_task_24_04.user.changes;
+
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.Instant;
+
+/**
+ * One entry of the change feed: the current state of a created or updated user, or a tombstone ({@code deleted},
+ * {@code user} null) for a deleted one.
+ */
+public record UserChangeEntry(Long id, boolean deleted, Instant changedAt, UserResponse user) {
+}
@@ -0,0 +1,294 @@
+package yaremax.com.cs_task_24_04.user.changes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.user.User;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads created, updated and deleted users in change order, keyed by (change time, user id).
+ * <p>
+ * Change times are taken before commit, so a transaction can become visible after later-stamped ones. Changes
+ * younger than {@code settleTime} are held back until such transactions have committed; a client resuming from the
+ * returned watermark therefore does not skip them. Writers report their commits through {@link #committed}: a commit
+ * that arrives after its changes should have settled may have been skipped and is counted as
+ * {@code user.changes.late.commits}, and waiting long polls are rechecked once the change has settled instead of on a
+ * timer. Such a recheck reads the change window once, from the lowest watermark any poll is parked at, and hands each
+ * poll its slice of it. {@code recheckInterval} only bounds how late they see changes committed by other instances.
+ */
+@Service
+@Profile("!reactive")
+public class UserChangeFeedService {
+    public static final int MAX_LIMIT = 500;
+    public static final Duration MAX_WAIT = Duration.ofSeconds(30);
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserChangeFeedService.class);
+    // Commits settling within the same tick share one wake-up, so a write burst reads the change window at most once per tick.
+    private static final long WAKE_TICK_MILLIS = 100;
+
+    private final UserRepository userRepository;
+    private final UserTombstoneRepository userTombstoneRepository;
+    private final Duration settleTime;
+    private final Duration recheckInterval;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private final Counter lateCommits;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingWakeTicks = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public UserChangeFeedService(UserRepository userRepository,
+                                 UserTombstoneRepository userTombstoneRepository,
+                                 @Value("${app.config.changes.settleTime}") Duration settleTime,
+                                 @Value("${app.config.changes.recheckInterval}") Duration recheckInterval,
+                                 MeterRegistry meterRegistry) {
+        this(userRepository, userTombstoneRepository, settleTime, recheckInterval, meterRegistry, User.CLOCK,
+                Executors.newScheduledThreadPool(2, runnable -> {
+                    Thread thread = new Thread(runnable, "user-changes-poll");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    UserChangeFeedService(UserRepository userRepository,
+                          UserTombstoneRepository userTombstoneRepository,
+                          Duration settleTime,
+                          Duration recheckInterval,
+                          MeterRegistry meterRegistry,
+                          Clock clock,
+                          ScheduledExecutorService scheduler) {
+        this.userRepository = userRepository;
+        this.userTombstoneRepository = userTombstoneRepository;
+        this.settleTime = settleTime;
+        this.recheckInterval = recheckInterval;
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.lateCommits = meterRegistry.counter("user.changes.late.commits");
+    }
+
+    public UserChangesPage getChanges(String since, int limit) {
+        validateLimit(limit);
+        return readChanges(decode(since), limit);
+    }
+
+    /**
+     * Same as {@link #getChanges}, but while there are no changes after {@code since} waits for up to {@code wait}
+     * for one to settle before completing with an empty page.
+     */
+    public CompletableFuture<UserChangesPage> awaitChanges(String since, int limit, Duration wait) {
+        validateLimit(limit);
+        if (wait.isNegative() || wait.compareTo(MAX_WAIT) > 0) {
+            throw new InvalidDataException("Wait must be between 0 and " + MAX_WAIT.toSeconds() + " seconds");
+        }
+        ChangeWatermark watermark = decode(since);
+        if (wait.isZero()) return CompletableFuture.completedFuture(readChanges(watermark, limit));
+        // registered before the first read, so a change settling meanwhile still wakes it
+        Waiter waiter = new Waiter(watermark, limit, System.nanoTime() + wait.toNanos());
+        waiters.add(waiter);
+        scheduler.execute(waiter::check);
+        return waiter.result;
+    }
+
+    /**
+     * Called by writers once a transaction whose earliest change time is {@code changedAt} has committed.
+     */
+    public void committed(Instant changedAt) {
+        Instant now = clock.instant();
+        Instant settledAt = changedAt.plus(settleTime);
+        if (now.isAfter(settledAt)) {
+            lateCommits.increment();
+            LOGGER.warn("A change stamped {} committed {} after it settled; clients past it may have skipped it",
+                    changedAt, Duration.between(settledAt, now));
+        }
+        long tick = Math.floorDiv(settledAt.toEpochMilli() + WAKE_TICK_MILLIS - 1, WAKE_TICK_MILLIS);
+        if (pendingWakeTicks.add(tick)) {
+            scheduler.schedule(() -> {
+                pendingWakeTicks.remove(tick);
+                wakeWaiters();
+            }, Math.max(0, tick * WAKE_TICK_MILLIS - now.toEpochMilli()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Position up to which changes have settled: everything changed before it is visible to a read started now.
+     */
+    public ChangeWatermark settledWatermark() {
+        return new ChangeWatermark(clock.instant().minus(settleTime), Long.MAX_VALUE);
+    }
+
+    /**
+     * Passes every change after {@code after} to {@code consumer}, including changes that have not settled yet, for
+     * catching up at startup when no transaction of this instance can still be in flight.
+     */
+    public void replayChanges(ChangeWatermark after, Consumer<UserChangeEntry> consumer) {
+        Instant until = clock.instant().plus(settleTime);
+        UserChangesPage page;
+        do {
+            page = readChanges(after, MAX_LIMIT, until);
+            page.changes().forEach(consumer);
+            after = ChangeWatermark.decode(page.watermark());
+        } while (page.hasMore());
+    }
+
+    private UserChangesPage readChanges(ChangeWatermark after, int limit) {
+        return readChanges(after, limit, clock.instant().minus(settleTime));
+    }
+
+    private UserChangesPage readChanges(ChangeWatermark after, int limit, Instant until) {
+        return page(after, readWindow(after, limit, until), limit);
+    }
+
+    /**
+     * The first {@code limit + 1} changes after {@code after}, so that whether there are more can be told from the size.
+     */
+    private List<UserChangeEntry> readWindow(ChangeWatermark after, int limit, Instant until) {
+        Limit fetch = Limit.of(limit + 1);
+        List<ChangedUser> users = userRepository.findChangesAfter(after.time(), after.id(), until, fetch);
+        List<UserTombstone> tombstones = userTombstoneRepository.findChangesAfter(after.time(), after.id(), until, fetch);
+
+        List<UserChangeEntry> changes = new ArrayList<>(Math.min(limit + 1, users.size() + tombstones.size()));
+        int u = 0;
+        int t = 0;
+        while (changes.size() <= limit && (u < users.size() || t < tombstones.size())) {
+            if (t == tombstones.size() || (u < users.size() && isBefore(users.get(u), tombstones.get(t)))) {
+                ChangedUser user = users.get(u++);
+                changes.add(new UserChangeEntry(user.user().id(), false, user.updatedAt(), user.user()));
+            } else {
+                UserTombstone tombstone = tombstones.get(t++);
+                changes.add(new UserChangeEntry(tombstone.getUserId(), true, tombstone.getDeletedAt(), null));
+            }
+        }
+        return changes;
+    }
+
+    private static UserChangesPage page(ChangeWatermark after, List<UserChangeEntry> window, int limit) {
+        List<UserChangeEntry> changes = window.size() > limit ? window.subList(0, limit) : window;
+        ChangeWatermark next = changes.isEmpty()
+                ? after
+                : new ChangeWatermark(changes.get(changes.size() - 1).changedAt(), changes.get(changes.size() - 1).id());
+        return new UserChangesPage(List.copyOf(changes), next.encode(), window.size() > limit);
+    }
+
+    /**
+     * Rechecks every parked long poll with one read from the lowest of their watermarks. A poll whose watermark lies
+     * beyond a full window reads on its own; one that finds nothing in it stays parked.
+     */
+    private void wakeWaiters() {
+        List<Waiter> parked = new ArrayList<>(waiters);
+        if (parked.isEmpty()) return;
+        ChangeWatermark lowest = parked.get(0).watermark;
+        for (Waiter waiter : parked) {
+            if (waiter.watermark.isBefore(lowest.time(), lowest.id())) lowest = waiter.watermark;
+        }
+        List<UserChangeEntry> window;
+        try {
+            window = readWindow(lowest, MAX_LIMIT, clock.instant().minus(settleTime));
+        } catch (RuntimeException ex) {
+            parked.forEach(waiter -> waiter.fail(ex));
+            return;
+        }
+        boolean full = window.size() > MAX_LIMIT;
+        for (Waiter waiter : parked) {
+            int from = 0;
+            while (from < window.size() && !waiter.watermark.isBefore(window.get(from).changedAt(), window.get(from).id())) {
+                from++;
+            }
+            if (from < window.size()) {
+                // with a full window, changes past its end may follow this poll's slice
+                List<UserChangeEntry> slice = window.subList(from, window.size());
+                UserChangesPage page = page(waiter.watermark, slice, waiter.limit);
+                waiter.complete(full && slice.size() <= waiter.limit
+                        ? new UserChangesPage(page.changes(), page.watermark(), true)
+                        : page);
+            } else if (full) {
+                scheduler.execute(waiter::check);
+            }
+        }
+    }
+
+    private final class Waiter {
+        private final ChangeWatermark watermark;
+        private final int limit;
+        private final long deadline;
+        private final CompletableFuture<UserChangesPage> result = new CompletableFuture<>();
+        private ScheduledFuture<?> recheck;
+
+        private Waiter(ChangeWatermark watermark, int limit, long deadline) {
+            this.watermark = watermark;
+            this.limit = limit;
+            this.deadline = deadline;
+        }
+
+        private synchronized void check() {
+            if (result.isDone()) return;
+            if (recheck != null) recheck.cancel(false);
+            try {
+                UserChangesPage page = readChanges(watermark, limit);
+                long remaining = deadline - System.nanoTime();
+                if (!page.changes().isEmpty() || remaining <= 0) {
+                    complete(page);
+                    return;
+                }
+                recheck = scheduler.schedule(this::check, Math.min(recheckInterval.toNanos(), remaining), TimeUnit.NANOSECONDS);
+            } catch (RuntimeException ex) {
+                fail(ex);
+            }
+        }
+
+        private synchronized void complete(UserChangesPage page) {
+            if (result.isDone()) return;
+            if (recheck != null) recheck.cancel(false);
+            waiters.remove(this);
+            result.complete(page);
+        }
+
+        private synchronized void fail(RuntimeException ex) {
+            if (result.isDone()) return;
+            if (recheck != null) recheck.cancel(false);
+            waiters.remove(this);
+            result.completeExceptionally(ex);
+        }
+    }
+
+    private static boolean isBefore(ChangedUser user, UserTombstone tombstone) {
+        return new ChangeWatermark(user.updatedAt(), user.user().id())
+                .isBefore(tombstone.getDeletedAt(), tombstone.getUserId());
+    }
+
+    private static ChangeWatermark decode(String since) {
+        return since == null ? ChangeWatermark.START : ChangeWatermark.decode(since);
+    }
+
+    private static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidDataException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
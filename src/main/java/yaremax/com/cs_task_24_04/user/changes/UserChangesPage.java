@@ -0,0 +1,6 @@
+package yaremax.com.cs_task_24_04.user.changes;
+
+import java.util.List;
+
+public record UserChangesPage(List<UserChangeEntry> changes, String watermark, boolean hasMore) {
+}
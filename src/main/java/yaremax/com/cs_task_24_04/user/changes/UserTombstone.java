@@ -0,0 +1,21 @@
+package yaremax.com.cs_task_24_04.user.changes;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "user_tombstones", indexes = {
+        @Index(name = "idx_user_tombstones_deleted_at_user_id", columnList = "deleted_at, user_id")
+})
+public class UserTombstone {
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+}
@@ -0,0 +1,23 @@
+package yaremax.com.cs_task_24_04.user.changes;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UserTombstoneRepository extends JpaRepository<UserTombstone, Long> {
+
+    @Query("select t from UserTombstone t where t.deletedAt >= :afterTime and t.deletedAt <= :until"
+            + " and (t.deletedAt > :afterTime or t.userId > :afterId) order by t.deletedAt, t.userId")
+    @Transactional(readOnly = true)
+    List<UserTombstone> findChangesAfter(@Param("afterTime") Instant afterTime,
+                                         @Param("afterId") Long afterId,
+                                         @Param("until") Instant until,
+                                         Limit limit);
+}
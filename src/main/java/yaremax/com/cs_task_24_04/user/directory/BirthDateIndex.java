@@ -0,0 +1,357 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import yaremax.com.cs_task_24_04.user.DateRange;
+import yaremax.com.cs_task_24_04.user.UserCursor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Users ordered by (birth date, id), held as sorted primitive {@code int[]} epoch days with parallel {@code long[]}
+ * ids. The arrays are split into blocks of at most {@value #BLOCK_CAPACITY} entries so that a write shifts one block
+ * rather than the whole index; a range is two binary searches and a walk over contiguous slices.
+ * <p>
+ * Disabled by default; until {@link #load} has finished, {@link #isReady()} is false and callers go to the database.
+ * <p>
+ * Writes carry the user's version, and a write older than the last one applied to the same user is ignored, so
+ * commit hooks that run out of order cannot leave an old birth date behind. Loaded entries have no version and lose
+ * to any write. A removal leaves a {@link Tombstones tombstone} for {@code tombstoneTtl}, which likewise ignores writes
+ * of the deleted version or older ones.
+ */
+@Component
+public class BirthDateIndex {
+    static final int BLOCK_CAPACITY = 4096;
+    private static final int MISSING = Integer.MIN_VALUE;
+
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    private List<Block> blocks = new ArrayList<>();
+    private LongIntHashMap epochDayById;
+    private LongIntHashMap versionById;
+    private final Set<Long> touchedWhileLoading = new HashSet<>();
+    private final Tombstones tombstones;
+
+    public BirthDateIndex(@Value("${app.config.birthDateIndex.enabled}") boolean enabled,
+                          @Value("${app.config.birthDateIndex.tombstoneTtl}") Duration tombstoneTtl,
+                          MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.tombstones = new Tombstones(tombstoneTtl);
+        if (!enabled) return;
+        epochDayById = new LongIntHashMap(BLOCK_CAPACITY);
+        versionById = new LongIntHashMap(BLOCK_CAPACITY);
+        Gauge.builder("user.birthdate.index.size", this, BirthDateIndex::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Builds the index from users ordered by birth date and id, off to the side so that reads are not blocked. Writes
+     * made meanwhile are applied as usual and win over the loaded entries of the same users.
+     */
+    public void load(Stream<UserCursor> users) {
+        if (!enabled) return;
+        List<Block> loaded = new ArrayList<>();
+        LongIntHashMap loadedDays = new LongIntHashMap(BLOCK_CAPACITY);
+        users.forEach(user -> {
+            int day = epochDay(user.birthDate());
+            insert(loaded, day, user.id());
+            loadedDays.put(user.id(), day);
+        });
+        lock.writeLock().lock();
+        try {
+            for (Long id : touchedWhileLoading) {
+                int loadedDay = loadedDays.get(id, MISSING);
+                if (loadedDay != MISSING) {
+                    delete(loaded, loadedDay, id);
+                    loadedDays.remove(id);
+                }
+                int day = epochDayById.get(id, MISSING);
+                if (day != MISSING) {
+                    insert(loaded, day, id);
+                    loadedDays.put(id, day);
+                }
+            }
+            blocks = loaded;
+            epochDayById = loadedDays;
+            touchedWhileLoading.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Long id, LocalDate birthDate, Long version) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (tombstones.covers(id, version)) return;
+            if (version != null) {
+                if (versionById.containsKey(id) && isOlder(version, versionById.get(id))) return;
+                versionById.put(id, (int) (long) version);
+            }
+            apply(id, birthDate);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the user deleted at {@code version}, or at an unknown version if null.
+     */
+    public void remove(Long id, Long version) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            tombstones.add(id, version == null ? Tombstones.UNKNOWN_VERSION : version);
+            versionById.remove(id);
+            apply(id, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Long id, LocalDate birthDate) {
+        if (!ready) touchedWhileLoading.add(id);
+        int current = epochDayById.get(id, MISSING);
+        if (current != MISSING) delete(blocks, current, id);
+        if (birthDate == null) {
+            epochDayById.remove(id);
+            return;
+        }
+        int day = epochDay(birthDate);
+        insert(blocks, day, id);
+        epochDayById.put(id, day);
+    }
+
+    // Only the low 32 bits of a version are kept; compared with wraparound they still order any two versions of a user
+    // that are less than 2^31 updates apart.
+    private static boolean isOlder(long version, int current) {
+        return (int) version - current < 0;
+    }
+
+    /**
+     * Same rows as {@code UserRepository#findBirthDateIdPage}: users born between {@code afterDate} and {@code to}
+     * that come after ({@code afterDate}, {@code afterId}), by birth date and id.
+     */
+    public List<UserCursor> findPage(LocalDate afterDate, long afterId, LocalDate to, int limit) {
+        int toDay = clampedEpochDay(to);
+        List<UserCursor> page = new ArrayList<>(Math.min(limit, BLOCK_CAPACITY));
+        lock.readLock().lock();
+        try {
+            long position = after(clampedEpochDay(afterDate), afterId);
+            for (int b = block(position), i = index(position); b < blocks.size() && page.size() < limit; b++, i = 0) {
+                Block block = blocks.get(b);
+                for (; i < block.size && page.size() < limit; i++) {
+                    if (block.days[i] > toDay) return page;
+                    page.add(new UserCursor(LocalDate.ofEpochDay(block.days[i]), block.ids[i]));
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(LocalDate from, LocalDate to) {
+        int fromDay = clampedEpochDay(from);
+        int toDay = clampedEpochDay(to);
+        if (fromDay > toDay) return 0;
+        lock.readLock().lock();
+        try {
+            return distance(after(fromDay - 1, Long.MAX_VALUE), after(toDay, Long.MAX_VALUE));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the users of consecutive buckets: bucket {@code i} starts at {@code starts.get(i)} and ends before the
+     * next start, the last one ends with {@code to}. Starts must be ascending and not after {@code to}.
+     */
+    public long[] countBuckets(List<LocalDate> starts, LocalDate to) {
+        long[] counts = new long[starts.size()];
+        lock.readLock().lock();
+        try {
+            long end = after(clampedEpochDay(to), Long.MAX_VALUE);
+            for (int i = starts.size() - 1; i >= 0; i--) {
+                long start = after(clampedEpochDay(starts.get(i)) - 1, Long.MAX_VALUE);
+                counts[i] = distance(start, end);
+                end = start;
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<DateRange> range() {
+        lock.readLock().lock();
+        try {
+            if (blocks.isEmpty() || blocks.get(0).size == 0) return Optional.empty();
+            Block last = blocks.get(blocks.size() - 1);
+            return Optional.of(new DateRange(LocalDate.ofEpochDay(blocks.get(0).days[0]), LocalDate.ofEpochDay(last.days[last.size - 1])));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return epochDayById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Position (block in the high half, index in the low half) of the first entry after (day, id).
+    private long after(int day, long id) {
+        if (blocks.isEmpty()) return 0L;
+        int b = blockFor(blocks, day, id);
+        Block block = blocks.get(b);
+        int i = block.upperBound(day, id);
+        return ((long) b << 32) | i;
+    }
+
+    private long distance(long start, long end) {
+        long count = index(end) - index(start);
+        for (int b = block(start); b < block(end); b++) {
+            count += blocks.get(b).size;
+        }
+        return count;
+    }
+
+    private static int block(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int index(long position) {
+        return (int) position;
+    }
+
+    // Last block whose first entry is not after (day, id), or the first block.
+    private static int blockFor(List<Block> blocks, int day, long id) {
+        int low = 1;
+        int high = blocks.size() - 1;
+        int found = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Block block = blocks.get(mid);
+            if (compare(block.days[0], block.ids[0], day, id) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private static void insert(List<Block> blocks, int day, long id) {
+        if (blocks.isEmpty()) blocks.add(new Block());
+        int b = blockFor(blocks, day, id);
+        Block block = blocks.get(b);
+        if (block.size == BLOCK_CAPACITY) {
+            int last = BLOCK_CAPACITY - 1;
+            if (b == blocks.size() - 1 && compare(block.days[last], block.ids[last], day, id) < 0) {
+                // Appending past the end, as the load does, fills blocks completely instead of leaving them half empty.
+                block = new Block();
+                blocks.add(block);
+            } else {
+                Block upper = block.split();
+                blocks.add(b + 1, upper);
+                if (compare(upper.days[0], upper.ids[0], day, id) <= 0) block = upper;
+            }
+        }
+        block.insert(block.upperBound(day, id), day, id);
+    }
+
+    private static void delete(List<Block> blocks, int day, long id) {
+        if (blocks.isEmpty()) return;
+        int b = blockFor(blocks, day, id);
+        Block block = blocks.get(b);
+        int i = block.upperBound(day, id) - 1;
+        if (i < 0 || block.days[i] != day || block.ids[i] != id) return;
+        block.delete(i);
+        if (block.size == 0 && blocks.size() > 1) blocks.remove(b);
+    }
+
+    private static int compare(int dayA, long idA, int dayB, long idB) {
+        int byDay = Integer.compare(dayA, dayB);
+        return byDay != 0 ? byDay : Long.compare(idA, idB);
+    }
+
+    // PostgreSQL dates are bounded so that their epoch day always fits in an int.
+    private static int epochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    private static int clampedEpochDay(LocalDate date) {
+        return (int) Math.max(Integer.MIN_VALUE + 1L, Math.min(Integer.MAX_VALUE - 1L, date.toEpochDay()));
+    }
+
+    private static final class Block {
+        private final int[] days = new int[BLOCK_CAPACITY];
+        private final long[] ids = new long[BLOCK_CAPACITY];
+        private int size;
+
+        // Index of the first entry after (day, id).
+        int upperBound(int day, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(days[mid], ids[mid], day, id) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void insert(int i, int day, long id) {
+            System.arraycopy(days, i, days, i + 1, size - i);
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            days[i] = day;
+            ids[i] = id;
+            size++;
+        }
+
+        void delete(int i) {
+            System.arraycopy(days, i + 1, days, i, size - i - 1);
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+        }
+
+        Block split() {
+            Block upper = new Block();
+            int half = size / 2;
+            upper.size = size - half;
+            System.arraycopy(days, half, upper.days, 0, upper.size);
+            System.arraycopy(ids, half, upper.ids, 0, upper.size);
+            size = half;
+            return upper;
+        }
+    }
+}
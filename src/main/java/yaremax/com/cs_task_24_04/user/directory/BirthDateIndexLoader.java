@@ -0,0 +1,39 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.UserCursor;
+
+import java.util.stream.Stream;
+
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class BirthDateIndexLoader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BirthDateIndexLoader.class);
+
+    private final BirthDateIndex birthDateIndex;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!birthDateIndex.isEnabled()) return;
+        long start = System.nanoTime();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<UserCursor> users = userRepository.streamBirthDatesOrdered()) {
+                birthDateIndex.load(users);
+            }
+        });
+        LOGGER.info("Birth date index loaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
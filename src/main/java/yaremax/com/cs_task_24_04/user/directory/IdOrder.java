@@ -0,0 +1,116 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Slots of the {@link UserDirectory} in id order, as two direct columns (ids and their slots) searched by binary
+ * search. Ids come from a sequence, so inserts are appends. A remove only clears the slot of its entry; cleared
+ * entries are squeezed out in one pass once they make up a quarter of the columns. Not thread-safe;
+ * {@link UserDirectory} guards it.
+ */
+final class IdOrder {
+    static final int REMOVED = -1;
+
+    private ByteBuffer ids;
+    private ByteBuffer slots;
+    private int capacity;
+    private int count;
+    private int removed;
+
+    IdOrder(int capacity) {
+        allocate(capacity);
+    }
+
+    void insert(long id, int slot) {
+        int position = firstAfter(id);
+        if (position > 0 && id(position - 1) == id) {
+            // re-inserted before its cleared entry was squeezed out
+            slots.putInt((position - 1) * Integer.BYTES, slot);
+            removed--;
+            return;
+        }
+        if (count == capacity) resize(capacity * 2);
+        if (position < count) {
+            ids.put((position + 1) * Long.BYTES, ids, position * Long.BYTES, (count - position) * Long.BYTES);
+            slots.put((position + 1) * Integer.BYTES, slots, position * Integer.BYTES, (count - position) * Integer.BYTES);
+        }
+        ids.putLong(position * Long.BYTES, id);
+        slots.putInt(position * Integer.BYTES, slot);
+        count++;
+    }
+
+    void remove(long id) {
+        int position = firstAfter(id) - 1;
+        if (position < 0 || id(position) != id || slot(position) == REMOVED) return;
+        slots.putInt(position * Integer.BYTES, REMOVED);
+        if (++removed * 4 > count) squeeze();
+    }
+
+    void reserve(int expectedSize) {
+        if (expectedSize > capacity) resize(expectedSize);
+    }
+
+    /**
+     * Position of the first entry with an id above {@code afterId}; the entries from there on may include cleared
+     * ones, whose slot is {@link #REMOVED}.
+     */
+    int firstAfter(long afterId) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (id(middle) > afterId) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int slot(int position) {
+        return slots.getInt(position * Integer.BYTES);
+    }
+
+    long allocatedBytes() {
+        return (long) ids.capacity() + slots.capacity();
+    }
+
+    private long id(int position) {
+        return ids.getLong(position * Long.BYTES);
+    }
+
+    private void squeeze() {
+        int kept = 0;
+        for (int position = 0; position < count; position++) {
+            int slot = slot(position);
+            if (slot == REMOVED) continue;
+            ids.putLong(kept * Long.BYTES, id(position));
+            slots.putInt(kept * Integer.BYTES, slot);
+            kept++;
+        }
+        count = kept;
+        removed = 0;
+    }
+
+    private void resize(int newCapacity) {
+        ByteBuffer oldIds = ids;
+        ByteBuffer oldSlots = slots;
+        allocate(newCapacity);
+        ids.put(0, oldIds, 0, count * Long.BYTES);
+        slots.put(0, oldSlots, 0, count * Integer.BYTES);
+        DirectMemory.free(oldIds);
+        DirectMemory.free(oldSlots);
+    }
+
+    private void allocate(int newCapacity) {
+        ids = ByteBuffer.allocateDirect(newCapacity * Long.BYTES).order(ByteOrder.nativeOrder());
+        slots = ByteBuffer.allocateDirect(newCapacity * Integer.BYTES).order(ByteOrder.nativeOrder());
+        capacity = newCapacity;
+    }
+}
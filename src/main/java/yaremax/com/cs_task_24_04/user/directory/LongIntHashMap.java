@@ -0,0 +1,129 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off-heap open-addressing map from user id to an int (a directory slot, an epoch day), with linear probing and
+ * backward-shift deletion so that no tombstones accumulate. Id 0 marks an empty bucket. Not thread-safe; its owner
+ * guards it.
+ */
+final class LongIntHashMap {
+    static final int ABSENT = -1;
+    static final int MAX_SIZE = 1 << 26;
+    private static final long EMPTY = 0L;
+
+    private ByteBuffer keys;
+    private ByteBuffer values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(bucketsFor(expectedSize));
+    }
+
+    int get(long id) {
+        return get(id, ABSENT);
+    }
+
+    int get(long id, int missing) {
+        for (int bucket = bucketOf(id); ; bucket = (bucket + 1) & mask) {
+            long key = key(bucket);
+            if (key == id) return values.getInt(bucket * Integer.BYTES);
+            if (key == EMPTY) return missing;
+        }
+    }
+
+    boolean containsKey(long id) {
+        for (int bucket = bucketOf(id); ; bucket = (bucket + 1) & mask) {
+            long key = key(bucket);
+            if (key == id) return true;
+            if (key == EMPTY) return false;
+        }
+    }
+
+    void put(long id, int value) {
+        if ((size + 1) * 2L > mask + 1L) {
+            resize(bucketsFor(size + 1));
+        }
+        int bucket = bucketOf(id);
+        while (true) {
+            long key = key(bucket);
+            if (key == EMPTY) {
+                size++;
+                break;
+            }
+            if (key == id) break;
+            bucket = (bucket + 1) & mask;
+        }
+        keys.putLong(bucket * Long.BYTES, id);
+        values.putInt(bucket * Integer.BYTES, value);
+    }
+
+    void remove(long id) {
+        int gap = bucketOf(id);
+        while (key(gap) != id) {
+            if (key(gap) == EMPTY) return;
+            gap = (gap + 1) & mask;
+        }
+        // Pull back every following entry of the probe run that may live in the gap.
+        for (int bucket = (gap + 1) & mask; key(bucket) != EMPTY; bucket = (bucket + 1) & mask) {
+            int home = bucketOf(key(bucket));
+            boolean movable = bucket > gap ? home <= gap || home > bucket : home <= gap && home > bucket;
+            if (movable) {
+                keys.putLong(gap * Long.BYTES, key(bucket));
+                values.putInt(gap * Integer.BYTES, values.getInt(bucket * Integer.BYTES));
+                gap = bucket;
+            }
+        }
+        keys.putLong(gap * Long.BYTES, EMPTY);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long allocatedBytes() {
+        return (long) keys.capacity() + values.capacity();
+    }
+
+    void reserve(int expectedSize) {
+        int buckets = bucketsFor(expectedSize);
+        if (buckets > mask + 1) resize(buckets);
+    }
+
+    private void resize(int buckets) {
+        ByteBuffer oldKeys = keys;
+        ByteBuffer oldValues = values;
+        allocate(buckets);
+        size = 0;
+        for (int bucket = 0; bucket < oldKeys.capacity() / Long.BYTES; bucket++) {
+            long key = oldKeys.getLong(bucket * Long.BYTES);
+            if (key != EMPTY) put(key, oldValues.getInt(bucket * Integer.BYTES));
+        }
+        DirectMemory.free(oldKeys);
+        DirectMemory.free(oldValues);
+    }
+
+    private void allocate(int buckets) {
+        keys = ByteBuffer.allocateDirect(buckets * Long.BYTES).order(ByteOrder.nativeOrder());
+        values = ByteBuffer.allocateDirect(buckets * Integer.BYTES).order(ByteOrder.nativeOrder());
+        mask = buckets - 1;
+    }
+
+    private long key(int bucket) {
+        return keys.getLong(bucket * Long.BYTES);
+    }
+
+    private int bucketOf(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    // Power of two keeping the load factor at or below one half.
+    private static int bucketsFor(int expectedSize) {
+        if (expectedSize > MAX_SIZE) throw new IllegalStateException("Too many users for the directory: " + expectedSize);
+        return Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+    }
+}
@@ -0,0 +1,112 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Append-only store of UTF-8 strings in direct buffers. A string is addressed by a {@code long} reference (chunk
+ * index in the high half, offset in the low half) and stored as its byte length followed by its bytes. Released
+ * strings are only counted per chunk; {@link UserDirectory} moves the live strings out of mostly unreachable chunks
+ * and then frees those chunks one at a time. Not thread-safe; {@link UserDirectory} guards it.
+ */
+final class StringArena {
+    static final long NULL = -1L;
+    private static final int CHUNK_SIZE = 1 << 24;
+
+    // Freed chunks leave a null behind so that the indexes in existing references stay valid.
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private long[] garbage = new long[8];
+    private ByteBuffer current;
+    private long allocatedBytes;
+    private long garbageBytes;
+
+    static int chunkOf(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    long append(String value) {
+        if (value == null) return NULL;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long ref = reserve(Integer.BYTES + bytes.length);
+        current.putInt(bytes.length).put(bytes);
+        return ref;
+    }
+
+    // Copies the stored bytes as they are, without decoding them.
+    long move(long ref) {
+        if (ref == NULL) return NULL;
+        ByteBuffer chunk = chunks.get(chunkOf(ref));
+        int offset = (int) ref;
+        int size = Integer.BYTES + chunk.getInt(offset);
+        long moved = reserve(size);
+        current.put(current.position(), chunk, offset, size);
+        current.position(current.position() + size);
+        return moved;
+    }
+
+    String get(long ref) {
+        if (ref == NULL) return null;
+        ByteBuffer chunk = chunks.get(chunkOf(ref));
+        int offset = (int) ref;
+        byte[] bytes = new byte[chunk.getInt(offset)];
+        chunk.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int sizeOf(long ref) {
+        if (ref == NULL) return 0;
+        return Integer.BYTES + chunks.get(chunkOf(ref)).getInt((int) ref);
+    }
+
+    void release(long ref) {
+        int size = sizeOf(ref);
+        if (size == 0) return;
+        garbage[chunkOf(ref)] += size;
+        garbageBytes += size;
+    }
+
+    /**
+     * Starts a new chunk for the next append and returns the chunks whose live strings fill at most half of them.
+     */
+    BitSet sealSparseChunks() {
+        current = null;
+        BitSet sparse = new BitSet(chunks.size());
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            ByteBuffer buffer = chunks.get(chunk);
+            if (buffer != null && (buffer.position() - garbage[chunk]) * 2 <= buffer.capacity()) {
+                sparse.set(chunk);
+            }
+        }
+        return sparse;
+    }
+
+    void free(int chunk) {
+        ByteBuffer buffer = chunks.set(chunk, null);
+        allocatedBytes -= buffer.capacity();
+        garbageBytes -= garbage[chunk];
+        garbage[chunk] = 0;
+        DirectMemory.free(buffer);
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    long garbageBytes() {
+        return garbageBytes;
+    }
+
+    private long reserve(int size) {
+        if (current == null || current.remaining() < size) {
+            current = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, size));
+            chunks.add(current);
+            if (chunks.size() > garbage.length) garbage = Arrays.copyOf(garbage, garbage.length * 2);
+            allocatedBytes += current.capacity();
+        }
+        return ((long) (chunks.size() - 1) << 32) | current.position();
+    }
+}
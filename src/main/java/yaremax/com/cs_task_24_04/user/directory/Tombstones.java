@@ -0,0 +1,53 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recently deleted ids with the version they were deleted at, kept for {@code ttl} so that a commit hook of an
+ * earlier write which runs after the delete's cannot put the user back. Ids come from a sequence and are never reused,
+ * so the window only has to outlast commit hooks running late. Expired entries are dropped on the next access, oldest
+ * first. Not thread-safe; the owning index guards it.
+ */
+final class Tombstones {
+    static final long UNKNOWN_VERSION = Long.MIN_VALUE;
+
+    private final long ttlNanos;
+    private final LinkedHashMap<Long, Tombstone> byId = new LinkedHashMap<>();
+
+    Tombstones(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    void add(long id, long version) {
+        long now = System.nanoTime();
+        prune(now);
+        // re-added ids move to the end, so the map stays in expiry order
+        byId.remove(id);
+        byId.put(id, new Tombstone(version, now + ttlNanos));
+    }
+
+    /**
+     * Whether a write of {@code version} of the user (null if unknown) is at or before its deletion. A tombstone
+     * without a version covers every write.
+     */
+    boolean covers(long id, Long version) {
+        if (byId.isEmpty()) return false;
+        prune(System.nanoTime());
+        Tombstone tombstone = byId.get(id);
+        if (tombstone == null) return false;
+        return tombstone.version == UNKNOWN_VERSION || version == null || version <= tombstone.version;
+    }
+
+    private void prune(long now) {
+        for (Iterator<Map.Entry<Long, Tombstone>> it = byId.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue().expiresAt - now > 0) return;
+            it.remove();
+        }
+    }
+
+    private record Tombstone(long version, long expiresAt) {
+    }
+}
@@ -0,0 +1,353 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Read replica of the users table kept outside the Java heap. Every user occupies one slot of fixed-width columns
+ * (id, version, birth date as epoch day, and one reference per text field); the text lives in a {@link StringArena},
+ * with first and last names stored once per distinct value. Besides a dictionary of distinct names, the heap only
+ * holds the objects of the results being returned.
+ * <p>
+ * Disabled by default; until {@link #load} has finished, {@link #isReady()} is false and reads go to the database.
+ * Pages by id binary-search the slots kept in id order by {@link IdOrder}. Birth date pages are left to
+ * {@link BirthDateIndex}.
+ * <p>
+ * A removed user leaves a {@link Tombstones tombstone} for {@code tombstoneTtl}, so a late put of the version it was
+ * deleted at, or an older one, does not bring it back.
+ * <p>
+ * Replaced text is reclaimed a little at a time: once half of the arena is unreachable, every write also moves the
+ * text of the next {@value #COMPACTION_STEP} slots out of the mostly unreachable chunks, and those chunks are freed
+ * at the end of the pass.
+ */
+@Component
+public class UserDirectory {
+    private static final long FREE = 0L;
+    private static final long NO_VERSION = Long.MIN_VALUE;
+    private static final int NO_BIRTH_DATE = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int EMAIL = 0;
+    private static final int FIRST_NAME = 1;
+    private static final int LAST_NAME = 2;
+    private static final int ADDRESS = 3;
+    private static final int PHONE = 4;
+    private static final int STRING_FIELDS = 5;
+    private static final int COMPACTION_STEP = 1024;
+
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private final Tombstones tombstones;
+    private volatile boolean ready;
+
+    private final Map<String, Long> names = new HashMap<>();
+    private final ByteBuffer[] strings = new ByteBuffer[STRING_FIELDS];
+    private LongIntHashMap index;
+    private IdOrder order;
+    private StringArena arena;
+    private ByteBuffer ids;
+    private ByteBuffer versions;
+    private ByteBuffer epochDays;
+    private int capacity;
+    private int rowCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private BitSet evacuating;
+    private int compactionCursor;
+
+    public UserDirectory(@Value("${app.config.directory.enabled}") boolean enabled,
+                         @Value("${app.config.directory.tombstoneTtl}") Duration tombstoneTtl,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.tombstones = new Tombstones(tombstoneTtl);
+        if (!enabled) return;
+        index = new LongIntHashMap(INITIAL_CAPACITY);
+        order = new IdOrder(INITIAL_CAPACITY);
+        arena = new StringArena();
+        allocateColumns(INITIAL_CAPACITY);
+        Gauge.builder("user.directory.size", this, UserDirectory::size).register(meterRegistry);
+        Gauge.builder("user.directory.offheap", this, UserDirectory::allocatedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void reserve(int expectedSize) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            index.reserve(expectedSize);
+            order.reserve(expectedSize);
+            if (expectedSize > capacity) resizeColumns(expectedSize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Writes that raced with the load win: older versions and users deleted meanwhile are skipped.
+    public void load(Stream<UserResponse> users) {
+        if (!enabled) return;
+        users.forEach(user -> {
+            if (!removedWhileLoading.contains(user.id())) {
+                put(user);
+            }
+        });
+        ready = true;
+        removedWhileLoading.clear();
+    }
+
+    public void put(UserResponse user) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (tombstones.covers(user.id(), user.version())) return;
+            int slot = index.get(user.id());
+            if (slot == LongIntHashMap.ABSENT) {
+                slot = allocateSlot();
+                index.put(user.id(), slot);
+                order.insert(user.id(), slot);
+            } else {
+                long current = versions.getLong(slot * Long.BYTES);
+                if (current != NO_VERSION && user.version() != null && current > user.version()) return;
+                release(slot);
+            }
+            write(slot, user);
+            compactStep();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the user deleted at {@code version}, or at an unknown version if null.
+     */
+    public void remove(Long id, Long version) {
+        if (!enabled) return;
+        if (!ready) {
+            removedWhileLoading.add(id);
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = index.get(id);
+            long deleted = version == null ? Tombstones.UNKNOWN_VERSION : version;
+            if (slot != LongIntHashMap.ABSENT) {
+                deleted = Math.max(deleted, versions.getLong(slot * Long.BYTES));
+            }
+            tombstones.add(id, deleted);
+            if (slot == LongIntHashMap.ABSENT) return;
+            release(slot);
+            order.remove(id);
+            ids.putLong(slot * Long.BYTES, FREE);
+            index.remove(id);
+            if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            freeSlots[freeCount++] = slot;
+            compactStep();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<UserResponse> find(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = index.get(id);
+            return slot == LongIntHashMap.ABSENT ? Optional.empty() : Optional.of(read(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same rows as {@code UserRepository#findPageAfterId}: users with an id above {@code afterId}, by id.
+     */
+    public List<UserResponse> findPageAfterId(long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<UserResponse> users = new ArrayList<>(Math.min(limit, index.size()));
+            for (int position = order.firstAfter(afterId); position < order.size() && users.size() < limit; position++) {
+                int slot = order.slot(position);
+                if (slot != IdOrder.REMOVED) users.add(read(slot));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long allocatedBytes() {
+        lock.readLock().lock();
+        try {
+            long columns = (long) capacity * (Long.BYTES * (2 + STRING_FIELDS) + Integer.BYTES);
+            return columns + index.allocatedBytes() + order.allocatedBytes() + arena.allocatedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private UserResponse read(int slot) {
+        int day = epochDay(slot);
+        long version = versions.getLong(slot * Long.BYTES);
+        return new UserResponse(
+                id(slot),
+                string(slot, EMAIL),
+                string(slot, FIRST_NAME),
+                string(slot, LAST_NAME),
+                day == NO_BIRTH_DATE ? null : LocalDate.ofEpochDay(day),
+                string(slot, ADDRESS),
+                string(slot, PHONE),
+                version == NO_VERSION ? null : version);
+    }
+
+    private void write(int slot, UserResponse user) {
+        ids.putLong(slot * Long.BYTES, user.id());
+        versions.putLong(slot * Long.BYTES, user.version() == null ? NO_VERSION : user.version());
+        // PostgreSQL dates are bounded so that their epoch day always fits in an int.
+        epochDays.putInt(slot * Integer.BYTES, user.birthDate() == null ? NO_BIRTH_DATE : Math.toIntExact(user.birthDate().toEpochDay()));
+        setRef(slot, EMAIL, arena.append(user.email()));
+        setRef(slot, FIRST_NAME, name(user.firstName()));
+        setRef(slot, LAST_NAME, name(user.lastName()));
+        setRef(slot, ADDRESS, arena.append(user.address()));
+        setRef(slot, PHONE, arena.append(user.phone()));
+    }
+
+    // A name still stored in a chunk being evacuated is appended again, so no slot is left pointing into it.
+    private long name(String value) {
+        if (value == null) return StringArena.NULL;
+        Long ref = names.get(value);
+        if (ref == null || isEvacuating(ref)) {
+            ref = arena.append(value);
+            names.put(value, ref);
+        }
+        return ref;
+    }
+
+    // Names are shared through the dictionary; the other fields are owned by the slot and become garbage.
+    private void release(int slot) {
+        arena.release(ref(slot, EMAIL));
+        arena.release(ref(slot, ADDRESS));
+        arena.release(ref(slot, PHONE));
+    }
+
+    // Bounded work per write, so the write lock is never held for a rewrite of the whole arena.
+    private void compactStep() {
+        if (evacuating == null) {
+            if (arena.garbageBytes() * 2 < arena.allocatedBytes()) return;
+            evacuating = arena.sealSparseChunks();
+            compactionCursor = 0;
+        }
+        int end = Math.min(rowCount, compactionCursor + COMPACTION_STEP);
+        for (; compactionCursor < end; compactionCursor++) {
+            int slot = compactionCursor;
+            if (id(slot) == FREE) continue;
+            for (int field = 0; field < STRING_FIELDS; field++) {
+                long ref = ref(slot, field);
+                if (!isEvacuating(ref)) continue;
+                setRef(slot, field, field == FIRST_NAME || field == LAST_NAME ? name(arena.get(ref)) : arena.move(ref));
+            }
+        }
+        if (compactionCursor < rowCount) return;
+        names.values().removeIf(this::isEvacuating);
+        evacuating.stream().forEach(arena::free);
+        evacuating = null;
+    }
+
+    private boolean isEvacuating(long ref) {
+        return evacuating != null && ref != StringArena.NULL && evacuating.get(StringArena.chunkOf(ref));
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        if (rowCount == capacity) resizeColumns(capacity * 2);
+        return rowCount++;
+    }
+
+    private void allocateColumns(int newCapacity) {
+        ids = column(newCapacity, Long.BYTES);
+        versions = column(newCapacity, Long.BYTES);
+        epochDays = column(newCapacity, Integer.BYTES);
+        for (int field = 0; field < STRING_FIELDS; field++) {
+            strings[field] = column(newCapacity, Long.BYTES);
+        }
+        capacity = newCapacity;
+    }
+
+    private void resizeColumns(int newCapacity) {
+        if (newCapacity > LongIntHashMap.MAX_SIZE) throw new IllegalStateException("Too many users for the directory: " + newCapacity);
+        ByteBuffer oldIds = ids;
+        ByteBuffer oldVersions = versions;
+        ByteBuffer oldEpochDays = epochDays;
+        ByteBuffer[] oldStrings = strings.clone();
+        allocateColumns(newCapacity);
+        copyAndFree(oldIds, ids);
+        copyAndFree(oldVersions, versions);
+        copyAndFree(oldEpochDays, epochDays);
+        for (int field = 0; field < STRING_FIELDS; field++) {
+            copyAndFree(oldStrings[field], strings[field]);
+        }
+    }
+
+    private static void copyAndFree(ByteBuffer from, ByteBuffer to) {
+        to.put(0, from, 0, from.capacity());
+        DirectMemory.free(from);
+    }
+
+    private static ByteBuffer column(int capacity, int width) {
+        return ByteBuffer.allocateDirect(capacity * width).order(ByteOrder.nativeOrder());
+    }
+
+    private long id(int slot) {
+        return ids.getLong(slot * Long.BYTES);
+    }
+
+    private int epochDay(int slot) {
+        return epochDays.getInt(slot * Integer.BYTES);
+    }
+
+    private long ref(int slot, int field) {
+        return strings[field].getLong(slot * Long.BYTES);
+    }
+
+    private void setRef(int slot, int field, long ref) {
+        strings[field].putLong(slot * Long.BYTES, ref);
+    }
+
+    private String string(int slot, int field) {
+        return arena.get(ref(slot, field));
+    }
+}
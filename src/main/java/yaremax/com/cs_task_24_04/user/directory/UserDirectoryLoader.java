@@ -0,0 +1,65 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.user.changes.UserChangeFeedService;
+import yaremax.com.cs_task_24_04.user.snapshot.UserSnapshot;
+import yaremax.com.cs_task_24_04.user.snapshot.UserSnapshotStore;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class UserDirectoryLoader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserDirectoryLoader.class);
+
+    private final UserDirectory userDirectory;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserSnapshotStore userSnapshotStore;
+    private final UserChangeFeedService userChangeFeedService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!userDirectory.isEnabled()) return;
+        long start = System.nanoTime();
+        Optional<UserSnapshot> snapshot = userSnapshotStore.open();
+        if (snapshot.isPresent()) {
+            loadSnapshot(snapshot.get());
+            LOGGER.info("User directory loaded from snapshot ({} users) in {} ms", snapshot.get().rowCount(), (System.nanoTime() - start) / 1_000_000);
+            return;
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            userDirectory.reserve((int) Math.min(userRepository.count(), Integer.MAX_VALUE));
+            try (Stream<UserResponse> users = userRepository.streamAllOrderedById()) {
+                userDirectory.load(users);
+            }
+        });
+        LOGGER.info("User directory loaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Changes after the watermark go in first: the directory keeps the newer version and skips users deleted meanwhile.
+    private void loadSnapshot(UserSnapshot snapshot) {
+        userDirectory.reserve(snapshot.rowCount());
+        userChangeFeedService.replayChanges(snapshot.watermark(), change -> {
+            if (change.deleted()) {
+                userDirectory.remove(change.id(), null);
+            } else {
+                userDirectory.put(change.user());
+            }
+        });
+        userDirectory.load(snapshot.users());
+    }
+}
@@ -0,0 +1,145 @@
+package yaremax.com.cs_task_24_04.user.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import yaremax.com.cs_task_24_04.user.DateRange;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.validator.common.DateRangeValidator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes users in id order as CSV or NDJSON. Rows are read in chunks of {@code chunkSize}, each by a single query in
+ * its own read-only transaction, and a chunk is written out only after its transaction has ended, so a slow client
+ * never holds a database connection and the heap holds one chunk at a time. An export can be resumed after the last
+ * id received.
+ */
+@Service
+@Profile("!reactive")
+public class UserExportService {
+    static final String CSV_HEADER = "id,email,firstName,lastName,birthDate,address,phone,version";
+
+    private final UserRepository userRepository;
+    private final DateRangeValidator dateRangeValidator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public UserExportService(UserRepository userRepository,
+                             DateRangeValidator dateRangeValidator,
+                             ObjectMapper objectMapper,
+                             @Value("${app.config.export.chunkSize}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.dateRangeValidator = dateRangeValidator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns the birth date range to export, or null for all users. Called before the response starts so that an
+     * invalid range is still reported as a client error.
+     */
+    public DateRange checkRange(DateRange range) {
+        if (range.fromDate() == null && range.toDate() == null) return null;
+        dateRangeValidator.validate(range);
+        return range;
+    }
+
+    /**
+     * Writes every user with an id above {@code afterId}, born within {@code range} unless it is null, and returns how
+     * many were written.
+     */
+    public long export(ExportFormat format, DateRange range, long afterId, OutputStream out) throws IOException {
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(objectMapper, out);
+        long exported = 0;
+        long position = afterId;
+        while (true) {
+            List<UserResponse> chunk = range == null
+                    ? userRepository.findAfterId(position, Limit.of(chunkSize))
+                    : userRepository.findByBirthDateBetweenAfterId(range.fromDate(), range.toDate(), position, Limit.of(chunkSize));
+            for (UserResponse user : chunk) {
+                writer.write(user);
+            }
+            writer.flush();
+            exported += chunk.size();
+            if (chunk.size() < chunkSize) return exported;
+            position = chunk.get(chunk.size() - 1).id();
+        }
+    }
+
+    private interface RowWriter {
+        void write(UserResponse user) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer out;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.out.write(CSV_HEADER);
+            this.out.write("\r\n");
+        }
+
+        @Override
+        public void write(UserResponse user) throws IOException {
+            out.write(String.valueOf(user.id()));
+            field(user.email());
+            field(user.firstName());
+            field(user.lastName());
+            field(user.birthDate() == null ? null : user.birthDate().toString());
+            field(user.address());
+            field(user.phone());
+            field(String.valueOf(user.version()));
+            out.write("\r\n");
+        }
+
+        // RFC 4180: fields with separators, quotes or line breaks are quoted, quotes doubled; null is an empty field.
+        private void field(String value) throws IOException {
+            out.write(',');
+            if (value == null) return;
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            this.generator = objectMapper.createGenerator(out).setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(UserResponse user) throws IOException {
+            generator.writeObject(user);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+}
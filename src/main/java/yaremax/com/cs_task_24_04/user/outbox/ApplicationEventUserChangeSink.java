@@ -0,0 +1,24 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes every change as a Spring application event, so in-process consumers only need an
+ * {@code @EventListener} method taking a {@link UserChange}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.config.outbox.sink", havingValue = "events", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ApplicationEventUserChangeSink implements UserChangeSink {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<UserChange> changes) {
+        changes.forEach(eventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,45 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends changes to a file as newline-delimited JSON. Each batch is written and forced to disk before the relay
+ * deletes it from the outbox.
+ */
+@Component
+@ConditionalOnProperty(name = "app.config.outbox.sink", havingValue = "file")
+public class FileUserChangeSink implements UserChangeSink {
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileUserChangeSink(@Value("${app.config.outbox.file}") Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<UserChange> changes) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (UserChange change : changes) {
+            lines.append(objectMapper.writeValueAsString(change)).append('\n');
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(lines.toString());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+}
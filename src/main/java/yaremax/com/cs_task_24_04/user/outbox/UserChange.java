@@ -0,0 +1,13 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.Instant;
+
+/**
+ * A committed change as handed to a {@link UserChangeSink}. {@code sequence} identifies the event, so redeliveries can
+ * be recognised, but it is not a commit order across users; per user, {@code user.version()} is. {@code user} is null
+ * for deletes.
+ */
+public record UserChange(long sequence, Long userId, UserChangeType type, Instant occurredAt, UserResponse user) {
+}
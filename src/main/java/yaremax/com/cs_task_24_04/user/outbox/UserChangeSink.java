@@ -0,0 +1,12 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the outbox relay. A batch is deleted from the outbox only after {@link #publish} returns, so a sink
+ * that throws gets the same batch again on the next run: delivery is at least once.
+ */
+public interface UserChangeSink {
+    void publish(List<UserChange> changes) throws IOException;
+}
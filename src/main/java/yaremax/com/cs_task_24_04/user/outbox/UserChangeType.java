@@ -0,0 +1,7 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,61 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes change events next to the user rows they describe. Every method requires the caller's transaction, so an
+ * event exists exactly when its change was committed.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class UserOutbox {
+    private static final Clock UTC = Clock.systemUTC();
+
+    private final UserOutboxRepository userOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UserChangeType type, UserResponse user) {
+        userOutboxRepository.save(event(type, user.id(), user, UTC.instant()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(UserChangeType type, Collection<UserResponse> users) {
+        Instant now = UTC.instant();
+        List<UserOutboxEvent> events = users.stream()
+                .map(user -> event(type, user.id(), user, now))
+                .toList();
+        userOutboxRepository.saveAll(events);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long userId) {
+        userOutboxRepository.save(event(UserChangeType.DELETED, userId, null, UTC.instant()));
+    }
+
+    private UserOutboxEvent event(UserChangeType type, Long userId, UserResponse user, Instant occurredAt) {
+        try {
+            return UserOutboxEvent.builder()
+                    .userId(userId)
+                    .type(type)
+                    .occurredAt(occurredAt)
+                    .payload(user == null ? null : objectMapper.writeValueAsString(user))
+                    .build();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize user " + userId, ex);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "user_outbox")
+public class UserOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_outbox_seq")
+    @SequenceGenerator(name = "user_outbox_seq", sequenceName = "user_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private UserChangeType type;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    private String payload;
+
+    // Failed attempts to publish this event on its own; once they reach the limit the event is dead-lettered and skipped.
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;
+
+    private Instant deadLetteredAt;
+}
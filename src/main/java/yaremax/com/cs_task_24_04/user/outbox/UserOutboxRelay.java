@@ -0,0 +1,160 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves committed events from the outbox to the configured {@link UserChangeSink} in id order, one batch per
+ * transaction. Every instance may run it: a batch is claimed with {@code FOR UPDATE SKIP LOCKED}, and an instance
+ * whose claim does not start at the oldest event leaves it, since an older batch is still being published elsewhere.
+ * <p>
+ * An {@link IOException} from the sink stops the run and the batch is retried as a whole. Any other failure is taken
+ * to be caused by an event, so the batch is published one event at a time up to the failing one, which is retried on
+ * later runs and dead-lettered after {@code app.config.outbox.maxAttempts} failures instead of blocking the relay.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.config.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class UserOutboxRelay {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserOutboxRelay.class);
+
+    private final UserOutboxRepository userOutboxRepository;
+    private final UserChangeSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Counter published;
+    private final Counter failures;
+    private final Counter deadLettered;
+
+    public UserOutboxRelay(UserOutboxRepository userOutboxRepository,
+                           UserChangeSink sink,
+                           TransactionTemplate transactionTemplate,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.config.outbox.batchSize}") int batchSize,
+                           @Value("${app.config.outbox.maxAttempts}") int maxAttempts) {
+        this.userOutboxRepository = userOutboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.published = meterRegistry.counter("user.outbox.published");
+        this.failures = meterRegistry.counter("user.outbox.failures");
+        this.deadLettered = meterRegistry.counter("user.outbox.dead.lettered");
+    }
+
+    @Scheduled(fixedDelayString = "${app.config.outbox.pollInterval}")
+    public void relay() {
+        try {
+            while (publishBatch() == batchSize) {
+                // drain the backlog before waiting for the next run
+            }
+        } catch (RuntimeException ex) {
+            failures.increment();
+            LOGGER.warn("Publishing user changes failed, retrying on the next run: {}", ex.getMessage());
+        }
+    }
+
+    public int publishBatch() {
+        try {
+            return publish(batchSize);
+        } catch (RejectedEventException ex) {
+            if (batchSize > 1) {
+                LOGGER.warn("Publishing a batch of user changes failed, publishing them one at a time: {}", ex.getCause().getMessage());
+            }
+        }
+        int count = 0;
+        try {
+            while (count < batchSize && publish(1) == 1) {
+                count++;
+            }
+        } catch (RejectedEventException ex) {
+            recordFailedAttempt(ex);
+        }
+        return count;
+    }
+
+    private int publish(int limit) {
+        Integer count = transactionTemplate.execute(status -> {
+            List<UserOutboxEvent> events = userOutboxRepository.claimOldest(Limit.of(limit));
+            if (events.isEmpty() || events.get(0).getId() > userOutboxRepository.findOldestId()) {
+                return 0;
+            }
+            try {
+                List<UserChange> changes = new ArrayList<>(events.size());
+                for (UserOutboxEvent event : events) {
+                    changes.add(toChange(event));
+                }
+                sink.publish(changes);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } catch (RuntimeException ex) {
+                throw new RejectedEventException(events.get(0).getId(), ex);
+            }
+            userOutboxRepository.deleteAllInBatch(events);
+            return events.size();
+        });
+        published.increment(count);
+        return count;
+    }
+
+    private void recordFailedAttempt(RejectedEventException ex) {
+        failures.increment();
+        Integer attempts = transactionTemplate.execute(status -> userOutboxRepository.findById(ex.eventId)
+                .map(event -> {
+                    event.setAttempts(event.getAttempts() + 1);
+                    if (event.getAttempts() >= maxAttempts) {
+                        event.setDeadLetteredAt(Instant.now());
+                    }
+                    return event.getAttempts();
+                })
+                .orElse(0));
+        if (attempts >= maxAttempts) {
+            deadLettered.increment();
+            LOGGER.error("Outbox event {} failed {} times and was dead-lettered", ex.eventId, attempts, ex.getCause());
+        } else {
+            LOGGER.warn("Publishing outbox event {} failed ({} of {} attempts), retrying on the next run: {}",
+                    ex.eventId, attempts, maxAttempts, ex.getCause().getMessage());
+        }
+    }
+
+    private UserChange toChange(UserOutboxEvent event) {
+        try {
+            UserResponse user = event.getPayload() == null ? null : objectMapper.readValue(event.getPayload(), UserResponse.class);
+            return new UserChange(event.getId(), event.getUserId(), event.getType(), event.getOccurredAt(), user);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable outbox event " + event.getId(), ex);
+        }
+    }
+
+    // The sink or the payload rejected the batch starting at eventId.
+    private static final class RejectedEventException extends RuntimeException {
+        private final long eventId;
+
+        RejectedEventException(long eventId, RuntimeException cause) {
+            super(cause);
+            this.eventId = eventId;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.LockOptions;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserOutboxRepository extends JpaRepository<UserOutboxEvent, Long> {
+
+    /**
+     * Oldest events that are neither dead-lettered nor claimed by another transaction, locked until this one ends
+     * ({@code FOR UPDATE SKIP LOCKED}).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "" + LockOptions.SKIP_LOCKED))
+    @Query("select e from UserOutboxEvent e where e.deadLetteredAt is null order by e.id")
+    List<UserOutboxEvent> claimOldest(Limit limit);
+
+    // Sees events claimed by other transactions as well.
+    @Query("select min(e.id) from UserOutboxEvent e where e.deadLetteredAt is null")
+    Long findOldestId();
+}
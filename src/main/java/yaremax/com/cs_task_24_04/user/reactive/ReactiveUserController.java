@@ -0,0 +1,59 @@
+package yaremax.com.cs_task_24_04.user.reactive;
+
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yaremax.com.cs_task_24_04.user.UserDto;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.LocalDate;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/users")
+@AllArgsConstructor
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    @GetMapping("/{id}")
+    public Mono<UserResponse> getUser(@PathVariable Long id) {
+        return userService.getUserById(id);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<UserResponse> getAllUsers() {
+        return userService.getAllUsers();
+    }
+
+    @GetMapping(path = "/period", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<UserResponse> getAllUsersByBirthDateRange(
+            @RequestParam(name = "from") LocalDate from,
+            @RequestParam(name = "to") LocalDate to) {
+        return userService.getAllUsersByBirthDateRange(from, to);
+    }
+
+    @PostMapping
+    public Mono<UserResponse> createUser(@RequestBody UserDto user) {
+        return userService.createUser(user);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<UserResponse> updateUser(@PathVariable Long id,
+                                 @RequestBody UserDto updatedUser) {
+        return userService.updateUser(id, updatedUser);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<UserResponse> patchUser(@PathVariable Long id,
+                                @RequestBody UserDto partialUser) {
+        return userService.patchUser(id, partialUser);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<String> deleteUser(@PathVariable Long id) {
+        return userService.deleteUser(id).thenReturn("Successfully deleted user");
+    }
+}
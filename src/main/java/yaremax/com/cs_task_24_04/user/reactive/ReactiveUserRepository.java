@@ -0,0 +1,107 @@
+package yaremax.com.cs_task_24_04.user.reactive;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yaremax.com.cs_task_24_04.user.User;
+import yaremax.com.cs_task_24_04.user.UserDto;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.LocalDate;
+
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+    private static final String COLUMNS = "id, email, first_name, last_name, birth_date, address, phone, version";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<UserResponse> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toResponse)
+                .one();
+    }
+
+    public Flux<UserResponse> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users ORDER BY id")
+                .map(ReactiveUserRepository::toResponse)
+                .all();
+    }
+
+    public Flux<UserResponse> findByBirthDateBetween(LocalDate from, LocalDate to) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE birth_date BETWEEN :from AND :to ORDER BY birth_date, id")
+                .bind("from", from)
+                .bind("to", to)
+                .map(ReactiveUserRepository::toResponse)
+                .all();
+    }
+
+    public Mono<UserResponse> insert(UserDto user) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("INSERT INTO users (" + COLUMNS + ", email_domain, created_at, updated_at)"
+                + " VALUES (nextval('users_seq'), :email, :firstName, :lastName, :birthDate, :address, :phone, 0, :emailDomain, now(), now())"
+                + " RETURNING " + COLUMNS);
+        return bindFields(spec, user)
+                .map(ReactiveUserRepository::toResponse)
+                .one();
+    }
+
+    // Null fields keep their current value, so one statement serves both PUT and PATCH.
+    public Mono<UserResponse> update(Long id, UserDto changes) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("UPDATE users SET"
+                + " email = COALESCE(:email, email),"
+                + " email_domain = COALESCE(:emailDomain, email_domain),"
+                + " first_name = COALESCE(:firstName, first_name),"
+                + " last_name = COALESCE(:lastName, last_name),"
+                + " birth_date = COALESCE(:birthDate, birth_date),"
+                + " address = COALESCE(:address, address),"
+                + " phone = COALESCE(:phone, phone),"
+                + " version = version + 1,"
+                + " updated_at = now()"
+                + " WHERE id = :id RETURNING " + COLUMNS);
+        return bindFields(spec.bind("id", id), changes)
+                .map(ReactiveUserRepository::toResponse)
+                .one();
+    }
+
+    // Deletes and leaves the tombstone the change feed reads, in one statement.
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("WITH deleted AS (DELETE FROM users WHERE id = :id RETURNING id)"
+                        + " INSERT INTO user_tombstones (user_id, deleted_at) SELECT id, now() FROM deleted")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindFields(DatabaseClient.GenericExecuteSpec spec, UserDto user) {
+        spec = bindNullable(spec, "email", user.getEmail(), String.class);
+        spec = bindNullable(spec, "emailDomain", User.emailDomainOf(user.getEmail()), String.class);
+        spec = bindNullable(spec, "firstName", user.getFirstName(), String.class);
+        spec = bindNullable(spec, "lastName", user.getLastName(), String.class);
+        spec = bindNullable(spec, "birthDate", user.getBirthDate(), LocalDate.class);
+        spec = bindNullable(spec, "address", user.getAddress(), String.class);
+        return bindNullable(spec, "phone", user.getPhone(), String.class);
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                      String name, T value, Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static UserResponse toResponse(Readable row) {
+        return new UserResponse(
+                row.get("id", Long.class),
+                row.get("email", String.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("birth_date", LocalDate.class),
+                row.get("address", String.class),
+                row.get("phone", String.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,79 @@
+package yaremax.com.cs_task_24_04.user.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yaremax.com.cs_task_24_04.exceptions.DuplicateResourceException;
+import yaremax.com.cs_task_24_04.exceptions.ResourceNotFoundException;
+import yaremax.com.cs_task_24_04.user.DateRange;
+import yaremax.com.cs_task_24_04.user.UserConstraints;
+import yaremax.com.cs_task_24_04.user.UserDto;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.validator.common.DateRangeValidator;
+import yaremax.com.cs_task_24_04.validator.user.FullUserDtoValidator;
+import yaremax.com.cs_task_24_04.validator.user.PartialUserDtoValidator;
+
+import java.time.LocalDate;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserService {
+    private final ReactiveUserRepository userRepository;
+    private final FullUserDtoValidator fullUserDtoValidator;
+    private final PartialUserDtoValidator partialUserDtoValidator;
+    private final DateRangeValidator dateRangeValidator;
+
+    public Mono<UserResponse> createUser(UserDto userDto) {
+        return Mono.fromRunnable(() -> fullUserDtoValidator.validate(userDto))
+                .then(Mono.defer(() -> userRepository.insert(userDto)))
+                .onErrorMap(ReactiveUserService::isDuplicateEmail,
+                        ex -> new DuplicateResourceException("User with email " + userDto.getEmail() + " already exists", ex));
+    }
+
+    public Mono<UserResponse> getUserById(Long id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User with id " + id + " not found")));
+    }
+
+    public Flux<UserResponse> getAllUsers() {
+        return userRepository.findAll();
+    }
+
+    public Mono<UserResponse> updateUser(Long id, UserDto updatedUserDto) {
+        return Mono.fromRunnable(() -> fullUserDtoValidator.validate(updatedUserDto))
+                .then(Mono.defer(() -> update(id, updatedUserDto)));
+    }
+
+    public Mono<UserResponse> patchUser(Long id, UserDto partialUserDto) {
+        return Mono.fromRunnable(() -> partialUserDtoValidator.validate(partialUserDto))
+                .then(Mono.defer(() -> update(id, partialUserDto)));
+    }
+
+    public Mono<Void> deleteUser(Long id) {
+        return userRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new ResourceNotFoundException("User with id " + id + " not found"))
+                        : Mono.empty());
+    }
+
+    public Flux<UserResponse> getAllUsersByBirthDateRange(LocalDate from, LocalDate to) {
+        return Mono.fromRunnable(() -> dateRangeValidator.validate(new DateRange(from, to)))
+                .thenMany(Flux.defer(() -> userRepository.findByBirthDateBetween(from, to)));
+    }
+
+    private Mono<UserResponse> update(Long id, UserDto changes) {
+        return userRepository.update(id, changes)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User with id " + id + " not found")))
+                .onErrorMap(ReactiveUserService::isDuplicateEmail,
+                        ex -> new DuplicateResourceException("Email " + changes.getEmail() + " already occupied", ex));
+    }
+
+    // Other integrity violations, e.g. a NOT NULL column, stay server errors rather than turning into a 409.
+    private static boolean isDuplicateEmail(Throwable ex) {
+        return ex instanceof DataIntegrityViolationException violation && UserConstraints.isDuplicateEmail(violation);
+    }
+}
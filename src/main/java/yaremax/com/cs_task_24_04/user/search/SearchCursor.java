@@ -0,0 +1,24 @@
+package yaremax.com.cs_task_24_04.user.search;
+
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record SearchCursor(int offset) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            int offset = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (offset < 0) throw new InvalidDataException("Invalid cursor");
+            return new SearchCursor(offset);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidDataException("Invalid cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package yaremax.com.cs_task_24_04.user.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * In-memory type-ahead index over normalized first names, last names and emails. Returns ids in the same order as
+ * {@code UserRepository#searchByPrefix}: name matches before email matches, then by the matched value and id.
+ * Disabled by default; until {@link #load} has finished, {@link #isReady()} is false and searches go to the database.
+ */
+@Component
+public class UserPrefixIndex {
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::token)
+            .thenComparingLong(Entry::id)
+            .thenComparing(Entry::lastName);
+
+    private final boolean enabled;
+    private final Map<Long, Tokens> byId = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> names = new ConcurrentSkipListSet<>(ORDER);
+    private final NavigableSet<Entry> emails = new ConcurrentSkipListSet<>(ORDER);
+    private final Set<Long> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public UserPrefixIndex(@Value("${app.config.search.prefixIndex.enabled}") boolean enabled,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        meterRegistry.gaugeMapSize("user.search.prefix.index.size", List.of(), byId);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Writes that raced with the load win: older versions and users deleted meanwhile are skipped.
+    public void load(Stream<UserResponse> users) {
+        if (!enabled) return;
+        users.forEach(user -> {
+            if (!removedWhileLoading.contains(user.id())) {
+                put(user);
+            }
+        });
+        ready = true;
+        removedWhileLoading.clear();
+    }
+
+    public void put(UserResponse user) {
+        if (!enabled) return;
+        Tokens tokens = new Tokens(normalize(user.firstName()), normalize(user.lastName()), normalize(user.email()), user.version());
+        byId.compute(user.id(), (id, current) -> {
+            if (current != null && current.version() != null && tokens.version() != null && current.version() > tokens.version()) {
+                return current;
+            }
+            if (current != null) {
+                removeEntries(id, current);
+            }
+            addEntries(id, tokens);
+            return tokens;
+        });
+    }
+
+    public void remove(Long id) {
+        if (!enabled) return;
+        if (!ready) {
+            removedWhileLoading.add(id);
+        }
+        byId.computeIfPresent(id, (key, current) -> {
+            removeEntries(key, current);
+            return null;
+        });
+    }
+
+    public List<Long> search(String prefix, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        int skipped = 0;
+        for (NavigableSet<Entry> tier : List.of(names, emails)) {
+            for (Entry entry : tier.tailSet(new Entry(prefix, Long.MIN_VALUE, false), true)) {
+                if (!entry.token().startsWith(prefix)) break;
+                if (!isRankedBy(entry, tier, prefix)) continue;
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                ids.add(entry.id());
+                if (ids.size() == limit) return ids;
+            }
+        }
+        return ids;
+    }
+
+    // A user is listed once, under the first field that matches in first name, last name, email order.
+    private boolean isRankedBy(Entry entry, NavigableSet<Entry> tier, String prefix) {
+        Tokens tokens = byId.get(entry.id());
+        if (tokens == null) return false;
+        boolean firstNameMatches = tokens.firstName() != null && tokens.firstName().startsWith(prefix);
+        if (tier == names) {
+            return !entry.lastName() || !firstNameMatches;
+        }
+        return !firstNameMatches && (tokens.lastName() == null || !tokens.lastName().startsWith(prefix));
+    }
+
+    private void addEntries(Long id, Tokens tokens) {
+        if (tokens.firstName() != null) names.add(new Entry(tokens.firstName(), id, false));
+        if (tokens.lastName() != null) names.add(new Entry(tokens.lastName(), id, true));
+        if (tokens.email() != null) emails.add(new Entry(tokens.email(), id, false));
+    }
+
+    private void removeEntries(Long id, Tokens tokens) {
+        if (tokens.firstName() != null) names.remove(new Entry(tokens.firstName(), id, false));
+        if (tokens.lastName() != null) names.remove(new Entry(tokens.lastName(), id, true));
+        if (tokens.email() != null) emails.remove(new Entry(tokens.email(), id, false));
+    }
+
+    private record Tokens(String firstName, String lastName, String email, Long version) {
+    }
+
+    private record Entry(String token, long id, boolean lastName) {
+    }
+}
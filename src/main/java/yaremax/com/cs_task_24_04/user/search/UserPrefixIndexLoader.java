@@ -0,0 +1,39 @@
+package yaremax.com.cs_task_24_04.user.search;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.util.stream.Stream;
+
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class UserPrefixIndexLoader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserPrefixIndexLoader.class);
+
+    private final UserPrefixIndex userPrefixIndex;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!userPrefixIndex.isEnabled()) return;
+        long start = System.nanoTime();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<UserResponse> users = userRepository.streamAllOrderedById()) {
+                userPrefixIndex.load(users);
+            }
+        });
+        LOGGER.info("User prefix index loaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,239 @@
+package yaremax.com.cs_task_24_04.user.snapshot;
+
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.user.changes.ChangeWatermark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Read side of the user snapshot file: a header followed by one column per field, each memory-mapped and checked
+ * against its CRC32C before any row is read.
+ * <p>
+ * Layout, big-endian: magic, format version, row count, column count, watermark (epoch second, nano, user id), then
+ * per column its offset, length and checksum, and the header's own checksum. Columns start at 8-byte boundaries and
+ * appear in {@link #COLUMNS} order: ids and versions as longs, birth dates as epoch days ({@link #NO_BIRTH_DATE} for
+ * none), and each text field as an int length per row ({@link #NULL_LENGTH} for null) followed by the UTF-8 bytes of
+ * all rows.
+ * <p>
+ * Offsets are longs, and each column is mapped in segments of at most {@link #SEGMENT_SIZE} bytes, so neither the file
+ * nor a single column is limited to the 2 GiB that one mapping can hold.
+ */
+public final class UserSnapshot {
+    static final int MAGIC = 0x55534E50;
+    static final int FORMAT_VERSION = 1;
+    static final int NO_BIRTH_DATE = Integer.MIN_VALUE;
+    static final int NULL_LENGTH = -1;
+    static final int ID = 0;
+    static final int VERSION = 1;
+    static final int BIRTH_DATE = 2;
+    static final int TEXT = 3;
+    static final int TEXT_FIELDS = 5;
+    static final int COLUMNS = TEXT + 2 * TEXT_FIELDS;
+    static final int SEGMENT_SIZE = 1 << 30;
+    static final int HEADER_SIZE = (int) align(4 * Integer.BYTES + 2 * Long.BYTES + Integer.BYTES
+            + COLUMNS * (2 * Long.BYTES + Integer.BYTES) + Integer.BYTES);
+
+    private final int rowCount;
+    private final ChangeWatermark watermark;
+    private final Column[] columns;
+
+    private UserSnapshot(int rowCount, ChangeWatermark watermark, Column[] columns) {
+        this.rowCount = rowCount;
+        this.watermark = watermark;
+        this.columns = columns;
+    }
+
+    /**
+     * Maps and verifies the file. The mapping outlives the file: a newer snapshot may replace it meanwhile.
+     *
+     * @throws IOException if the file cannot be read or is not a complete, intact snapshot
+     */
+    public static UserSnapshot open(Path file) throws IOException {
+        return open(file, SEGMENT_SIZE);
+    }
+
+    // Segments are a multiple of 8 bytes, so that no long or int of an aligned column spans two of them.
+    static UserSnapshot open(Path file, int segmentSize) throws IOException {
+        if (segmentSize <= 0 || segmentSize % Long.BYTES != 0) throw new IllegalArgumentException("Invalid segment size " + segmentSize);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) throw new IOException("Snapshot " + file + " is truncated");
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) throw new IOException(file + " is not a user snapshot");
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) throw new IOException("Unsupported snapshot format version " + version);
+            int rowCount = header.getInt();
+            if (header.getInt() != COLUMNS || rowCount < 0) throw new IOException("Snapshot " + file + " has an invalid header");
+            ChangeWatermark watermark = new ChangeWatermark(Instant.ofEpochSecond(header.getLong(), header.getInt()), header.getLong());
+
+            Column[] columns = new Column[COLUMNS];
+            long[] offsets = new long[COLUMNS];
+            long[] lengths = new long[COLUMNS];
+            int[] checksums = new int[COLUMNS];
+            for (int c = 0; c < COLUMNS; c++) {
+                offsets[c] = header.getLong();
+                lengths[c] = header.getLong();
+                checksums[c] = header.getInt();
+            }
+            int headerChecksum = header.getInt();
+            if (headerChecksum != checksum(header.duplicate().position(0).limit(header.position() - Integer.BYTES))) {
+                throw new IOException("Snapshot " + file + " has a corrupt header");
+            }
+            for (int c = 0; c < COLUMNS; c++) {
+                if (offsets[c] < HEADER_SIZE || lengths[c] < 0 || offsets[c] > size - lengths[c]) {
+                    throw new IOException("Snapshot " + file + " is truncated");
+                }
+                columns[c] = Column.map(channel, offsets[c], lengths[c], segmentSize);
+                if (columns[c].checksum() != checksums[c]) {
+                    throw new IOException("Checksum mismatch in column " + c + " of snapshot " + file);
+                }
+            }
+            checkLengths(file, rowCount, columns);
+            return new UserSnapshot(rowCount, watermark, columns);
+        }
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Every change up to this position is contained in the snapshot; later ones may or may not be.
+     */
+    public ChangeWatermark watermark() {
+        return watermark;
+    }
+
+    public Stream<UserResponse> users() {
+        return StreamSupport.stream(Spliterators.spliterator(new Rows(), rowCount,
+                Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL), false);
+    }
+
+    static int checksum(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    static long align(long position) {
+        return (position + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private static void checkLengths(Path file, int rowCount, Column[] columns) throws IOException {
+        boolean valid = columns[ID].length == (long) rowCount * Long.BYTES
+                && columns[VERSION].length == (long) rowCount * Long.BYTES
+                && columns[BIRTH_DATE].length == (long) rowCount * Integer.BYTES;
+        for (int f = 0; f < TEXT_FIELDS && valid; f++) {
+            Column lengths = columns[TEXT + 2 * f];
+            valid = lengths.length == (long) rowCount * Integer.BYTES;
+            long total = 0;
+            for (int i = 0; i < rowCount && valid; i++) {
+                int length = lengths.getInt((long) i * Integer.BYTES);
+                valid = length >= NULL_LENGTH;
+                total += Math.max(0, length);
+            }
+            valid = valid && total == columns[TEXT + 2 * f + 1].length;
+        }
+        if (!valid) throw new IOException("Snapshot " + file + " has inconsistent columns");
+    }
+
+    private final class Rows implements Iterator<UserResponse> {
+        private final long[] textPositions = new long[TEXT_FIELDS];
+        private int row;
+
+        @Override
+        public boolean hasNext() {
+            return row < rowCount;
+        }
+
+        @Override
+        public UserResponse next() {
+            if (row == rowCount) throw new NoSuchElementException();
+            int day = columns[BIRTH_DATE].getInt((long) row * Integer.BYTES);
+            UserResponse user = new UserResponse(
+                    columns[ID].getLong((long) row * Long.BYTES),
+                    text(0),
+                    text(1),
+                    text(2),
+                    day == NO_BIRTH_DATE ? null : LocalDate.ofEpochDay(day),
+                    text(3),
+                    text(4),
+                    columns[VERSION].getLong((long) row * Long.BYTES));
+            row++;
+            return user;
+        }
+
+        private String text(int field) {
+            int length = columns[TEXT + 2 * field].getInt((long) row * Integer.BYTES);
+            if (length == NULL_LENGTH) return null;
+            byte[] bytes = new byte[length];
+            columns[TEXT + 2 * field + 1].get(textPositions[field], bytes);
+            textPositions[field] += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    // One column of the file as consecutive read-only mappings of segmentSize bytes each, the last one shorter.
+    private static final class Column {
+        private final ByteBuffer[] segments;
+        private final int segmentSize;
+        private final long length;
+
+        private Column(ByteBuffer[] segments, int segmentSize, long length) {
+            this.segments = segments;
+            this.segmentSize = segmentSize;
+            this.length = length;
+        }
+
+        static Column map(FileChannel channel, long offset, long length, int segmentSize) throws IOException {
+            ByteBuffer[] segments = new ByteBuffer[Math.toIntExact(Math.max(1, (length + segmentSize - 1) / segmentSize))];
+            for (int s = 0; s < segments.length; s++) {
+                long start = (long) s * segmentSize;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start, Math.min(segmentSize, length - start));
+            }
+            return new Column(segments, segmentSize, length);
+        }
+
+        long getLong(long position) {
+            return segments[(int) (position / segmentSize)].getLong((int) (position % segmentSize));
+        }
+
+        int getInt(long position) {
+            return segments[(int) (position / segmentSize)].getInt((int) (position % segmentSize));
+        }
+
+        void get(long position, byte[] bytes) {
+            for (int copied = 0; copied < bytes.length; ) {
+                long at = position + copied;
+                ByteBuffer segment = segments[(int) (at / segmentSize)];
+                int index = (int) (at % segmentSize);
+                int count = Math.min(bytes.length - copied, segment.capacity() - index);
+                segment.get(index, bytes, copied, count);
+                copied += count;
+            }
+        }
+
+        int checksum() {
+            CRC32C crc = new CRC32C();
+            for (ByteBuffer segment : segments) {
+                crc.update(segment.duplicate());
+            }
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package yaremax.com.cs_task_24_04.user.snapshot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.user.changes.ChangeWatermark;
+import yaremax.com.cs_task_24_04.user.changes.UserChangeFeedService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the user snapshot file current and hands it to loaders. Disabled unless {@code app.config.snapshot.file} is
+ * set and the user directory, its only reader, is enabled; a missing or damaged file only means that loaders fall back
+ * to the database.
+ */
+@Component
+@Profile("!reactive")
+public class UserSnapshotStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserSnapshotStore.class);
+
+    private final Path file;
+    private final boolean directoryEnabled;
+    private final UserRepository userRepository;
+    private final UserChangeFeedService userChangeFeedService;
+    private final TransactionTemplate readOnly;
+    private final Counter writeFailures;
+
+    public UserSnapshotStore(@Value("${app.config.snapshot.file}") String file,
+                             @Value("${app.config.directory.enabled}") boolean directoryEnabled,
+                             UserRepository userRepository,
+                             UserChangeFeedService userChangeFeedService,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry) {
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.directoryEnabled = directoryEnabled;
+        this.userRepository = userRepository;
+        this.userChangeFeedService = userChangeFeedService;
+        this.readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnly.setReadOnly(true);
+        this.writeFailures = meterRegistry.counter("user.snapshot.write.failures");
+    }
+
+    public boolean isEnabled() {
+        return file != null && directoryEnabled;
+    }
+
+    public Optional<UserSnapshot> open() {
+        if (!isEnabled()) return Optional.empty();
+        try {
+            return Optional.of(UserSnapshot.open(file));
+        } catch (NoSuchFileException ex) {
+            return Optional.empty();
+        } catch (IOException ex) {
+            LOGGER.warn("Ignoring user snapshot: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Dumps every user to a new snapshot. The watermark is taken first, so changes that have not settled by then are
+     * replayed on load even if the dump already contains them. A failed run keeps the previous file, which then ages
+     * with every run, so failures are logged as errors and counted.
+     */
+    @Scheduled(initialDelayString = "${app.config.snapshot.interval}", fixedDelayString = "${app.config.snapshot.interval}")
+    public void write() {
+        if (!isEnabled()) return;
+        long start = System.nanoTime();
+        ChangeWatermark watermark = userChangeFeedService.settledWatermark();
+        try {
+            Integer rows = readOnly.execute(status -> {
+                try (Stream<UserResponse> users = userRepository.streamAllOrderedById()) {
+                    return UserSnapshotWriter.write(file, watermark, users);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            LOGGER.info("User snapshot of {} users written to {} in {} ms", rows, file, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            writeFailures.increment();
+            LOGGER.error("Writing the user snapshot to {} failed, retrying on the next run", file, ex);
+        }
+    }
+}
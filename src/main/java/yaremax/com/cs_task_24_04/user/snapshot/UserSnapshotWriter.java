@@ -0,0 +1,133 @@
+package yaremax.com.cs_task_24_04.user.snapshot;
+
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.user.changes.ChangeWatermark;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes a {@link UserSnapshot} file. Rows go to one temporary file per column, which are then concatenated behind
+ * the header into a temporary snapshot that replaces the target atomically, so readers never see a partial file.
+ */
+final class UserSnapshotWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private UserSnapshotWriter() {
+    }
+
+    static int write(Path file, ChangeWatermark watermark, Stream<UserResponse> users) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path[] columnFiles = new Path[UserSnapshot.COLUMNS];
+        CRC32C[] checksums = new CRC32C[UserSnapshot.COLUMNS];
+        DataOutputStream[] columns = new DataOutputStream[UserSnapshot.COLUMNS];
+        Path target = null;
+        try {
+            for (int c = 0; c < UserSnapshot.COLUMNS; c++) {
+                columnFiles[c] = Files.createTempFile(directory, file.getFileName() + ".column", ".tmp");
+                checksums[c] = new CRC32C();
+                columns[c] = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Files.newOutputStream(columnFiles[c]), checksums[c]), BUFFER_SIZE));
+            }
+            int rowCount = writeRows(users, columns);
+            for (DataOutputStream column : columns) {
+                column.close();
+            }
+
+            target = Files.createTempFile(directory, file.getFileName() + ".", ".tmp");
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(UserSnapshot.HEADER_SIZE)
+                        .putInt(UserSnapshot.MAGIC)
+                        .putInt(UserSnapshot.FORMAT_VERSION)
+                        .putInt(rowCount)
+                        .putInt(UserSnapshot.COLUMNS)
+                        .putLong(watermark.time().getEpochSecond())
+                        .putInt(watermark.time().getNano())
+                        .putLong(watermark.id());
+                long offset = UserSnapshot.HEADER_SIZE;
+                for (int c = 0; c < UserSnapshot.COLUMNS; c++) {
+                    long length = Files.size(columnFiles[c]);
+                    header.putLong(offset).putLong(length).putInt((int) checksums[c].getValue());
+                    offset = UserSnapshot.align(offset + length);
+                }
+                header.putInt(UserSnapshot.checksum(header.duplicate().flip()));
+                out.write(header.clear(), 0);
+
+                offset = UserSnapshot.HEADER_SIZE;
+                for (Path columnFile : columnFiles) {
+                    try (FileChannel in = FileChannel.open(columnFile, StandardOpenOption.READ)) {
+                        long length = in.size();
+                        for (long copied = 0; copied < length; ) {
+                            copied += in.transferTo(copied, length - copied, out.position(offset + copied));
+                        }
+                        offset = UserSnapshot.align(offset + length);
+                    }
+                }
+                out.truncate(offset);
+                out.force(true);
+            }
+            Files.move(target, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            target = null;
+            return rowCount;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            for (int c = 0; c < UserSnapshot.COLUMNS; c++) {
+                if (columns[c] != null) {
+                    try {
+                        columns[c].close();
+                    } catch (IOException ignored) {
+                        // the column file is deleted below
+                    }
+                }
+                if (columnFiles[c] != null) Files.deleteIfExists(columnFiles[c]);
+            }
+            if (target != null) Files.deleteIfExists(target);
+        }
+    }
+
+    private static int writeRows(Stream<UserResponse> users, DataOutputStream[] columns) {
+        int[] rowCount = new int[1];
+        users.forEach(user -> {
+            try {
+                columns[UserSnapshot.ID].writeLong(user.id());
+                columns[UserSnapshot.VERSION].writeLong(user.version() == null ? 0L : user.version());
+                LocalDate birthDate = user.birthDate();
+                columns[UserSnapshot.BIRTH_DATE].writeInt(birthDate == null ? UserSnapshot.NO_BIRTH_DATE : Math.toIntExact(birthDate.toEpochDay()));
+                writeText(columns, 0, user.email());
+                writeText(columns, 1, user.firstName());
+                writeText(columns, 2, user.lastName());
+                writeText(columns, 3, user.address());
+                writeText(columns, 4, user.phone());
+                rowCount[0] = Math.addExact(rowCount[0], 1);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return rowCount[0];
+    }
+
+    private static void writeText(DataOutputStream[] columns, int field, String value) throws IOException {
+        DataOutputStream lengths = columns[UserSnapshot.TEXT + 2 * field];
+        if (value == null) {
+            lengths.writeInt(UserSnapshot.NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        lengths.writeInt(bytes.length);
+        columns[UserSnapshot.TEXT + 2 * field + 1].write(bytes);
+    }
+}
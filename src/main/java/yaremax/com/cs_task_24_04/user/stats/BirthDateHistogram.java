@@ -0,0 +1,6 @@
+package yaremax.com.cs_task_24_04.user.stats;
+
+import java.util.List;
+
+public record BirthDateHistogram(BucketSize bucket, long total, List<BirthDateBucket> buckets) {
+}
@@ -0,0 +1,4 @@
+package yaremax.com.cs_task_24_04.user.stats;
+
+public record BirthMonthCount(Integer year, Integer month, Long count) {
+}
@@ -0,0 +1,33 @@
+package yaremax.com.cs_task_24_04.user.stats;
+
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Locale;
+
+public enum BucketSize {
+    YEAR,
+    MONTH;
+
+    public static BucketSize parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidDataException("Bucket must be 'year' or 'month'", ex);
+        }
+    }
+
+    LocalDate startOf(LocalDate date) {
+        return this == YEAR ? date.withDayOfYear(1) : date.withDayOfMonth(1);
+    }
+
+    LocalDate next(LocalDate start) {
+        return this == YEAR ? start.plusYears(1) : start.plusMonths(1);
+    }
+
+    // ISO year ("1990") or year-month ("1990-05").
+    String label(LocalDate start) {
+        return this == YEAR ? String.valueOf(start.getYear()) : YearMonth.from(start).toString();
+    }
+}
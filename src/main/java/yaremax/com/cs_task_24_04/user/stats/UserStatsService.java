@@ -0,0 +1,91 @@
+package yaremax.com.cs_task_24_04.user.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.user.DateRange;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.directory.BirthDateIndex;
+import yaremax.com.cs_task_24_04.validator.common.DateRangeValidator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Birth date histograms, counted by the birth date index when it is loaded and by one aggregate query otherwise.
+ * Either way the work and the response grow with the number of buckets, not with the number of users.
+ */
+@Service
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class UserStatsService {
+    public static final int MAX_BUCKETS = 2_400;
+
+    private final UserRepository userRepository;
+    private final BirthDateIndex birthDateIndex;
+    private final DateRangeValidator dateRangeValidator;
+
+    public BirthDateHistogram getBirthDateHistogram(LocalDate from, LocalDate to, BucketSize bucket) {
+        Optional<DateRange> range = resolveRange(from, to);
+        if (range.isEmpty()) return new BirthDateHistogram(bucket, 0, List.of());
+        LocalDate rangeFrom = range.get().fromDate();
+        LocalDate rangeTo = range.get().toDate();
+
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate start = bucket.startOf(rangeFrom); !start.isAfter(rangeTo); start = bucket.next(start)) {
+            if (starts.size() == MAX_BUCKETS) throw new InvalidDataException("At most " + MAX_BUCKETS + " buckets can be requested; narrow the range or use yearly buckets");
+            starts.add(start);
+        }
+
+        long[] counts = birthDateIndex.isReady()
+                ? birthDateIndex.countBuckets(withFirstStart(starts, rangeFrom), rangeTo)
+                : countFromDatabase(starts, bucket, rangeFrom, rangeTo);
+
+        List<BirthDateBucket> buckets = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < starts.size(); i++) {
+            if (counts[i] == 0) continue;
+            buckets.add(new BirthDateBucket(bucket.label(starts.get(i)), counts[i]));
+            total += counts[i];
+        }
+        return new BirthDateHistogram(bucket, total, buckets);
+    }
+
+    // Without bounds the histogram covers every user.
+    private Optional<DateRange> resolveRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null) {
+            dateRangeValidator.validate(new DateRange(from, to));
+            return Optional.of(new DateRange(from, to));
+        }
+        Optional<DateRange> stored = birthDateIndex.isReady()
+                ? birthDateIndex.range()
+                : Optional.ofNullable(userRepository.findBirthDateRange()).filter(found -> found.fromDate() != null);
+        return stored
+                .map(found -> new DateRange(from != null ? from : found.fromDate(), to != null ? to : found.toDate()))
+                .filter(resolved -> !resolved.fromDate().isAfter(resolved.toDate()));
+    }
+
+    private static List<LocalDate> withFirstStart(List<LocalDate> starts, LocalDate from) {
+        List<LocalDate> clipped = new ArrayList<>(starts);
+        clipped.set(0, from);
+        return clipped;
+    }
+
+    private long[] countFromDatabase(List<LocalDate> starts, BucketSize bucket, LocalDate from, LocalDate to) {
+        Map<LocalDate, Integer> bucketIndex = new LinkedHashMap<>();
+        for (int i = 0; i < starts.size(); i++) {
+            bucketIndex.put(starts.get(i), i);
+        }
+        long[] counts = new long[starts.size()];
+        for (BirthMonthCount month : userRepository.countByBirthMonth(from, to)) {
+            LocalDate start = bucket.startOf(LocalDate.of(month.year(), month.month(), 1));
+            counts[bucketIndex.get(start)] += month.count();
+        }
+        return counts;
+    }
+}
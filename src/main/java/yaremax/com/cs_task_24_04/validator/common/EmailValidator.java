@@ -4,9 +4,6 @@ import org.springframework.stereotype.Component;
 import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
 import yaremax.com.cs_task_24_04.validator.Validator;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 @Component
 public class EmailValidator implements Validator<String> {
     /*
@@ -23,16 +20,78 @@ public class EmailValidator implements Validator<String> {
     user_name@domain.com
     username@.com
      */
-    private static final String EMAIL_REGEX_PATTERN = "^(?=.{1,64}@)[A-Za-z0-9]+(\\.[A-Za-z0-9]+)*@"
-            + "[^-][A-Za-z0-9-]+(\\.[A-Za-z0-9-]+)*(\\.[A-Za-z]{2,})$";
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MIN_TOP_LEVEL_DOMAIN_LENGTH = 2;
 
     public void validate(String email)  {
-        if (email == null || email.trim().isEmpty()){
+        if (email == null || isBlank(email)){
             throw new InvalidDataException("Email cannot be null or empty");
         }
 
-        Pattern pattern = Pattern.compile(EMAIL_REGEX_PATTERN);
-        Matcher matcher = pattern.matcher(email);
-        if (!matcher.matches()) throw new InvalidDataException("Invalid email");
+        if (!isValid(email)) throw new InvalidDataException("Invalid email");
+    }
+
+    // Single pass over the input, equivalent to
+    // ^(?=.{1,64}@)[A-Za-z0-9]+(\.[A-Za-z0-9]+)*@[^-][A-Za-z0-9-]+(\.[A-Za-z0-9-]+)*(\.[A-Za-z]{2,})$
+    private static boolean isValid(String email) {
+        int length = email.length();
+        int i = 0;
+
+        boolean atLabelStart = true;
+        for (; i < length; i++) {
+            char c = email.charAt(i);
+            if (isAsciiLetterOrDigit(c)) {
+                atLabelStart = false;
+            } else if (c == '.' && !atLabelStart) {
+                atLabelStart = true;
+            } else {
+                break;
+            }
+        }
+        if (i == 0 || atLabelStart || i > MAX_LOCAL_PART_LENGTH || i == length || email.charAt(i) != '@') {
+            return false;
+        }
+        i++;
+
+        if (i == length || email.charAt(i) == '-') {
+            return false;
+        }
+        boolean surrogatePair = Character.isHighSurrogate(email.charAt(i))
+                && i + 1 < length && Character.isLowSurrogate(email.charAt(i + 1));
+        i += surrogatePair ? 2 : 1;
+
+        int dots = 0;
+        int labelLength = 0;
+        boolean labelIsLetters = true;
+        for (; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (labelLength == 0) return false;
+                dots++;
+                labelLength = 0;
+                labelIsLetters = true;
+            } else if (isAsciiLetterOrDigit(c) || c == '-') {
+                labelLength++;
+                labelIsLetters &= isAsciiLetter(c);
+            } else {
+                return false;
+            }
+        }
+        return dots > 0 && labelLength >= MIN_TOP_LEVEL_DOMAIN_LENGTH && labelIsLetters;
+    }
+
+    private static boolean isBlank(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
     }
 }
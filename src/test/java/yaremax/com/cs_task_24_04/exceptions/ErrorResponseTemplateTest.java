@@ -0,0 +1,56 @@
+package yaremax.com.cs_task_24_04.exceptions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorResponseTemplateTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void render_ShouldProduceSameFieldsAsApiException() throws Exception {
+        // Arrange
+        ErrorResponseTemplate template = new ErrorResponseTemplate(ResourceNotFoundException.class, HttpStatus.NOT_FOUND);
+        Instant timestamp = Instant.parse("2024-04-24T10:15:30.123Z");
+
+        // Act
+        JsonNode json = objectMapper.readTree(template.render("User not found", timestamp));
+
+        // Assert
+        assertThat(json.get("message").asText()).isEqualTo("(ResourceNotFoundException) User not found");
+        assertThat(json.get("httpStatus").asText()).isEqualTo("NOT_FOUND");
+        assertThat(json.get("timeStamp").asText()).isEqualTo("2024-04-24T10:15:30.123Z");
+        assertThat(json.size()).isEqualTo(3);
+    }
+
+    @Test
+    void render_MessageWithSpecialCharacters_ShouldEscapeThem() throws Exception {
+        // Arrange
+        ErrorResponseTemplate template = new ErrorResponseTemplate(InvalidDataException.class, HttpStatus.BAD_REQUEST);
+        String message = "Invalid \"email\"\n\\ <script>";
+
+        // Act
+        JsonNode json = objectMapper.readTree(template.render(message, Instant.EPOCH));
+
+        // Assert
+        assertThat(json.get("message").asText()).isEqualTo("(InvalidDataException) " + message);
+    }
+
+    @Test
+    void render_NullMessage_ShouldRenderNullAsText() throws Exception {
+        // Arrange
+        ErrorResponseTemplate template = new ErrorResponseTemplate(InvalidDataException.class, HttpStatus.BAD_REQUEST);
+
+        // Act
+        JsonNode json = objectMapper.readTree(template.render(null, Instant.EPOCH));
+
+        // Assert
+        assertThat(json.get("message").asText()).isEqualTo("(InvalidDataException) null");
+    }
+}
@@ -0,0 +1,58 @@
+package yaremax.com.cs_task_24_04.exceptions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void handleNotFoundExceptions_ShouldReturnJsonBodyWithStatus() {
+        // Arrange
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(meterRegistry, Duration.ofSeconds(1));
+
+        // Act
+        ResponseEntity<Object> response = handler.handleNotFoundExceptions(new ResourceNotFoundException("User not found"), null);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat((String) response.getBody()).startsWith("{\"message\":\"(ResourceNotFoundException) User not found\"");
+    }
+
+    @Test
+    void handleException_RepeatedWithinInterval_ShouldLogOnceAndCountSuppressed() {
+        // Arrange
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(meterRegistry, Duration.ofHours(1));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            handler.handleBadRequestExceptions(new InvalidDataException("Invalid email"), null);
+        }
+        handler.handleConflictExceptions(new DuplicateResourceException("Email already exists"), null);
+
+        // Assert
+        assertThat(meterRegistry.get("api.exceptions.logs.suppressed")
+                .tag("exception", "InvalidDataException")
+                .counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("api.exceptions.logs.suppressed")
+                .tag("exception", "DuplicateResourceException")
+                .counter().count()).isZero();
+        assertThat(meterRegistry.get("api.exceptions")
+                .tag("exception", "InvalidDataException")
+                .counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void businessExceptions_ShouldNotCaptureStackTrace() {
+        assertThat(new ResourceNotFoundException("User not found").getStackTrace()).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package yaremax.com.cs_task_24_04.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.user.DateRange;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.directory.BirthDateIndex;
+import yaremax.com.cs_task_24_04.user.stats.BucketSize;
+import yaremax.com.cs_task_24_04.user.stats.UserStatsService;
+import yaremax.com.cs_task_24_04.validator.common.DateRangeValidator;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class ServiceMetricsAdvisorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DateRangeValidator dateRangeValidator = mock(DateRangeValidator.class);
+    private UserStatsService userStatsService;
+
+    @BeforeEach
+    void setUp() {
+        ProxyFactory proxyFactory = new ProxyFactory(
+                new UserStatsService(mock(UserRepository.class), mock(BirthDateIndex.class), dateRangeValidator));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new ServiceMetricsAdvisor(meterRegistry));
+        userStatsService = (UserStatsService) proxyFactory.getProxy();
+    }
+
+    @Test
+    void serviceMethod_ShouldRecordCallsPerMethodAndException() {
+        // Arrange
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(1990, 1, 1);
+        doThrow(new InvalidDataException("From date must be before to date")).when(dateRangeValidator).validate(new DateRange(from, to));
+
+        // Act
+        userStatsService.getBirthDateHistogram(null, null, BucketSize.YEAR);
+        userStatsService.getBirthDateHistogram(null, null, BucketSize.MONTH);
+        assertThatExceptionOfType(InvalidDataException.class)
+                .isThrownBy(() -> userStatsService.getBirthDateHistogram(from, to, BucketSize.YEAR));
+
+        // Assert
+        assertThat(meterRegistry.get("user.stats").tag("method", "getBirthDateHistogram").tag("exception", "none").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("user.stats").tag("method", "getBirthDateHistogram").tag("exception", "InvalidDataException").timer().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,40 @@
+package yaremax.com.cs_task_24_04.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.validator.common.EmailValidator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ValidatorMetricsAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmailValidator emailValidator;
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new EmailValidator());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ValidatorMetricsAspect(meterRegistry));
+        emailValidator = proxyFactory.getProxy();
+    }
+
+    @Test
+    void validate_ShouldRecordValidAndRejectedInvocations() {
+        // Act
+        emailValidator.validate("john@example.com");
+        emailValidator.validate("jane@example.com");
+        assertThatExceptionOfType(InvalidDataException.class)
+                .isThrownBy(() -> emailValidator.validate("not-an-email"));
+
+        // Assert
+        assertThat(meterRegistry.get("validator").tag("validator", "EmailValidator").tag("outcome", "valid").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("validator").tag("validator", "EmailValidator").tag("outcome", "rejected").timer().count())
+                .isEqualTo(1);
+    }
+}
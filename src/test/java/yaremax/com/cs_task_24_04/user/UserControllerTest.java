@@ -1,27 +1,62 @@
 package yaremax.com.cs_task_24_04.user;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import yaremax.com.cs_task_24_04.exceptions.DuplicateResourceException;
 import yaremax.com.cs_task_24_04.exceptions.GlobalExceptionHandler;
 import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.exceptions.PreconditionFailedException;
 import yaremax.com.cs_task_24_04.exceptions.ResourceNotFoundException;
-
+import yaremax.com.cs_task_24_04.user.bulk.BulkImportResult;
+import yaremax.com.cs_task_24_04.user.bulk.UserBulkImportService;
+import yaremax.com.cs_task_24_04.user.changes.UserChangeEntry;
+import yaremax.com.cs_task_24_04.user.changes.UserChangeFeedService;
+import yaremax.com.cs_task_24_04.user.changes.UserChangesPage;
+import yaremax.com.cs_task_24_04.user.export.ExportFormat;
+import yaremax.com.cs_task_24_04.user.export.UserExportService;
+import yaremax.com.cs_task_24_04.user.stats.BirthDateBucket;
+import yaremax.com.cs_task_24_04.user.stats.BirthDateHistogram;
+import yaremax.com.cs_task_24_04.user.stats.BucketSize;
+import yaremax.com.cs_task_24_04.user.stats.UserStatsService;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -29,14 +64,23 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class UserControllerTest {
 
     private MockMvc mockMvc;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @Mock
     private UserService userService;
+    @Mock
+    private UserBulkImportService userBulkImportService;
+    @Mock
+    private UserChangeFeedService userChangeFeedService;
+    @Mock
+    private UserStatsService userStatsService;
+    @Mock
+    private UserExportService userExportService;
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService))
-                .setControllerAdvice(new GlobalExceptionHandler())
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, userBulkImportService, userChangeFeedService, userStatsService, userExportService, Jackson2ObjectMapperBuilder.json().build()))
+                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry, Duration.ofSeconds(1)))
                 .build();
     }
 
@@ -47,13 +91,14 @@ class UserControllerTest {
         void getUserById_UserExists_ShouldReturnUser() throws Exception {
             // Arrange
             long userId = 1L;
-            User user = new User();
+            UserResponse user = new UserResponse(userId, "test@example.com", "John", "Doe", null, null, null, 0L);
             when(userService.getUserById(userId)).thenReturn(user);
 
             // Act & Assert
             mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/{id}", userId))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$.id").value(user.getId()));
+                    .andExpect(jsonPath("$.id").value(userId))
+                    .andExpect(jsonPath("$.email").value("test@example.com"));
 
             verify(userService, times(1)).getUserById(userId);
         }
@@ -62,47 +107,240 @@ class UserControllerTest {
         void getUserById_UserNotFound_ShouldReturnNotFound() throws Exception {
             // Arrange
             long userId = 1L;
-            doThrow(new ResourceNotFoundException(""))
+            doThrow(new ResourceNotFoundException("User not found"))
                     .when(userService).getUserById(userId);
 
             // Act & Assert
             mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/{id}", userId))
-                    .andExpect(status().isNotFound());
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message").value("(ResourceNotFoundException) User not found"))
+                    .andExpect(jsonPath("$.httpStatus").value("NOT_FOUND"))
+                    .andExpect(jsonPath("$.timeStamp").isNotEmpty());
 
             verify(userService, times(1)).getUserById(userId);
+            assertThat(meterRegistry.get("api.exceptions")
+                    .tag("exception", "ResourceNotFoundException")
+                    .tag("status", "404")
+                    .counter().count()).isEqualTo(1);
         }
     }
 
-    @Test
-    void getAllUsers_ShouldReturnListOfUsers() throws Exception {
-        // Arrange
-        List<User> users = new ArrayList<>();
-        when(userService.getAllUsers()).thenReturn(users);
+    @Nested
+    class GetAllUsersTests {
+
+        @Test
+        void getAllUsers_ShouldReturnPageOfUsers() throws Exception {
+            // Arrange
+            UserResponse user = new UserResponse(3L, "test@example.com", null, null, null, null, null, 0L);
+            UserPage<UserResponse> page = new UserPage<>(List.of(user), "Mw");
+            when(userService.getUsersPage("Mg", 1)).thenReturn(page);
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users")
+                            .param("after", "Mg")
+                            .param("limit", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items").isArray())
+                    .andExpect(jsonPath("$.items[0].id").value(3))
+                    .andExpect(jsonPath("$.nextCursor").value("Mw"));
+
+            verify(userService, times(1)).getUsersPage("Mg", 1);
+        }
+
+        @Test
+        void getAllUsers_DefaultLimit_ShouldRequestFirstPage() throws Exception {
+            // Arrange
+            when(userService.getUsersPage(null, 50)).thenReturn(new UserPage<>(new ArrayList<>(), null));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items").isEmpty());
 
-        // Act & Assert
-        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+            verify(userService, times(1)).getUsersPage(null, 50);
+        }
+
+        @Test
+        void getAllUsers_WithFilters_ShouldUseFilteredPage() throws Exception {
+            // Arrange
+            UserFilter filter = new UserFilter(LocalDate.of(1980, 1, 1), null, "Do", "example.com", true);
+            UserSort sort = UserSort.parse("birthDate,desc");
+            when(userService.getFilteredUsersPage(filter, sort, null, 50)).thenReturn(new UserPage<>(new ArrayList<>(), null));
 
-        verify(userService, times(1)).getAllUsers();
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users")
+                            .param("bornFrom", "1980-01-01")
+                            .param("lastName", "Do")
+                            .param("emailDomain", "example.com")
+                            .param("hasPhone", "true")
+                            .param("sort", "birthDate,desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items").isEmpty());
+
+            verify(userService, never()).getUsersPage(any(), anyInt());
+        }
+
+        @Test
+        void getAllUsers_UnsupportedSort_ShouldReturnBadRequest() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users").param("sort", "email"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void getAllUsers_InvalidCursor_ShouldReturnBadRequest() throws Exception {
+            // Arrange
+            doThrow(new InvalidDataException("")).when(userService).getUsersPage("???", 50);
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users").param("after", "???"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void streamAllUsers_ShouldWriteJsonArray() throws Exception {
+            // Arrange
+            doAnswer(invocation -> {
+                Consumer<UserResponse> consumer = invocation.getArgument(0);
+                consumer.accept(new UserResponse(1L, "a@example.com", null, null, null, null, null, 0L));
+                consumer.accept(new UserResponse(2L, "b@example.com", null, null, null, null, null, 0L));
+                return null;
+            }).when(userService).streamAllUsers(any(Consumer.class));
+
+            // Act
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users").param("stream", "true"))
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[1].email").value("b@example.com"));
+            verify(userService, never()).getUsersPage(any(), anyInt());
+        }
     }
 
-    @Test
-    void getAllUsersByBirthDateRange_ShouldReturnListOfUsers() throws Exception {
-        // Arrange
-        LocalDate from = LocalDate.now().minusYears(30);
-        LocalDate to = LocalDate.now().minusYears(20);
-        List<User> users = new ArrayList<>();
-        when(userService.getAllUsersByBirthDateRange(from, to)).thenReturn(users);
-
-        // Act & Assert
-        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/period")
-                        .param("from", from.toString())
-                        .param("to", to.toString()))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
-
-        verify(userService, times(1)).getAllUsersByBirthDateRange(from, to);
+    @Nested
+    class GetAllUsersByBirthDateRangeTests {
+
+        @Test
+        void getAllUsersByBirthDateRange_ShouldReturnPageOfUsers() throws Exception {
+            // Arrange
+            LocalDate from = LocalDate.now().minusYears(30);
+            LocalDate to = LocalDate.now().minusYears(20);
+            UserPage<UserResponse> page = new UserPage<>(new ArrayList<>(), null);
+            when(userService.getUsersPageByBirthDateRange(from, to, "cursor", 10)).thenReturn(page);
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/period")
+                            .param("from", from.toString())
+                            .param("to", to.toString())
+                            .param("after", "cursor")
+                            .param("limit", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items").isArray());
+
+            verify(userService, times(1)).getUsersPageByBirthDateRange(from, to, "cursor", 10);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void streamAllUsersByBirthDateRange_ShouldWriteJsonArray() throws Exception {
+            // Arrange
+            LocalDate from = LocalDate.of(1980, 1, 1);
+            LocalDate to = LocalDate.of(1989, 12, 31);
+            doAnswer(invocation -> {
+                Consumer<UserResponse> consumer = invocation.getArgument(2);
+                consumer.accept(new UserResponse(1L, "test@example.com", null, null, LocalDate.of(1985, 6, 1), null, null, 0L));
+                return null;
+            }).when(userService).streamUsersByBirthDateRange(eq(from), eq(to), any(Consumer.class));
+
+            // Act
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/period")
+                            .param("from", from.toString())
+                            .param("to", to.toString())
+                            .param("stream", "true"))
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].id").value(1));
+        }
+
+        @Test
+        void streamAllUsersByBirthDateRange_InvalidRange_ShouldReturnBadRequestBeforeStreaming() throws Exception {
+            // Arrange
+            LocalDate from = LocalDate.of(1990, 1, 1);
+            LocalDate to = LocalDate.of(1980, 1, 1);
+            doThrow(new InvalidDataException("From date cannot be after to date")).when(userService).validateBirthDateRange(from, to);
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/period")
+                            .param("from", from.toString())
+                            .param("to", to.toString())
+                            .param("stream", "true"))
+                    .andExpect(status().isBadRequest());
+            verify(userService, never()).streamUsersByBirthDateRange(any(), any(), any());
+        }
+
+        @Test
+        void getUserIdsByBirthDateRange_ShouldReturnPageOfIds() throws Exception {
+            // Arrange
+            LocalDate from = LocalDate.of(1980, 1, 1);
+            LocalDate to = LocalDate.of(1989, 12, 31);
+            when(userService.getUserIdsByBirthDateRange(from, to, null, 500)).thenReturn(new UserPage<>(List.of(3L, 5L), "next"));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/period/ids")
+                            .param("from", from.toString())
+                            .param("to", to.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[1]").value(5))
+                    .andExpect(jsonPath("$.nextCursor").value("next"));
+        }
+
+        @Test
+        void countUsersByBirthDateRange_ShouldReturnCount() throws Exception {
+            // Arrange
+            LocalDate from = LocalDate.of(1980, 1, 1);
+            LocalDate to = LocalDate.of(1989, 12, 31);
+            when(userService.countUsersByBirthDateRange(from, to)).thenReturn(42L);
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/period/count")
+                            .param("from", from.toString())
+                            .param("to", to.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json("{\"count\":42}"));
+        }
+
+        @Test
+        void getBirthDateHistogram_ShouldReturnBuckets() throws Exception {
+            // Arrange
+            BirthDateHistogram histogram = new BirthDateHistogram(BucketSize.MONTH, 5,
+                    List.of(new BirthDateBucket("1990-01", 2), new BirthDateBucket("1990-03", 3)));
+            when(userStatsService.getBirthDateHistogram(null, null, BucketSize.MONTH)).thenReturn(histogram);
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/stats/birth-years")
+                            .param("bucket", "month"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(5))
+                    .andExpect(jsonPath("$.buckets[1].period").value("1990-03"))
+                    .andExpect(jsonPath("$.buckets[1].count").value(3));
+        }
+
+        @Test
+        void getBirthDateHistogram_UnknownBucket_ShouldReturnBadRequest() throws Exception {
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/stats/birth-years")
+                            .param("bucket", "week"))
+                    .andExpect(status().isBadRequest());
+            verifyNoInteractions(userStatsService);
+        }
     }
 
     @Nested
@@ -111,12 +349,7 @@ class UserControllerTest {
         @Test
         void createUser_ShouldReturnCreatedUser() throws Exception {
             // Arrange
-            User user = User.builder()
-                    .email("test@example.com")
-                    .firstName("John")
-                    .lastName("Doe")
-                    .birthDate(LocalDate.of(2020, 5, 15))
-                    .build();
+            UserResponse user = new UserResponse(1L, "test@example.com", "John", "Doe", LocalDate.of(2020, 5, 15), null, null, 0L);
 
             when(userService.createUser(any())).thenReturn(user);
 
@@ -132,7 +365,7 @@ class UserControllerTest {
                             }
                             """))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$.id").value(user.getId()));
+                    .andExpect(jsonPath("$.id").value(user.id()));
 
             verify(userService, times(1)).createUser(any());
         }
@@ -156,6 +389,80 @@ class UserControllerTest {
                             """))
                     .andExpect(status().isBadRequest());
         }
+
+        @Test
+        void createUser_DuplicateEmail_ShouldReturnConflict() throws Exception {
+            // Arrange
+            doThrow(new DuplicateResourceException(""))
+                    .when(userService).createUser(any());
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                            {
+                                "email": "test@example.com",
+                                "firstName": "John",
+                                "lastName": "Doe",
+                                "birthDate": "2000-05-15"
+                            }
+                            """))
+                    .andExpect(status().isConflict());
+        }
+    }
+
+    @Nested
+    class ImportUsersTests {
+
+        @SuppressWarnings("unchecked")
+        private List<String> captureImportedEmails() {
+            List<String> emails = new ArrayList<>();
+            when(userBulkImportService.importUsers(any(Iterator.class))).thenAnswer(invocation -> {
+                Iterator<UserDto> users = invocation.getArgument(0);
+                users.forEachRemaining(user -> emails.add(user.getEmail()));
+                return new BulkImportResult(emails.size(), emails.size(), 0, List.of());
+            });
+            return emails;
+        }
+
+        @Test
+        void importUsers_JsonArray_ShouldPassEveryElement() throws Exception {
+            // Arrange
+            List<String> emails = captureImportedEmails();
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/users/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                            [
+                                {"email": "a@example.com", "firstName": "John", "lastName": "Doe", "birthDate": "2000-05-15"},
+                                {"email": "b@example.com", "firstName": "Jane", "lastName": "Doe", "birthDate": "2000-05-15"}
+                            ]
+                            """))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(2))
+                    .andExpect(jsonPath("$.created").value(2));
+
+            assertThat(emails).containsExactly("a@example.com", "b@example.com");
+        }
+
+        @Test
+        void importUsers_Ndjson_ShouldPassEveryLine() throws Exception {
+            // Arrange
+            List<String> emails = captureImportedEmails();
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/users/bulk")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content("""
+                            {"email": "a@example.com", "firstName": "John", "lastName": "Doe", "birthDate": "2000-05-15"}
+                            {"email": "b@example.com", "firstName": "Jane", "lastName": "Doe", "birthDate": "2000-05-15"}
+                            """))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.rejected").value(0));
+
+            assertThat(emails).containsExactly("a@example.com", "b@example.com");
+        }
     }
 
     @Nested
@@ -165,14 +472,9 @@ class UserControllerTest {
         void updateUser_ShouldReturnUpdatedUser() throws Exception {
             // Arrange
             long userId = 1L;
-            User user = User.builder()
-                    .email("test@example.com")
-                    .firstName("John")
-                    .lastName("Doe")
-                    .birthDate(LocalDate.of(2020, 5, 15))
-                    .build();
+            UserResponse user = new UserResponse(userId, "test@example.com", "John", "Doe", LocalDate.of(2020, 5, 15), null, null, 0L);
 
-            when(userService.updateUser(eq(userId), any())).thenReturn(user);
+            when(userService.updateUser(eq(userId), any(), isNull())).thenReturn(user);
 
             // Act & Assert
             mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/users/{id}", userId)
@@ -186,9 +488,9 @@ class UserControllerTest {
                             }
                             """))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$.id").value(user.getId()));
+                    .andExpect(jsonPath("$.id").value(user.id()));
 
-            verify(userService, times(1)).updateUser(eq(userId), any());
+            verify(userService, times(1)).updateUser(eq(userId), any(), isNull());
         }
 
         @Test
@@ -196,7 +498,7 @@ class UserControllerTest {
             // Arrange
             long userId = 1L;
             doThrow(new ResourceNotFoundException(""))
-                    .when(userService).updateUser(eq(userId), any());
+                    .when(userService).updateUser(eq(userId), any(), isNull());
 
             // Act & Assert
             mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/users/{id}", userId)
@@ -211,7 +513,7 @@ class UserControllerTest {
                             """))
                     .andExpect(status().isNotFound());
 
-            verify(userService, times(1)).updateUser(eq(userId), any());
+            verify(userService, times(1)).updateUser(eq(userId), any(), isNull());
         }
     }
 
@@ -222,12 +524,9 @@ class UserControllerTest {
         void patchUser_ShouldReturnPatchedUser() throws Exception {
             // Arrange
             long userId = 1L;
-            User user = User.builder()
-                    .email("test@example.com")
-                    .firstName("John")
-                    .build();
+            UserResponse user = new UserResponse(userId, "test@example.com", "John", null, null, null, null, 0L);
 
-            when(userService.patchUser(eq(userId), any())).thenReturn(user);
+            when(userService.patchUser(eq(userId), any(), isNull())).thenReturn(user);
 
             // Act & Assert
             mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/users/{id}", userId)
@@ -239,9 +538,9 @@ class UserControllerTest {
                             }
                             """))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$.id").value(user.getId()));
+                    .andExpect(jsonPath("$.id").value(user.id()));
 
-            verify(userService, times(1)).patchUser(eq(userId), any());
+            verify(userService, times(1)).patchUser(eq(userId), any(), isNull());
         }
 
         @Test
@@ -249,7 +548,7 @@ class UserControllerTest {
             // Arrange
             long userId = 1L;
             doThrow(new ResourceNotFoundException(""))
-                    .when(userService).patchUser(eq(userId), any());
+                    .when(userService).patchUser(eq(userId), any(), isNull());
 
             // Act & Assert
             mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/users/{id}", userId)
@@ -262,7 +561,7 @@ class UserControllerTest {
                             """))
                     .andExpect(status().isNotFound());
 
-            verify(userService, times(1)).patchUser(eq(userId), any());
+            verify(userService, times(1)).patchUser(eq(userId), any(), isNull());
         }
     }
 
@@ -279,7 +578,7 @@ class UserControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(MockMvcResultMatchers.content().string("Successfully deleted user"));
 
-            verify(userService, times(1)).deleteUser(userId);
+            verify(userService, times(1)).deleteUser(userId, null);
         }
 
         @Test
@@ -287,14 +586,299 @@ class UserControllerTest {
             // Arrange
             long userId = 1L;
             doThrow(new ResourceNotFoundException(""))
-                    .when(userService).deleteUser(userId);
+                    .when(userService).deleteUser(userId, null);
 
             // Act & Assert
             mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/users/{id}", userId))
                     .andExpect(status().isNotFound());
 
-            verify(userService, times(1)).deleteUser(userId);
+            verify(userService, times(1)).deleteUser(userId, null);
+        }
+    }
+
+
+    @Nested
+    class ConditionalRequestTests {
+
+        @Test
+        void getUser_ShouldReturnVersionAsETag() throws Exception {
+            // Arrange
+            long userId = 1L;
+            when(userService.getUserById(userId)).thenReturn(new UserResponse(userId, "test@example.com", null, null, null, null, null, 4L));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/{id}", userId))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        }
+
+        @Test
+        void getUser_MatchingIfNoneMatch_ShouldReturnNotModifiedWithoutLoadingUser() throws Exception {
+            // Arrange
+            long userId = 1L;
+            when(userService.getUserVersion(userId)).thenReturn(4L);
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/{id}", userId)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+            verify(userService, never()).getUserById(any());
+        }
+
+        @Test
+        void getUser_StaleIfNoneMatch_ShouldReturnUser() throws Exception {
+            // Arrange
+            long userId = 1L;
+            when(userService.getUserVersion(userId)).thenReturn(5L);
+            when(userService.getUserById(userId)).thenReturn(new UserResponse(userId, "test@example.com", null, null, null, null, null, 5L));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/{id}", userId)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.version").value(5));
+        }
+
+        @Test
+        void patchUser_IfMatch_ShouldPassExpectedVersion() throws Exception {
+            // Arrange
+            long userId = 1L;
+            when(userService.patchUser(eq(userId), any(), eq(4L)))
+                    .thenReturn(new UserResponse(userId, "test@example.com", "John", null, null, null, null, 5L));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/users/{id}", userId)
+                            .header(HttpHeaders.IF_MATCH, "\"4\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"firstName\": \"John\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+        }
+
+        @Test
+        void updateUser_StaleVersion_ShouldReturnPreconditionFailed() throws Exception {
+            // Arrange
+            long userId = 1L;
+            when(userService.updateUser(eq(userId), any(), eq(4L)))
+                    .thenThrow(new PreconditionFailedException(""));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/users/{id}", userId)
+                            .header(HttpHeaders.IF_MATCH, "\"4\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\": \"test@example.com\"}"))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        void deleteUser_WeakIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/users/{id}", 1L)
+                            .header(HttpHeaders.IF_MATCH, "W/\"4\""))
+                    .andExpect(status().isPreconditionFailed());
+
+            verifyNoInteractions(userService);
+        }
+    }
+
+    @Nested
+    class GetUsersByIdsTests {
+
+        @Test
+        void getUsersByIds_ShouldReturnFoundUsersAndMissingIds() throws Exception {
+            // Arrange
+            when(userService.getUsersByIds(List.of(1L, 2L))).thenReturn(new UserBatchResponse(
+                    List.of(new UserResponse(1L, "test@example.com", null, null, null, null, null, 0L)), List.of(2L)));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/users/batch-get")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"ids\": [1, 2]}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.users[0].id").value(1))
+                    .andExpect(jsonPath("$.missingIds[0]").value(2));
+        }
+
+        @Test
+        void getUsersByIds_TooManyIds_ShouldReturnBadRequest() throws Exception {
+            // Arrange
+            when(userService.getUsersByIds(any())).thenThrow(new InvalidDataException("Too many ids"));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/users/batch-get")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"ids\": [1, 2]}"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    class SearchUsersTests {
+
+        @Test
+        void searchUsers_ShouldReturnPageFromService() throws Exception {
+            // Arrange
+            when(userService.searchUsers("jo", null, 20)).thenReturn(new UserPage<>(
+                    List.of(new UserResponse(1L, "john@example.com", "John", "Doe", null, null, null, 0L)), "MjA"));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/search").param("q", "jo"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[0].firstName").value("John"))
+                    .andExpect(jsonPath("$.nextCursor").value("MjA"));
         }
     }
 
-}
\ No newline at end of file
+    @Nested
+    class GetChangesTests {
+
+        @Test
+        void getChanges_ShouldReturnChangesAndWatermark() throws Exception {
+            // Arrange
+            UserResponse user = new UserResponse(1L, "a@example.com", "John", "Doe", null, null, null, 0L);
+            UserChangesPage page = new UserChangesPage(List.of(
+                    new UserChangeEntry(1L, false, Instant.parse("2024-01-01T00:00:00Z"), user),
+                    new UserChangeEntry(2L, true, Instant.parse("2024-01-01T00:00:01Z"), null)), "next", false);
+            when(userChangeFeedService.awaitChanges("since", 10, Duration.ofSeconds(5)))
+                    .thenReturn(CompletableFuture.completedFuture(page));
+
+            // Act
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/changes")
+                            .param("since", "since")
+                            .param("limit", "10")
+                            .param("waitSeconds", "5"))
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.changes[0].user.email").value("a@example.com"))
+                    .andExpect(jsonPath("$.changes[1].deleted").value(true))
+                    .andExpect(jsonPath("$.watermark").value("next"))
+                    .andExpect(jsonPath("$.hasMore").value(false));
+        }
+
+        @Test
+        void getChanges_InvalidWatermark_ShouldReturnBadRequest() throws Exception {
+            // Arrange
+            when(userChangeFeedService.awaitChanges("???", 100, Duration.ZERO)).thenThrow(new InvalidDataException("Invalid watermark"));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/changes").param("since", "???"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    class ExportUsersTests {
+
+        @Test
+        void exportUsers_AcceptsGzip_ShouldWriteCompressedAttachment() throws Exception {
+            // Arrange
+            doAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(3).write("id\r\n5\r\n".getBytes(StandardCharsets.UTF_8));
+                return 1L;
+            }).when(userExportService).export(eq(ExportFormat.CSV), isNull(), eq(4L), any(OutputStream.class));
+
+            // Act
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/export")
+                            .param("after", "4")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                    .andReturn();
+
+            // Assert
+            MvcResult completed = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\""))
+                    .andReturn();
+            try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(completed.getResponse().getContentAsByteArray()))) {
+                assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id\r\n5\r\n");
+            }
+        }
+
+        @Test
+        void exportUsers_NdjsonWithoutGzip_ShouldWritePlainBody() throws Exception {
+            // Arrange
+            DateRange range = new DateRange(LocalDate.of(1980, 1, 1), LocalDate.of(1989, 12, 31));
+            when(userExportService.checkRange(range)).thenReturn(range);
+            doAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(3).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+                return 1L;
+            }).when(userExportService).export(eq(ExportFormat.NDJSON), eq(range), eq(0L), any(OutputStream.class));
+
+            // Act
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/export")
+                            .param("format", "ndjson")
+                            .param("from", "1980-01-01")
+                            .param("to", "1989-12-31"))
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(content().string("{\"id\":1}\n"));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"gzip;q=0", "gzip; q=0.0, identity", "*;q=1, gzip;q=0", "deflate, br"})
+        void exportUsers_GzipNotAcceptable_ShouldWritePlainBody(String acceptEncoding) throws Exception {
+            // Arrange
+            doAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(3).write("id\r\n".getBytes(StandardCharsets.UTF_8));
+                return 0L;
+            }).when(userExportService).export(eq(ExportFormat.CSV), isNull(), eq(0L), any(OutputStream.class));
+
+            // Act
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/export")
+                            .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(content().string("id\r\n"));
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"GZIP;q=0.5", "*", "identity, *;q=0.1", "x-gzip"})
+        void exportUsers_GzipAcceptable_ShouldCompress(String acceptEncoding) throws Exception {
+            // Arrange
+            doAnswer(invocation -> 0L).when(userExportService).export(eq(ExportFormat.CSV), isNull(), eq(0L), any(OutputStream.class));
+
+            // Act
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/export")
+                            .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andReturn();
+
+            // Assert
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        }
+
+        @Test
+        void exportUsers_UnknownFormat_ShouldReturnBadRequest() throws Exception {
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/export").param("format", "xml"))
+                    .andExpect(status().isBadRequest());
+            verifyNoInteractions(userExportService);
+        }
+
+        @Test
+        void exportUsers_InvalidRange_ShouldReturnBadRequestBeforeStreaming() throws Exception {
+            // Arrange
+            when(userExportService.checkRange(any())).thenThrow(new InvalidDataException("Both fromDate and toDate dates must be provided"));
+
+            // Act & Assert
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/users/export").param("from", "1980-01-01"))
+                    .andExpect(status().isBadRequest());
+            verify(userExportService, never()).export(any(), any(), anyLong(), any());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package yaremax.com.cs_task_24_04.user;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every supported filter combination through the real query builder and checks that H2's plan for the generated
+ * SQL reads a range of the index meant to serve it, so a new filter or sort that no index covers fails here instead of
+ * as a sequential scan in production.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=yaremax.com.cs_task_24_04.user.UserFilterPlanTest$LastStatement",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline"
+})
+class UserFilterPlanTest {
+    // H2 names the index it reads the users table through in a comment, followed by the range it reads when there is one.
+    private static final Pattern INDEX_RANGE = Pattern.compile("\"USERS\" \"U1_0\"\\s+/\\* PUBLIC\\.(\\w+): ");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public static class LastStatement implements StatementInspector {
+        static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 200; i++) {
+            entityManager.persist(User.builder()
+                    .email("user" + i + "@domain" + (i % 20) + ".com")
+                    .firstName("First" + i)
+                    .lastName("Last" + (i % 50))
+                    .birthDate(LocalDate.of(1950, 1, 1).plusDays(i * 97L))
+                    .phone(i % 2 == 0 ? "555-" + i : null)
+                    .build());
+        }
+        entityManager.flush();
+    }
+
+    static Stream<Arguments> supportedCombinations() {
+        List<Arguments> combinations = new ArrayList<>();
+        for (int mask = 1; mask < 16; mask++) {
+            if (mask == 8) continue; // has-phone alone is rejected by UserService
+            UserFilter filter = new UserFilter(
+                    (mask & 1) != 0 ? LocalDate.of(1970, 1, 1) : null,
+                    (mask & 1) != 0 ? LocalDate.of(1980, 1, 1) : null,
+                    (mask & 2) != 0 ? "Last1" : null,
+                    (mask & 4) != 0 ? "domain3.com" : null,
+                    (mask & 8) != 0 ? Boolean.TRUE : null);
+            combinations.add(Arguments.of(filter, UserSort.DEFAULT, null));
+            combinations.add(Arguments.of(filter, new UserSort(UserSort.Field.ID, Sort.Direction.DESC), new UserCursor(150L)));
+            combinations.add(Arguments.of(filter, new UserSort(UserSort.Field.BIRTH_DATE, Sort.Direction.ASC), null));
+            combinations.add(Arguments.of(filter, new UserSort(UserSort.Field.BIRTH_DATE, Sort.Direction.DESC),
+                    new UserCursor(LocalDate.of(1975, 1, 1), 150L)));
+        }
+        return combinations.stream();
+    }
+
+    // The index the plan should range over: the filter's own index, or the primary key when paging by id from a
+    // cursor, where H2 prefers walking ids down from the cursor to sorting the filter's matches.
+    private static List<String> expectedIndexes(UserFilter filter, UserSort sort, UserCursor after) {
+        String index = filter.emailDomain() != null ? "IDX_USERS_EMAIL_DOMAIN_BIRTH_DATE_ID"
+                : filter.lastNamePrefix() != null ? "IDX_USERS_LAST_NAME_BIRTH_DATE_ID"
+                : "IDX_USERS_BIRTH_DATE_ID";
+        return sort.field() == UserSort.Field.ID && after != null ? List.of(index, "PRIMARY_KEY") : List.of(index);
+    }
+
+    @ParameterizedTest
+    @MethodSource("supportedCombinations")
+    void findPage_SupportedFilterCombination_ShouldRangeOverExpectedIndex(UserFilter filter, UserSort sort, UserCursor after) {
+        // Act
+        userRepository.findPage(UserSpecifications.matching(filter), sort, after, 51);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + LastStatement.sql.replace("?", "51"), String.class);
+
+        // Assert
+        Matcher scan = INDEX_RANGE.matcher(plan);
+        assertThat(scan.find()).as("%s %s: %s", filter, sort, plan).isTrue();
+        assertThat(scan.group(1).replaceFirst("^PRIMARY_KEY_\\d+$", "PRIMARY_KEY")).as("%s %s", filter, sort)
+                .isIn(expectedIndexes(filter, sort, after));
+    }
+}
@@ -1,13 +1,22 @@
 package yaremax.com.cs_task_24_04.user;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import yaremax.com.cs_task_24_04.user.stats.BirthMonthCount;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 @DataJpaTest
 class UserRepositoryTest {
@@ -15,10 +24,13 @@ class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     void existsByEmail_ExistingEmail_ShouldReturnTrue() {
         // Arrange
-        User existingUser = new User(null, "test@example.com", "John", "Doe", LocalDate.of(2020, 1, 1), null, null);
+        User existingUser = new User(null, "test@example.com", "John", "Doe", LocalDate.of(2020, 1, 1), null, null, null, null, null, null);
         userRepository.save(existingUser);
 
         // Act
@@ -28,6 +40,42 @@ class UserRepositoryTest {
         assertThat(existsByEmail).isTrue();
     }
 
+    @Test
+    void save_DuplicateEmail_ShouldViolateUniqueConstraint() {
+        // Arrange
+        userRepository.saveAndFlush(new User(null, "test@example.com", "John", "Doe", LocalDate.of(2020, 1, 1), null, null, null, null, null, null));
+        User duplicate = new User(null, "test@example.com", "Jane", "Doe", LocalDate.of(2019, 1, 1), null, null, null, null, null, null);
+
+        // Act & Assert
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> userRepository.saveAndFlush(duplicate))
+                .matches(UserConstraints::isDuplicateEmail);
+    }
+
+    @Test
+    void save_MissingEmail_ShouldNotBeReportedAsDuplicateEmail() {
+        // Arrange
+        User user = new User(null, null, "John", "Doe", LocalDate.of(2020, 1, 1), null, null, null, null, null, null);
+
+        // Act & Assert
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> userRepository.saveAndFlush(user))
+                .matches(ex -> !UserConstraints.isDuplicateEmail(ex));
+    }
+
+    @Test
+    void findExistingEmails_ShouldReturnOnlyStoredEmails() {
+        // Arrange
+        userRepository.save(new User(null, "john@example.com", "John", "Doe", LocalDate.of(2020, 1, 1), null, null, null, null, null, null));
+        userRepository.save(new User(null, "jane@example.com", "Jane", "Doe", LocalDate.of(2020, 1, 1), null, null, null, null, null, null));
+
+        // Act
+        Set<String> existingEmails = userRepository.findExistingEmails(List.of("john@example.com", "bob@example.com"));
+
+        // Assert
+        assertThat(existingEmails).containsExactly("john@example.com");
+    }
+
     @Test
     void existsByEmail_NonExistingEmail_ShouldReturnFalse() {
         // Act
@@ -38,16 +86,243 @@ class UserRepositoryTest {
     }
 
     @Test
-    void findUsersByBirthDateBetween_ValidRange_ShouldReturnUsers() {
+    void findBirthDatePage_ShouldReturnUsersOrderedByBirthDateAndId() {
         // Arrange
-        User user1 = new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null);
-        User user2 = new User(null, "jane@example.com", "Jane", "Doe", LocalDate.of(2020, 5, 15), null, null);
-        userRepository.saveAll(List.of(user1, user2));
+        User user1 = new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null, null, null, null, null);
+        User user2 = new User(null, "jane@example.com", "Jane", "Doe", LocalDate.of(2010, 5, 15), null, null, null, null, null, null);
+        User user3 = new User(null, "bob@example.com", "Bob", "Doe", LocalDate.of(2015, 1, 1), null, null, null, null, null, null);
+        User outOfRange = new User(null, "old@example.com", "Old", "Doe", LocalDate.of(1990, 1, 1), null, null, null, null, null, null);
+        userRepository.saveAll(List.of(user1, user2, user3, outOfRange));
+
+        // Act
+        List<UserResponse> firstPage = userRepository.findBirthDatePage(LocalDate.of(2000, 1, 1), 0L, LocalDate.of(2021, 1, 1), Limit.of(2));
+        List<UserResponse> secondPage = userRepository.findBirthDatePage(user1.getBirthDate(), user1.getId(), LocalDate.of(2021, 1, 1), Limit.of(2));
 
+        // Assert
+        assertThat(firstPage).extracting(UserResponse::id).containsExactly(user2.getId(), user1.getId());
+        assertThat(secondPage).extracting(UserResponse::id).containsExactly(user3.getId());
+    }
+
+    @Test
+    void findBirthDateIdPageAndCount_ShouldMatchBirthDatePage() {
+        // Arrange
+        User user1 = userRepository.save(new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null, null, null, null, null));
+        User user2 = userRepository.save(new User(null, "jane@example.com", "Jane", "Doe", LocalDate.of(2010, 5, 15), null, null, null, null, null, null));
+        userRepository.save(new User(null, "old@example.com", "Old", "Doe", LocalDate.of(1990, 1, 1), null, null, null, null, null, null));
+
+        // Act
+        List<UserCursor> page = userRepository.findBirthDateIdPage(LocalDate.of(2000, 1, 1), 0L, LocalDate.of(2021, 1, 1), Limit.of(10));
+        long count = userRepository.countByBirthDateBetween(LocalDate.of(2000, 1, 1), LocalDate.of(2021, 1, 1));
+
+        // Assert
+        assertThat(page).containsExactly(new UserCursor(user2.getBirthDate(), user2.getId()), new UserCursor(user1.getBirthDate(), user1.getId()));
+        assertThat(count).isEqualTo(2);
+        assertThat(userRepository.streamBirthDatesOrdered()).hasSize(3);
+    }
+
+    @Test
+    void countByBirthMonth_ShouldGroupUsersByYearAndMonth() {
+        // Arrange
+        userRepository.save(new User(null, "john@example.com", "John", "Doe", LocalDate.of(1990, 5, 1), null, null, null, null, null, null));
+        userRepository.save(new User(null, "jane@example.com", "Jane", "Doe", LocalDate.of(1990, 5, 31), null, null, null, null, null, null));
+        userRepository.save(new User(null, "old@example.com", "Old", "Doe", LocalDate.of(1985, 12, 1), null, null, null, null, null, null));
+
+        // Act
+        List<BirthMonthCount> months = userRepository.countByBirthMonth(LocalDate.of(1986, 1, 1), LocalDate.of(2000, 1, 1));
+        DateRange range = userRepository.findBirthDateRange();
+
+        // Assert
+        assertThat(months).containsExactly(new BirthMonthCount(1990, 5, 2L));
+        assertThat(range).isEqualTo(new DateRange(LocalDate.of(1985, 12, 1), LocalDate.of(1990, 5, 31)));
+    }
+
+    @Test
+    void findPageAfterId_ShouldReturnNextKeysetPage() {
+        // Arrange
+        User user1 = new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null, null, null, null, null);
+        User user2 = new User(null, "jane@example.com", "Jane", "Doe", LocalDate.of(2020, 5, 15), null, null, null, null, null, null);
+        User user3 = new User(null, "bob@example.com", "Bob", "Doe", LocalDate.of(2001, 3, 9), null, null, null, null, null, null);
+        userRepository.saveAll(List.of(user1, user2, user3));
+
+        // Act
+        List<UserResponse> users = userRepository.findPageAfterId(user1.getId(), Limit.of(1));
+
+        // Assert
+        assertThat(users).containsExactly(new UserResponse(user2.getId(), "jane@example.com", "Jane", "Doe", LocalDate.of(2020, 5, 15), null, null, 0L));
+    }
+
+    @Test
+    void findResponseById_ShouldProjectWithoutManagingTheEntity() {
+        // Arrange
+        User user = userRepository.saveAndFlush(new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null, null, null, null, null));
+        entityManager.clear();
+
+        // Act
+        Optional<UserResponse> response = userRepository.findResponseById(user.getId());
+
+        // Assert
+        assertThat(response).contains(new UserResponse(user.getId(), "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null, 0L));
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void updateNonNullFields_ShouldOnlyChangeGivenFields() {
+        // Arrange
+        User user = userRepository.saveAndFlush(new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), "Kyiv", null, null, null, null, null));
+
+        // Act
+        Optional<UserResponse> updated = userRepository.updateNonNullFields(user.getId(), UserDto.builder().firstName("Bob").build(), null);
+
+        // Assert
+        assertThat(updated).contains(new UserResponse(user.getId(), "john@example.com", "Bob", "Doe", LocalDate.of(2015, 1, 1), "Kyiv", null, 1L));
+    }
+
+    @Test
+    void updateNonNullFields_StaleVersion_ShouldNotUpdate() {
+        // Arrange
+        User user = userRepository.saveAndFlush(new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null, null, null, null, null));
+        userRepository.updateNonNullFields(user.getId(), UserDto.builder().firstName("Bob").build(), 0L);
+
+        // Act
+        Optional<UserResponse> updated = userRepository.updateNonNullFields(user.getId(), UserDto.builder().firstName("Alice").build(), 0L);
+
+        // Assert
+        assertThat(updated).isEmpty();
+        assertThat(userRepository.findResponseById(user.getId())).map(UserResponse::firstName).contains("Bob");
+        assertThat(userRepository.findVersionById(user.getId())).contains(1L);
+    }
+
+    @Test
+    void deleteByIdAndVersion_ShouldDeleteOnlyMatchingVersion() {
+        // Arrange
+        User user = userRepository.saveAndFlush(new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null, null, null, null, null));
+
+        // Act
+        int staleDeleted = userRepository.deleteByIdAndVersion(user.getId(), 7L);
+        int deleted = userRepository.deleteByIdAndVersion(user.getId(), 0L);
+
+        // Assert
+        assertThat(staleDeleted).isZero();
+        assertThat(deleted).isOne();
+    }
+
+    @Test
+    void updateNonNullFields_MissingUser_ShouldReturnEmpty() {
+        // Act
+        Optional<UserResponse> updated = userRepository.updateNonNullFields(42L, UserDto.builder().firstName("Bob").build(), null);
+
+        // Assert
+        assertThat(updated).isEmpty();
+    }
+
+    @Test
+    void updateNonNullFields_DuplicateEmail_ShouldViolateUniqueConstraint() {
+        // Arrange
+        userRepository.saveAndFlush(new User(null, "taken@example.com", "Jane", "Doe", LocalDate.of(2019, 1, 1), null, null, null, null, null, null));
+        User user = userRepository.saveAndFlush(new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null, null, null, null, null));
+
+        // Act & Assert
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> userRepository.updateNonNullFields(user.getId(), UserDto.builder().email("taken@example.com").build(), null))
+                .matches(UserConstraints::isDuplicateEmail);
+    }
+
+    @Test
+    void findResponsesByIdIn_ShouldReturnOnlyExistingUsers() {
+        // Arrange
+        User user1 = userRepository.save(new User(null, "john@example.com", "John", "Doe", LocalDate.of(2015, 1, 1), null, null, null, null, null, null));
+        User user2 = userRepository.save(new User(null, "jane@example.com", "Jane", "Doe", LocalDate.of(2010, 5, 15), null, null, null, null, null, null));
+
+        // Act
+        List<UserResponse> users = userRepository.findResponsesByIdIn(List.of(user1.getId(), user2.getId(), -1L));
+
+        // Assert
+        assertThat(users).extracting(UserResponse::id).containsExactlyInAnyOrder(user1.getId(), user2.getId());
+    }
+
+    @Test
+    void searchByPrefix_ShouldRankNameMatchesBeforeEmailMatches() {
+        // Arrange
+        User emailMatch = userRepository.save(new User(null, "doe.fan@example.com", "Alice", "Smith", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
+        User lastNameMatch = userRepository.save(new User(null, "jane@example.com", "Jane", "Doe", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
+        User firstNameMatch = userRepository.save(new User(null, "x@example.com", "Doerte", "Xu", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
+        userRepository.save(new User(null, "bob@example.com", "Bob", "Brown", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
+        entityManager.flush();
+
+        // Act
+        List<UserResponse> users = userRepository.searchByPrefix("doe", 0, 10);
+
+        // Assert
+        assertThat(users).extracting(UserResponse::id)
+                .containsExactly(lastNameMatch.getId(), firstNameMatch.getId(), emailMatch.getId());
+    }
+
+    @Test
+    void searchByPrefix_MatchInSeveralFields_ShouldReturnUserOnceAtItsBestRank() {
+        // Arrange
+        User allFields = userRepository.save(new User(null, "kim@example.com", "Kim", "Kimball", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
+        User lastNameMatch = userRepository.save(new User(null, "ann@example.com", "Ann", "Kimura", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
+        User emailMatch = userRepository.save(new User(null, "kimberly@example.com", "Berta", "Lo", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
+        entityManager.flush();
+
+        // Act
+        List<UserResponse> all = userRepository.searchByPrefix("kim", 0, 10);
+        List<UserResponse> acrossRanks = userRepository.searchByPrefix("kim", 1, 2);
+
+        // Assert
+        assertThat(all).extracting(UserResponse::id)
+                .containsExactly(allFields.getId(), lastNameMatch.getId(), emailMatch.getId());
+        assertThat(acrossRanks).extracting(UserResponse::id)
+                .containsExactly(lastNameMatch.getId(), emailMatch.getId());
+    }
+
+    @Test
+    void searchByPrefix_ShouldApplyOffsetAndTreatWildcardsLiterally() {
+        // Arrange
+        userRepository.save(new User(null, "a@example.com", "Ann", "Doe", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
+        userRepository.save(new User(null, "b@example.com", "Anna", "Doe", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
+        entityManager.flush();
+
+        // Act
+        List<UserResponse> secondPage = userRepository.searchByPrefix("ann", 1, 10);
+        List<UserResponse> wildcard = userRepository.searchByPrefix("%", 0, 10);
+
+        // Assert
+        assertThat(secondPage).extracting(UserResponse::firstName).containsExactly("Anna");
+        assertThat(wildcard).isEmpty();
+    }
+
+    @Test
+    void findPage_ShouldFilterAndContinueAfterCursor() {
+        // Arrange
+        User first = userRepository.save(User.builder().email("a@Example.com").firstName("Ann").lastName("Doe")
+                .birthDate(LocalDate.of(1990, 1, 1)).phone("555-1").build());
+        User second = userRepository.save(User.builder().email("b@example.com").firstName("Bob").lastName("Doerr")
+                .birthDate(LocalDate.of(1980, 1, 1)).phone("555-2").build());
+        userRepository.save(User.builder().email("c@example.com").firstName("Cid").lastName("Doe")
+                .birthDate(LocalDate.of(1985, 1, 1)).build());
+        userRepository.save(User.builder().email("d@other.com").firstName("Dan").lastName("Doe")
+                .birthDate(LocalDate.of(1985, 1, 1)).phone("555-4").build());
+        entityManager.flush();
+        UserFilter filter = new UserFilter(null, null, "Doe", "example.com", true);
+        UserSort sort = new UserSort(UserSort.Field.BIRTH_DATE, Sort.Direction.DESC);
+
+        // Act
+        List<UserResponse> firstPage = userRepository.findPage(UserSpecifications.matching(filter), sort, null, 1);
+        List<UserResponse> secondPage = userRepository.findPage(UserSpecifications.matching(filter), sort,
+                sort.cursorOf(firstPage.get(0)), 10);
+
+        // Assert
+        assertThat(firstPage).extracting(UserResponse::id).containsExactly(first.getId());
+        assertThat(secondPage).extracting(UserResponse::id).containsExactly(second.getId());
+    }
+
+    @Test
+    void save_ShouldDeriveLowerCaseEmailDomain() {
         // Act
-        List<User> users = userRepository.findUsersByBirthDateBetween(LocalDate.of(2000, 1, 1), LocalDate.of(2021, 1, 1));
+        User user = userRepository.saveAndFlush(new User(null, "John@Example.COM", "John", "Doe", LocalDate.of(2000, 1, 1), null, null, null, null, null, null));
 
         // Assert
-        assertThat(users).containsExactlyInAnyOrder(user1, user2);
+        assertThat(user.getEmailDomain()).isEqualTo("example.com");
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,45 @@
 package yaremax.com.cs_task_24_04.user;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import yaremax.com.cs_task_24_04.exceptions.DuplicateResourceException;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.exceptions.PreconditionFailedException;
 import yaremax.com.cs_task_24_04.exceptions.ResourceNotFoundException;
 import yaremax.com.cs_task_24_04.mappers.UserMapper;
+import yaremax.com.cs_task_24_04.user.cache.SingleFlight;
+import yaremax.com.cs_task_24_04.user.cache.UserCache;
+import yaremax.com.cs_task_24_04.user.changes.UserChangeFeedService;
+import yaremax.com.cs_task_24_04.user.changes.UserTombstone;
+import yaremax.com.cs_task_24_04.user.changes.UserTombstoneRepository;
+import yaremax.com.cs_task_24_04.user.directory.BirthDateIndex;
+import yaremax.com.cs_task_24_04.user.directory.UserDirectory;
+import yaremax.com.cs_task_24_04.user.outbox.UserChangeType;
+import yaremax.com.cs_task_24_04.user.outbox.UserOutbox;
+import yaremax.com.cs_task_24_04.user.search.SearchCursor;
+import yaremax.com.cs_task_24_04.user.search.UserPrefixIndex;
 import yaremax.com.cs_task_24_04.validator.common.DateRangeValidator;
 import yaremax.com.cs_task_24_04.validator.user.FullUserDtoValidator;
 import yaremax.com.cs_task_24_04.validator.user.PartialUserDtoValidator;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,12 +57,42 @@ class UserServiceTest {
     private PartialUserDtoValidator partialUserDtoValidator;
     @Mock
     private DateRangeValidator dateRangeValidator;
+    @Mock
+    private UserOutbox userOutbox;
+    @Mock
+    private UserTombstoneRepository userTombstoneRepository;
+    @Mock
+    private UserChangeFeedService userChangeFeedService;
 
+    private UserPrefixIndex userPrefixIndex;
+    private UserDirectory userDirectory;
+    private BirthDateIndex birthDateIndex;
     private UserService userService;
 
     @BeforeEach
     void setUp() {
-        userService = new UserService(userMapper, userRepository, fullUserDtoValidator, partialUserDtoValidator, dateRangeValidator);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserCache userCache = new UserCache(100, Duration.ofMinutes(10), true, Duration.ofSeconds(30), Duration.ofSeconds(1), meterRegistry);
+        userPrefixIndex = new UserPrefixIndex(true, meterRegistry);
+        userDirectory = new UserDirectory(true, Duration.ofMinutes(1), meterRegistry);
+        birthDateIndex = new BirthDateIndex(true, Duration.ofMinutes(1), meterRegistry);
+        userService = new UserService(userMapper, userRepository, fullUserDtoValidator, partialUserDtoValidator, dateRangeValidator, userCache,
+                new SingleFlight<>("users.birthDatePage", Duration.ofSeconds(1), meterRegistry),
+                userPrefixIndex, userOutbox, userTombstoneRepository, userDirectory, birthDateIndex, userChangeFeedService);
+    }
+
+    static DataIntegrityViolationException duplicateEmail() {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", null, UserConstraints.UNIQUE_EMAIL));
+    }
+
+    private static UserResponse response(User user) {
+        return new UserResponse(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                user.getBirthDate(), user.getAddress(), user.getPhone(), user.getVersion());
+    }
+
+    private void stubToResponse() {
+        when(userMapper.toResponse(any())).thenAnswer(invocation -> response(invocation.getArgument(0)));
     }
 
     @Nested
@@ -60,20 +112,24 @@ class UserServiceTest {
                     .lastName("Doe")
                     .birthDate(LocalDate.now().minusYears(25))
                     .build();
-            when(userRepository.existsByEmail(userDto.getEmail())).thenReturn(false);
             doNothing().when(fullUserDtoValidator).validate(userDto);
-            when(userRepository.save(user)).thenReturn(user);
+            when(userRepository.saveAndFlush(user)).thenAnswer(invocation -> {
+                user.setId(1L);
+                return user;
+            });
             when(userMapper.toEntity(userDto)).thenReturn(user);
+            stubToResponse();
 
             // Act
-            User createdUser = userService.createUser(userDto);
+            UserResponse createdUser = userService.createUser(userDto);
 
             // Assert
-            assertThat(createdUser).isSameAs(user);
-            verify(userRepository, times(1)).existsByEmail(userDto.getEmail());
+            assertThat(createdUser).isEqualTo(response(user));
+            verify(userRepository, never()).existsByEmail(any());
             verify(fullUserDtoValidator, times(1)).validate(userDto);
-            verify(userRepository, times(1)).save(user);
+            verify(userRepository, times(1)).saveAndFlush(user);
             verify(userMapper, times(1)).toEntity(userDto);
+            verify(userOutbox).record(UserChangeType.CREATED, createdUser);
         }
 
         @Test
@@ -82,12 +138,37 @@ class UserServiceTest {
             UserDto userDto = UserDto.builder()
                     .email("test@example.com")
                     .build();
-            when(userRepository.existsByEmail(userDto.getEmail())).thenReturn(true);
+            User user = User.builder()
+                    .email("test@example.com")
+                    .build();
+            when(userMapper.toEntity(userDto)).thenReturn(user);
+            when(userRepository.saveAndFlush(user)).thenThrow(duplicateEmail());
 
             // Act & Assert
             assertThatExceptionOfType(DuplicateResourceException.class)
                     .isThrownBy(() -> userService.createUser(userDto));
-            verify(userRepository, times(1)).existsByEmail(userDto.getEmail());
+            verify(userRepository, times(1)).saveAndFlush(user);
+            verifyNoInteractions(userOutbox);
+        }
+
+        @Test
+        void createUser_OtherIntegrityViolation_ShouldRethrowIt() {
+            // Arrange
+            UserDto userDto = UserDto.builder()
+                    .email("test@example.com")
+                    .build();
+            User user = User.builder()
+                    .email("test@example.com")
+                    .build();
+            DataIntegrityViolationException violation = new DataIntegrityViolationException("value too long",
+                    new ConstraintViolationException("value too long", null, null));
+            when(userMapper.toEntity(userDto)).thenReturn(user);
+            when(userRepository.saveAndFlush(user)).thenThrow(violation);
+
+            // Act & Assert
+            assertThatExceptionOfType(DataIntegrityViolationException.class)
+                    .isThrownBy(() -> userService.createUser(userDto))
+                    .isSameAs(violation);
         }
     }
 
@@ -105,43 +186,140 @@ class UserServiceTest {
                     .lastName("Doe")
                     .birthDate(LocalDate.now().minusYears(25))
                     .build();
-            when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+            when(userRepository.findResponseById(userId)).thenReturn(Optional.of(response(user)));
 
             // Act
-            User retrievedUser = userService.getUserById(userId);
+            UserResponse retrievedUser = userService.getUserById(userId);
 
             // Assert
-            assertThat(retrievedUser).isEqualTo(user);
+            assertThat(retrievedUser).isEqualTo(response(user));
         }
 
         @Test
         void getUserById_UserDoesNotExist_ShouldThrowResourceNotFoundException() {
             // Arrange
             long userId = 1L;
-            when(userRepository.findById(userId)).thenReturn(Optional.empty());
+            when(userRepository.findResponseById(userId)).thenReturn(Optional.empty());
 
             // Act & Assert
             assertThatExceptionOfType(ResourceNotFoundException.class)
                     .isThrownBy(() -> userService.getUserById(userId));
         }
+
+        @Test
+        void getUserById_RepeatedLookups_ShouldHitDatabaseOnce() {
+            // Arrange
+            long userId = 1L;
+            User user = User.builder().id(userId).email("test@example.com").build();
+            when(userRepository.findResponseById(userId)).thenReturn(Optional.of(response(user)));
+
+            // Act
+            userService.getUserById(userId);
+            UserResponse retrievedUser = userService.getUserById(userId);
+
+            // Assert
+            assertThat(retrievedUser).isEqualTo(response(user));
+            verify(userRepository, times(1)).findResponseById(userId);
+        }
+
+        @Test
+        void getUserById_RepeatedMissingLookups_ShouldBeNegativelyCached() {
+            // Arrange
+            long userId = 1L;
+            when(userRepository.findResponseById(userId)).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThatExceptionOfType(ResourceNotFoundException.class)
+                    .isThrownBy(() -> userService.getUserById(userId));
+            assertThatExceptionOfType(ResourceNotFoundException.class)
+                    .isThrownBy(() -> userService.getUserById(userId));
+            verify(userRepository, times(1)).findResponseById(userId);
+        }
+
+        @Test
+        void getUserById_AfterDelete_ShouldReloadFromDatabase() {
+            // Arrange
+            long userId = 1L;
+            User user = User.builder().id(userId).email("test@example.com").build();
+            when(userRepository.findResponseById(userId)).thenReturn(Optional.of(response(user)), Optional.empty());
+            when(userRepository.existsById(userId)).thenReturn(true);
+
+            // Act
+            userService.getUserById(userId);
+            userService.deleteUser(userId, null);
+
+            // Assert
+            assertThatExceptionOfType(ResourceNotFoundException.class)
+                    .isThrownBy(() -> userService.getUserById(userId));
+            verify(userRepository, times(2)).findResponseById(userId);
+        }
     }
 
     @Nested
     class GetAllUsersTests {
 
         @Test
-        void getAllUsers_ShouldReturnListOfUsers() {
+        void getUsersPage_MoreRowsThanLimit_ShouldReturnNextCursor() {
+            // Arrange
+            List<UserResponse> userList = new ArrayList<>();
+            userList.add(new UserResponse(1L, "test1@example.com", null, null, null, null, null, 0L));
+            userList.add(new UserResponse(2L, "test2@example.com", null, null, null, null, null, 0L));
+            userList.add(new UserResponse(3L, "test3@example.com", null, null, null, null, null, 0L));
+            when(userRepository.findPageAfterId(0L, Limit.of(3))).thenReturn(userList);
+
+            // Act
+            UserPage<UserResponse> page = userService.getUsersPage(null, 2);
+
+            // Assert
+            assertThat(page.items()).containsExactly(userList.get(0), userList.get(1));
+            assertThat(UserCursor.decode(page.nextCursor()).id()).isEqualTo(2L);
+        }
+
+        @Test
+        void getUsersPage_LastPage_ShouldReturnNoCursor() {
+            // Arrange
+            String after = new UserCursor(2L).encode();
+            List<UserResponse> userList = List.of(new UserResponse(3L, "test3@example.com", null, null, null, null, null, 0L));
+            when(userRepository.findPageAfterId(2L, Limit.of(3))).thenReturn(userList);
+
+            // Act
+            UserPage<UserResponse> page = userService.getUsersPage(after, 2);
+
+            // Assert
+            assertThat(page.items()).isEqualTo(userList);
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        void getUsersPage_LimitOutOfBounds_ShouldThrowInvalidDataException() {
+            // Act & Assert
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.getUsersPage(null, 0));
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.getUsersPage(null, UserService.MAX_PAGE_LIMIT + 1));
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        void getUsersPage_MalformedCursor_ShouldThrowInvalidDataException() {
+            // Act & Assert
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.getUsersPage("not-a-cursor", 10));
+        }
+
+        @Test
+        void streamAllUsers_ShouldPassEveryUserToConsumer() {
             // Arrange
-            List<User> userList = new ArrayList<>();
-            userList.add(User.builder().email("test1@example.com").firstName("John").lastName("Doe").birthDate(LocalDate.now().minusYears(25)).build());
-            userList.add(User.builder().email("test2@example.com").firstName("Jane").lastName("Doe").birthDate(LocalDate.now().minusYears(30)).build());
-            when(userRepository.findAll()).thenReturn(userList);
+            UserResponse user1 = new UserResponse(1L, "test1@example.com", null, null, null, null, null, 0L);
+            UserResponse user2 = new UserResponse(2L, "test2@example.com", null, null, null, null, null, 0L);
+            when(userRepository.streamAllOrderedById()).thenReturn(Stream.of(user1, user2));
+            List<UserResponse> consumed = new ArrayList<>();
 
             // Act
-            List<User> retrievedUsers = userService.getAllUsers();
+            userService.streamAllUsers(consumed::add);
 
             // Assert
-            assertThat(retrievedUsers).isEqualTo(userList);
+            assertThat(consumed).containsExactly(user1, user2);
         }
     }
 
@@ -158,34 +336,18 @@ class UserServiceTest {
                     .lastName("Doe")
                     .birthDate(LocalDate.now().minusYears(30))
                     .build();
-            User existingUser = User.builder()
-                    .id(id)
-                    .email("old@example.com")
-                    .firstName("John")
-                    .lastName("Doe")
-                    .birthDate(LocalDate.now().minusYears(25))
-                    .build();
-            User updatedUser = User.builder()
-                    .id(id)
-                    .email("new@example.com")
-                    .firstName("Jane")
-                    .lastName("Doe")
-                    .birthDate(LocalDate.now().minusYears(30))
-                    .build();
-            when(userRepository.findById(id)).thenReturn(Optional.of(existingUser));
-            when(userRepository.existsByEmail(updatedUserDto.getEmail())).thenReturn(false);
-            doNothing().when(fullUserDtoValidator).validate(updatedUserDto);
-            when(userRepository.save(updatedUser)).thenReturn(updatedUser);
+            UserResponse updatedUser = new UserResponse(id, "new@example.com", "Jane", "Doe", updatedUserDto.getBirthDate(), null, null, 0L);
+            when(userRepository.updateNonNullFields(id, updatedUserDto, null)).thenReturn(Optional.of(updatedUser));
 
             // Act
-            User result = userService.updateUser(id, updatedUserDto);
+            UserResponse result = userService.updateUser(id, updatedUserDto, null);
 
             // Assert
             assertThat(result).isEqualTo(updatedUser);
-            verify(userRepository, times(1)).findById(id);
-            verify(userRepository, times(1)).existsByEmail(updatedUserDto.getEmail());
             verify(fullUserDtoValidator, times(1)).validate(updatedUserDto);
-            verify(userRepository, times(1)).save(updatedUser);
+            verify(userOutbox).record(UserChangeType.UPDATED, updatedUser);
+            verify(userRepository, never()).findById(any());
+            verify(userRepository, never()).existsByEmail(any());
         }
 
         @Test
@@ -198,12 +360,11 @@ class UserServiceTest {
                     .lastName("Doe")
                     .birthDate(LocalDate.now().minusYears(30))
                     .build();
-            when(userRepository.findById(id)).thenReturn(Optional.empty());
+            when(userRepository.updateNonNullFields(id, updatedUserDto, null)).thenReturn(Optional.empty());
 
             // Act & Assert
             assertThatExceptionOfType(ResourceNotFoundException.class)
-                    .isThrownBy(() -> userService.updateUser(id, updatedUserDto));
-            verify(userRepository, times(1)).findById(id);
+                    .isThrownBy(() -> userService.updateUser(id, updatedUserDto, null));
         }
 
         @Test
@@ -216,86 +377,83 @@ class UserServiceTest {
                     .lastName("Doe")
                     .birthDate(LocalDate.now().minusYears(30))
                     .build();
-            User existingUser = User.builder()
-                    .id(id)
-                    .email("old@example.com")
-                    .firstName("John")
-                    .lastName("Doe")
-                    .birthDate(LocalDate.now().minusYears(25))
-                    .build();
-            when(userRepository.findById(id)).thenReturn(Optional.of(existingUser));
-            when(userRepository.existsByEmail(updatedUserDto.getEmail())).thenReturn(true);
+            when(userRepository.updateNonNullFields(id, updatedUserDto, null))
+                    .thenThrow(duplicateEmail());
 
             // Act & Assert
             assertThatExceptionOfType(DuplicateResourceException.class)
-                    .isThrownBy(() -> userService.updateUser(id, updatedUserDto));
-            verify(userRepository, times(1)).findById(id);
-            verify(userRepository, times(1)).existsByEmail(updatedUserDto.getEmail());
+                    .isThrownBy(() -> userService.updateUser(id, updatedUserDto, null));
+        }
+
+        @Test
+        void updateUser_InvalidUser_ShouldNotTouchDatabase() {
+            // Arrange
+            UserDto updatedUserDto = UserDto.builder().email("invalid").build();
+            doThrow(new InvalidDataException("Invalid email")).when(fullUserDtoValidator).validate(updatedUserDto);
+
+            // Act & Assert
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.updateUser(1L, updatedUserDto, null));
+            verifyNoInteractions(userRepository);
         }
     }
 
     @Nested
     class PatchUserTests {
         @Test
-        void patchUser_shouldUpdateEmail_whenValidEmailProvided() {
+        void patchUser_shouldUpdateFirstAndLastName_whenFirstAndLastNameProvided() {
             // Arrange
             Long id = 1L;
-            User existingUser = User.builder()
-                    .id(id)
-                    .email("old@example.com")
-                    .firstName("John")
-                    .lastName("Doe")
-                    .birthDate(LocalDate.now().minusYears(25))
-                    .build();
             UserDto partialUserDto = UserDto.builder()
-                    .email("new@example.com")
+                    .firstName("Bob")
+                    .lastName("Smite")
                     .build();
-            when(userRepository.findById(id)).thenReturn(Optional.of(existingUser));
-            when(userRepository.existsByEmail(partialUserDto.getEmail())).thenReturn(false);
-            doNothing().when(partialUserDtoValidator).validate(partialUserDto);
-            when(userRepository.save(existingUser)).thenReturn(existingUser);
+            UserResponse patchedUser = new UserResponse(id, "john@example.com", "Bob", "Smite", LocalDate.now().minusYears(25), null, null, 0L);
+            when(userRepository.updateNonNullFields(id, partialUserDto, null)).thenReturn(Optional.of(patchedUser));
 
             // Act
-            User result = userService.patchUser(id, partialUserDto);
+            UserResponse result = userService.patchUser(id, partialUserDto, null);
 
             // Assert
-            assertThat(result).isEqualTo(existingUser);
-            assertThat(result.getEmail()).isEqualTo(partialUserDto.getEmail());
-            verify(userRepository, times(1)).findById(id);
-            verify(userRepository, times(1)).existsByEmail(partialUserDto.getEmail());
+            assertThat(result.firstName()).isEqualTo(partialUserDto.getFirstName());
+            assertThat(result.lastName()).isEqualTo(partialUserDto.getLastName());
             verify(partialUserDtoValidator, times(1)).validate(partialUserDto);
-            verify(userRepository, times(1)).save(existingUser);
+            verify(userRepository, never()).findById(any());
         }
 
         @Test
-        void patchUser_shouldUpdateFirstAndLastName_whenFirstAndLastNameProvided() {
+        void patchUser_shouldEvictCachedUser() {
             // Arrange
             Long id = 1L;
-            User existingUser = User.builder()
-                    .id(id)
-                    .email("john@example.com")
-                    .firstName("John")
-                    .lastName("Doe")
-                    .birthDate(LocalDate.now().minusYears(25))
-                    .build();
-            UserDto partialUserDto = UserDto.builder()
-                    .firstName("Bob")
-                    .lastName("Smite")
-                    .build();
-            when(userRepository.findById(id)).thenReturn(Optional.of(existingUser));
-            doNothing().when(partialUserDtoValidator).validate(partialUserDto);
-            when(userRepository.save(existingUser)).thenReturn(existingUser);
+            UserDto partialUserDto = UserDto.builder().firstName("Bob").build();
+            when(userRepository.findResponseById(id))
+                    .thenReturn(Optional.of(new UserResponse(id, "john@example.com", "John", "Doe", null, null, null, 0L)));
+            when(userRepository.updateNonNullFields(id, partialUserDto, null))
+                    .thenReturn(Optional.of(new UserResponse(id, "john@example.com", "Bob", "Doe", null, null, null, 0L)));
+            userService.getUserById(id);
 
             // Act
-            User result = userService.patchUser(id, partialUserDto);
+            userService.patchUser(id, partialUserDto, null);
+            userService.getUserById(id);
 
             // Assert
-            assertThat(result).isEqualTo(existingUser);
-            assertThat(result.getFirstName()).isEqualTo(partialUserDto.getFirstName());
-            assertThat(result.getLastName()).isEqualTo(partialUserDto.getLastName());
-            verify(userRepository, times(1)).findById(id);
-            verify(partialUserDtoValidator, times(1)).validate(partialUserDto);
-            verify(userRepository, times(1)).save(existingUser);
+            verify(userRepository, times(2)).findResponseById(id);
+        }
+
+        @Test
+        void patchUser_shouldNotRecordChange_whenNoFieldsProvided() {
+            // Arrange
+            Long id = 1L;
+            UserDto partialUserDto = new UserDto();
+            UserResponse current = new UserResponse(id, "john@example.com", "John", "Doe", null, null, null, 3L);
+            when(userRepository.updateNonNullFields(id, partialUserDto, 3L)).thenReturn(Optional.of(current));
+
+            // Act
+            UserResponse result = userService.patchUser(id, partialUserDto, 3L);
+
+            // Assert
+            assertThat(result).isEqualTo(current);
+            verifyNoInteractions(userOutbox, userChangeFeedService);
         }
 
         @Test
@@ -305,37 +463,26 @@ class UserServiceTest {
             UserDto partialUserDto = UserDto.builder()
                     .email("new@example.com")
                     .build();
-            when(userRepository.findById(id)).thenReturn(Optional.empty());
+            when(userRepository.updateNonNullFields(id, partialUserDto, null)).thenReturn(Optional.empty());
 
             // Act & Assert
             assertThatExceptionOfType(ResourceNotFoundException.class)
-                    .isThrownBy(() -> userService.patchUser(id, partialUserDto));
-            verify(userRepository, times(1)).findById(id);
+                    .isThrownBy(() -> userService.patchUser(id, partialUserDto, null));
         }
 
         @Test
         void patchUser_shouldThrowDuplicateResourceException_whenEmailAlreadyExists() {
             // Arrange
             Long id = 1L;
-            User existingUser = User.builder()
-                    .id(id)
-                    .email("old@example.com")
-                    .firstName("John")
-                    .lastName("Doe")
-                    .birthDate(LocalDate.now().minusYears(25))
-                    .build();
             UserDto partialUserDto = UserDto.builder()
                     .email("new@example.com")
                     .build();
-            when(userRepository.findById(id)).thenReturn(Optional.of(existingUser));
-            when(userRepository.existsByEmail(partialUserDto.getEmail())).thenReturn(true);
-            doNothing().when(partialUserDtoValidator).validate(partialUserDto);
+            when(userRepository.updateNonNullFields(id, partialUserDto, null))
+                    .thenThrow(duplicateEmail());
 
             // Act & Assert
             assertThatExceptionOfType(DuplicateResourceException.class)
-                    .isThrownBy(() -> userService.patchUser(id, partialUserDto));
-            verify(userRepository, times(1)).findById(id);
-            verify(userRepository, times(1)).existsByEmail(partialUserDto.getEmail());
+                    .isThrownBy(() -> userService.patchUser(id, partialUserDto, null));
         }
     }
 
@@ -349,10 +496,12 @@ class UserServiceTest {
             when(userRepository.existsById(userId)).thenReturn(true);
 
             // Act
-            userService.deleteUser(userId);
+            userService.deleteUser(userId, null);
 
             // Assert
             verify(userRepository).deleteById(userId);
+            verify(userTombstoneRepository).save(argThat((UserTombstone tombstone) -> tombstone.getUserId() == userId));
+            verify(userOutbox).recordDeleted(userId);
         }
 
         @Test
@@ -362,7 +511,7 @@ class UserServiceTest {
             when(userRepository.existsById(userId)).thenReturn(false);
             // Act & Assert
             assertThatExceptionOfType(ResourceNotFoundException.class)
-                    .isThrownBy(() -> userService.deleteUser(userId));
+                    .isThrownBy(() -> userService.deleteUser(userId, null));
         }
     }
 
@@ -370,38 +519,454 @@ class UserServiceTest {
     class GetAllUsersByBirthDateRangeTests {
 
         @Test
-        void getAllUsersByBirthDateRange_ValidRange_ShouldReturnListOfUsers() {
+        void getUsersPageByBirthDateRange_FirstPage_ShouldStartAtFromDateAndReturnCursor() {
             // Arrange
             LocalDate fromDate = LocalDate.of(2020, 1, 1);
             LocalDate toDate = LocalDate.of(2020, 12, 31);
-            List<User> userList = new ArrayList<>();
-            userList.add(User.builder().email("test1@example.com").firstName("John").lastName("Doe").birthDate(LocalDate.of(2020, 6, 15)).build());
-            userList.add(User.builder().email("test2@example.com").firstName("Jane").lastName("Smith").birthDate(LocalDate.of(2020, 10, 20)).build());
-            when(userRepository.findUsersByBirthDateBetween(fromDate, toDate)).thenReturn(userList);
-            doNothing().when(dateRangeValidator).validate(any(DateRange.class));
+            List<UserResponse> userList = new ArrayList<>();
+            userList.add(new UserResponse(7L, "test1@example.com", null, null, LocalDate.of(2020, 6, 15), null, null, 0L));
+            userList.add(new UserResponse(3L, "test2@example.com", null, null, LocalDate.of(2020, 10, 20), null, null, 0L));
+            when(userRepository.findBirthDatePage(fromDate, 0L, toDate, Limit.of(2))).thenReturn(userList);
 
             // Act
-            List<User> retrievedUsers = userService.getAllUsersByBirthDateRange(fromDate, toDate);
+            UserPage<UserResponse> page = userService.getUsersPageByBirthDateRange(fromDate, toDate, null, 1);
 
             // Assert
-            assertThat(retrievedUsers).isEqualTo(userList);
+            assertThat(page.items()).containsExactly(userList.get(0));
+            assertThat(UserCursor.decode(page.nextCursor())).isEqualTo(new UserCursor(LocalDate.of(2020, 6, 15), 7L));
             verify(dateRangeValidator).validate(new DateRange(fromDate, toDate));
         }
 
         @Test
-        void getAllUsersByBirthDateRange_NoUsersInSpecifiedRange_ShouldReturnEmptyList() {
+        void getUsersPageByBirthDateRange_WithCursor_ShouldContinueAfterCursor() {
             // Arrange
             LocalDate fromDate = LocalDate.of(2020, 1, 1);
             LocalDate toDate = LocalDate.of(2020, 12, 31);
-            when(userRepository.findUsersByBirthDateBetween(fromDate, toDate)).thenReturn(Collections.emptyList());
-            doNothing().when(dateRangeValidator).validate(any(DateRange.class));
+            String after = new UserCursor(LocalDate.of(2020, 6, 15), 7L).encode();
+            when(userRepository.findBirthDatePage(LocalDate.of(2020, 6, 15), 7L, toDate, Limit.of(11)))
+                    .thenReturn(Collections.emptyList());
 
             // Act
-            List<User> retrievedUsers = userService.getAllUsersByBirthDateRange(fromDate, toDate);
+            UserPage<UserResponse> page = userService.getUsersPageByBirthDateRange(fromDate, toDate, after, 10);
 
             // Assert
-            assertThat(retrievedUsers).isEmpty();
+            assertThat(page.items()).isEmpty();
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        void getUsersPageByBirthDateRange_IdOnlyCursor_ShouldThrowInvalidDataException() {
+            // Arrange
+            LocalDate fromDate = LocalDate.of(2020, 1, 1);
+            LocalDate toDate = LocalDate.of(2020, 12, 31);
+            String after = new UserCursor(7L).encode();
+
+            // Act & Assert
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.getUsersPageByBirthDateRange(fromDate, toDate, after, 10));
+        }
+
+        @Test
+        void streamUsersByBirthDateRange_ShouldValidateRangeAndStreamUsers() {
+            // Arrange
+            LocalDate fromDate = LocalDate.of(1980, 1, 1);
+            LocalDate toDate = LocalDate.of(1989, 12, 31);
+            UserResponse user = new UserResponse(1L, "test@example.com", null, null, LocalDate.of(1985, 1, 1), null, null, 0L);
+            when(userRepository.streamByBirthDateBetween(fromDate, toDate)).thenReturn(Stream.of(user));
+            List<UserResponse> consumed = new ArrayList<>();
+
+            // Act
+            userService.streamUsersByBirthDateRange(fromDate, toDate, consumed::add);
+
+            // Assert
+            assertThat(consumed).containsExactly(user);
             verify(dateRangeValidator).validate(new DateRange(fromDate, toDate));
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class VersionTests {
+
+        @Test
+        void getUserVersion_CachedUser_ShouldNotQueryVersion() {
+            // Arrange
+            long userId = 1L;
+            when(userRepository.findResponseById(userId))
+                    .thenReturn(Optional.of(new UserResponse(userId, "test@example.com", null, null, null, null, null, 3L)));
+            userService.getUserById(userId);
+
+            // Act
+            long version = userService.getUserVersion(userId);
+
+            // Assert
+            assertThat(version).isEqualTo(3L);
+            verify(userRepository, never()).findVersionById(any());
+        }
+
+        @Test
+        void getUserVersion_UncachedUser_ShouldQueryOnlyVersion() {
+            // Arrange
+            long userId = 1L;
+            when(userRepository.findVersionById(userId)).thenReturn(Optional.of(5L));
+
+            // Act
+            long version = userService.getUserVersion(userId);
+
+            // Assert
+            assertThat(version).isEqualTo(5L);
+            verify(userRepository, never()).findResponseById(any());
+        }
+
+        @Test
+        void patchUser_StaleVersion_ShouldThrowPreconditionFailedException() {
+            // Arrange
+            Long id = 1L;
+            UserDto partialUserDto = UserDto.builder().firstName("Bob").build();
+            when(userRepository.updateNonNullFields(id, partialUserDto, 1L)).thenReturn(Optional.empty());
+            when(userRepository.findVersionById(id)).thenReturn(Optional.of(2L));
+
+            // Act & Assert
+            assertThatExceptionOfType(PreconditionFailedException.class)
+                    .isThrownBy(() -> userService.patchUser(id, partialUserDto, 1L));
+        }
+
+        @Test
+        void deleteUser_StaleVersion_ShouldThrowPreconditionFailedException() {
+            // Arrange
+            long userId = 1L;
+            when(userRepository.deleteByIdAndVersion(userId, 1L)).thenReturn(0);
+            when(userRepository.findVersionById(userId)).thenReturn(Optional.of(2L));
+
+            // Act & Assert
+            assertThatExceptionOfType(PreconditionFailedException.class)
+                    .isThrownBy(() -> userService.deleteUser(userId, 1L));
+            verify(userRepository, never()).deleteById(any());
+        }
+
+        @Test
+        void deleteUser_VersionGivenForMissingUser_ShouldThrowResourceNotFoundException() {
+            // Arrange
+            long userId = 1L;
+            when(userRepository.deleteByIdAndVersion(userId, 1L)).thenReturn(0);
+            when(userRepository.findVersionById(userId)).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThatExceptionOfType(ResourceNotFoundException.class)
+                    .isThrownBy(() -> userService.deleteUser(userId, 1L));
+        }
+    }
+
+    @Nested
+    class GetUsersByIdsTests {
+
+        @Test
+        void getUsersByIds_ShouldDeduplicateAndReportMissingIds() {
+            // Arrange
+            UserResponse user1 = new UserResponse(1L, "test1@example.com", null, null, null, null, null, 0L);
+            UserResponse user3 = new UserResponse(3L, "test3@example.com", null, null, null, null, null, 0L);
+            when(userRepository.findResponsesByIdIn(argThat(ids -> ids.size() == 3 && ids.containsAll(List.of(1L, 2L, 3L)))))
+                    .thenReturn(List.of(user1, user3));
+
+            // Act
+            UserBatchResponse result = userService.getUsersByIds(List.of(3L, 2L, 3L, 1L));
+
+            // Assert
+            assertThat(result.users()).containsExactly(user3, user1);
+            assertThat(result.missingIds()).containsExactly(2L);
+        }
+
+        @Test
+        void getUsersByIds_CachedUsers_ShouldOnlyQueryUncachedIds() {
+            // Arrange
+            UserResponse user1 = new UserResponse(1L, "test1@example.com", null, null, null, null, null, 0L);
+            UserResponse user2 = new UserResponse(2L, "test2@example.com", null, null, null, null, null, 0L);
+            when(userRepository.findResponseById(1L)).thenReturn(Optional.of(user1));
+            when(userRepository.findResponsesByIdIn(List.of(2L))).thenReturn(List.of(user2));
+            userService.getUserById(1L);
+
+            // Act
+            UserBatchResponse result = userService.getUsersByIds(List.of(1L, 2L));
+
+            // Assert
+            assertThat(result.users()).containsExactly(user1, user2);
+            verify(userRepository).findResponsesByIdIn(List.of(2L));
+        }
+
+        @Test
+        void getUsersByIds_TooManyIds_ShouldThrowInvalidDataException() {
+            // Arrange
+            List<Long> ids = LongStream.rangeClosed(1, UserService.MAX_BATCH_SIZE + 1).boxed().toList();
+
+            // Act & Assert
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.getUsersByIds(ids));
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        void getUsersByIds_NullId_ShouldThrowInvalidDataException() {
+            // Act & Assert
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.getUsersByIds(Arrays.asList(1L, null)));
+        }
+    }
+
+    @Nested
+    class SearchUsersTests {
+
+        @Test
+        void searchUsers_IndexNotLoaded_ShouldQueryRepositoryWithNormalizedPrefix() {
+            // Arrange
+            List<UserResponse> users = List.of(
+                    new UserResponse(1L, "john@example.com", "John", "Doe", null, null, null, 0L),
+                    new UserResponse(2L, "johanna@example.com", "Johanna", "Roe", null, null, null, 0L),
+                    new UserResponse(3L, "jo@example.com", "Jo", "Moe", null, null, null, 0L));
+            when(userRepository.searchByPrefix("jo", 0, 3)).thenReturn(users);
+
+            // Act
+            UserPage<UserResponse> page = userService.searchUsers("  JO ", null, 2);
+
+            // Assert
+            assertThat(page.items()).containsExactly(users.get(0), users.get(1));
+            assertThat(SearchCursor.decode(page.nextCursor()).offset()).isEqualTo(2);
+        }
+
+        @Test
+        void searchUsers_IndexLoaded_ShouldHydrateIdsFromIndexInRankOrder() {
+            // Arrange
+            UserResponse byEmail = new UserResponse(1L, "doe@example.com", "John", "Smith", null, null, null, 0L);
+            UserResponse byName = new UserResponse(2L, "jane@example.com", "Jane", "Doe", null, null, null, 0L);
+            userPrefixIndex.load(Stream.of(byEmail, byName));
+            when(userRepository.findResponsesByIdIn(argThat(ids -> ids.size() == 2))).thenReturn(List.of(byEmail, byName));
+
+            // Act
+            UserPage<UserResponse> page = userService.searchUsers("doe", null, 20);
+
+            // Assert
+            assertThat(page.items()).containsExactly(byName, byEmail);
+            assertThat(page.nextCursor()).isNull();
+            verify(userRepository, never()).searchByPrefix(any(), anyInt(), anyInt());
+        }
+
+        @Test
+        void searchUsers_BlankQuery_ShouldThrowInvalidDataException() {
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.searchUsers("  ", null, 20));
+        }
+
+        @Test
+        void searchUsers_CursorPastResultCap_ShouldThrowInvalidDataException() {
+            // Arrange
+            String after = new SearchCursor(UserService.MAX_SEARCH_RESULTS).encode();
+
+            // Act & Assert
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.searchUsers("jo", after, 20));
+        }
+
+        @Test
+        void deleteUser_ShouldRemoveUserFromIndex() {
+            // Arrange
+            userPrefixIndex.load(Stream.of(new UserResponse(1L, "john@example.com", "John", "Doe", null, null, null, 0L)));
+            when(userRepository.existsById(1L)).thenReturn(true);
+
+            // Act
+            userService.deleteUser(1L, null);
+
+            // Assert
+            assertThat(userPrefixIndex.search("john", 0, 10)).isEmpty();
+        }
+    }
+
+    @Nested
+    class FilteredUsersPageTests {
+
+        @Test
+        void getFilteredUsersPage_ShouldNormalizeFilterAndReturnCursorOfLastItem() {
+            // Arrange
+            UserSort sort = new UserSort(UserSort.Field.BIRTH_DATE, Sort.Direction.ASC);
+            UserResponse user1 = new UserResponse(1L, "a@example.com", "Ann", "Doe", LocalDate.of(1990, 1, 1), null, null, 0L);
+            UserResponse user2 = new UserResponse(2L, "b@example.com", "Bob", "Doe", LocalDate.of(1991, 1, 1), null, null, 0L);
+            when(userRepository.findPage(any(), eq(sort), isNull(), eq(2))).thenReturn(List.of(user1, user2));
+
+            // Act
+            UserPage<UserResponse> page = userService.getFilteredUsersPage(
+                    new UserFilter(null, null, " Doe ", "@Example.com", null), sort, null, 1);
+
+            // Assert
+            assertThat(page.items()).containsExactly(user1);
+            assertThat(UserCursor.decode(page.nextCursor())).isEqualTo(new UserCursor(LocalDate.of(1990, 1, 1), 1L));
+        }
+
+        @Test
+        void getFilteredUsersPage_IdCursorWithBirthDateSort_ShouldThrowInvalidDataException() {
+            // Arrange
+            UserSort sort = new UserSort(UserSort.Field.BIRTH_DATE, Sort.Direction.ASC);
+            String after = new UserCursor(5L).encode();
+
+            // Act & Assert
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.getFilteredUsersPage(new UserFilter(null, null, "Doe", null, true), sort, after, 10));
+            verify(userRepository, never()).findPage(any(), any(), any(), anyInt());
+        }
+
+        @Test
+        void getFilteredUsersPage_HasPhoneAlone_ShouldThrowInvalidDataException() {
+            // Act & Assert
+            assertThatExceptionOfType(InvalidDataException.class)
+                    .isThrownBy(() -> userService.getFilteredUsersPage(new UserFilter(null, null, null, null, false), UserSort.DEFAULT, null, 10))
+                    .withMessageContaining("hasPhone");
+            verify(userRepository, never()).findPage(any(), any(), any(), anyInt());
+        }
+    }
+
+    @Nested
+    class UserDirectoryTests {
+        private final UserResponse older = new UserResponse(1L, "a@example.com", "Ann", "Doe", LocalDate.of(1990, 1, 1), null, null, 0L);
+        private final UserResponse younger = new UserResponse(2L, "b@example.com", "Bob", "Doe", LocalDate.of(1995, 1, 1), null, null, 3L);
+
+        @BeforeEach
+        void loadDirectory() {
+            userDirectory.load(Stream.of(older, younger));
+        }
+
+        @Test
+        void getUserById_DirectoryLoaded_ShouldNotQueryRepository() {
+            // Act
+            UserResponse user = userService.getUserById(2L);
+
+            // Assert
+            assertThat(user).isEqualTo(younger);
+            assertThat(userService.getUserVersion(2L)).isEqualTo(3L);
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        void getUserById_NotInDirectory_ShouldThrowResourceNotFoundException() {
+            assertThatExceptionOfType(ResourceNotFoundException.class)
+                    .isThrownBy(() -> userService.getUserById(3L));
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        void getUsersPageByBirthDateRange_DirectoryWithoutIndex_ShouldQueryRepository() {
+            // Arrange
+            LocalDate from = LocalDate.of(1980, 1, 1);
+            LocalDate to = LocalDate.of(2000, 1, 1);
+            when(userRepository.findBirthDatePage(from, 0L, to, Limit.of(2))).thenReturn(List.of(older));
+
+            // Act
+            UserPage<UserResponse> page = userService.getUsersPageByBirthDateRange(from, to, null, 1);
+
+            // Assert
+            assertThat(page.items()).containsExactly(older);
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        void getUsersPage_DirectoryLoaded_ShouldPageFromDirectory() {
+            // Act
+            UserPage<UserResponse> page = userService.getUsersPage(new UserCursor(1L).encode(), 10);
+
+            // Assert
+            assertThat(page.items()).containsExactly(younger);
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        void deleteUser_ShouldRemoveUserFromDirectory() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+
+            // Act
+            userService.deleteUser(1L, null);
+
+            // Assert
+            assertThat(userDirectory.find(1L)).isEmpty();
+        }
+    }
+
+    @Nested
+    class BirthDateIndexTests {
+        private final UserResponse older = new UserResponse(1L, "a@example.com", "Ann", "Doe", LocalDate.of(1990, 1, 1), null, null, 0L);
+        private final UserResponse younger = new UserResponse(2L, "b@example.com", "Bob", "Doe", LocalDate.of(1995, 1, 1), null, null, 0L);
+        private final LocalDate from = LocalDate.of(1980, 1, 1);
+        private final LocalDate to = LocalDate.of(2000, 1, 1);
+
+        @BeforeEach
+        void loadIndex() {
+            birthDateIndex.load(Stream.of(new UserCursor(older.birthDate(), older.id()), new UserCursor(younger.birthDate(), younger.id())));
+        }
+
+        @Test
+        void countAndIds_IndexLoaded_ShouldNotQueryRepository() {
+            // Act
+            long count = userService.countUsersByBirthDateRange(from, to);
+            UserPage<Long> first = userService.getUserIdsByBirthDateRange(from, to, null, 1);
+            UserPage<Long> second = userService.getUserIdsByBirthDateRange(from, to, first.nextCursor(), 1);
+
+            // Assert
+            assertThat(count).isEqualTo(2);
+            assertThat(first.items()).containsExactly(1L);
+            assertThat(second.items()).containsExactly(2L);
+            assertThat(second.nextCursor()).isNull();
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        void getUsersPageByBirthDateRange_IndexLoaded_ShouldHydrateIdsInIndexOrder() {
+            // Arrange
+            when(userRepository.findResponsesByIdIn(argThat(ids -> ids.size() == 2))).thenReturn(List.of(younger, older));
+
+            // Act
+            UserPage<UserResponse> page = userService.getUsersPageByBirthDateRange(from, to, null, 10);
+
+            // Assert
+            assertThat(page.items()).containsExactly(older, younger);
+            assertThat(page.nextCursor()).isNull();
+            verify(userRepository, never()).findBirthDatePage(any(), any(), any(), any());
+        }
+
+        @Test
+        void getUsersPageByBirthDateRange_IndexAndDirectoryLoaded_ShouldHydrateFromDirectory() {
+            // Arrange
+            userDirectory.load(Stream.of(younger, older));
+
+            // Act
+            UserPage<UserResponse> first = userService.getUsersPageByBirthDateRange(from, to, null, 1);
+            UserPage<UserResponse> second = userService.getUsersPageByBirthDateRange(from, to, first.nextCursor(), 1);
+
+            // Assert
+            assertThat(first.items()).containsExactly(older);
+            assertThat(second.items()).containsExactly(younger);
+            assertThat(second.nextCursor()).isNull();
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        void streamUsersByBirthDateRange_IndexLoaded_ShouldSkipUsersDeletedSinceIndexRead() {
+            // Arrange
+            when(userRepository.findResponsesByIdIn(List.of(1L, 2L))).thenReturn(List.of(younger));
+            List<UserResponse> streamed = new ArrayList<>();
+
+            // Act
+            userService.streamUsersByBirthDateRange(from, to, streamed::add);
+
+            // Assert
+            assertThat(streamed).containsExactly(younger);
+            verify(userRepository, never()).streamByBirthDateBetween(any(), any());
+        }
+
+        @Test
+        void deleteUser_ShouldRemoveUserFromIndex() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+
+            // Act
+            userService.deleteUser(1L, null);
+
+            // Assert
+            assertThat(userService.countUsersByBirthDateRange(from, to)).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package yaremax.com.cs_task_24_04.user.bulk;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import yaremax.com.cs_task_24_04.mappers.UserMapper;
+import yaremax.com.cs_task_24_04.user.User;
+import yaremax.com.cs_task_24_04.user.UserDto;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.UserConstraints;
+import yaremax.com.cs_task_24_04.user.cache.UserCache;
+import yaremax.com.cs_task_24_04.user.changes.UserChangeFeedService;
+import yaremax.com.cs_task_24_04.user.directory.BirthDateIndex;
+import yaremax.com.cs_task_24_04.user.directory.UserDirectory;
+import yaremax.com.cs_task_24_04.user.outbox.UserChangeType;
+import yaremax.com.cs_task_24_04.user.outbox.UserOutbox;
+import yaremax.com.cs_task_24_04.user.search.UserPrefixIndex;
+import yaremax.com.cs_task_24_04.validator.common.BirthDateValidator;
+import yaremax.com.cs_task_24_04.validator.common.EmailValidator;
+import yaremax.com.cs_task_24_04.validator.common.FirstNameValidator;
+import yaremax.com.cs_task_24_04.validator.common.LastNameValidator;
+import yaremax.com.cs_task_24_04.validator.user.FullUserDtoValidator;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBulkImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private UserCache userCache;
+    @Mock
+    private UserPrefixIndex userPrefixIndex;
+    @Mock
+    private UserDirectory userDirectory;
+    @Mock
+    private BirthDateIndex birthDateIndex;
+    @Mock
+    private UserOutbox userOutbox;
+    @Mock
+    private UserChangeFeedService userChangeFeedService;
+
+    private UserBulkImportService importService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        FullUserDtoValidator validator = new FullUserDtoValidator(new EmailValidator(), new FirstNameValidator(),
+                new LastNameValidator(), new BirthDateValidator(18));
+        importService = new UserBulkImportService(new UserMapper(), userRepository, validator, transactionTemplate, entityManager, userCache, userPrefixIndex, userDirectory, birthDateIndex, userOutbox, userChangeFeedService, 2);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static DataIntegrityViolationException duplicateEmail() {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", null, UserConstraints.UNIQUE_EMAIL));
+    }
+
+    private static UserDto user(String email) {
+        return UserDto.builder()
+                .email(email)
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.now().minusYears(30))
+                .build();
+    }
+
+    @Test
+    void importUsers_AllValid_ShouldInsertOneBatchPerChunk() {
+        // Arrange
+        Iterator<UserDto> users = List.of(user("a@example.com"), user("b@example.com"), user("c@example.com")).iterator();
+        when(userRepository.findExistingEmails(any())).thenReturn(Set.of());
+
+        // Act
+        BulkImportResult result = importService.importUsers(users);
+
+        // Assert
+        assertThat(result).isEqualTo(new BulkImportResult(3, 3, 0, List.of()));
+        verify(userRepository, times(2)).findExistingEmails(any());
+        verify(userRepository, times(2)).saveAll(anyList());
+        verify(userRepository, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(userOutbox, times(2)).recordAll(eq(UserChangeType.CREATED), anyList());
+    }
+
+    @Test
+    void importUsers_InvalidDuplicateAndExistingRows_ShouldReportThemPerRow() {
+        // Arrange
+        Iterator<UserDto> users = List.of(
+                user("invalid-email"),
+                user("a@example.com"),
+                user("a@example.com"),
+                user("taken@example.com")).iterator();
+        when(userRepository.findExistingEmails(Set.of("a@example.com"))).thenReturn(Set.of());
+        when(userRepository.findExistingEmails(Set.of("a@example.com", "taken@example.com"))).thenReturn(Set.of("taken@example.com"));
+
+        // Act
+        BulkImportResult result = importService.importUsers(users);
+
+        // Assert
+        assertThat(result.total()).isEqualTo(4);
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(2);
+        assertThat(result.errors()).extracting(BulkRowError::row).containsExactly(0, 3);
+    }
+
+    @Test
+    void importUsers_ConcurrentDuplicateInChunk_ShouldFallBackToRowByRow() {
+        // Arrange
+        Iterator<UserDto> users = List.of(user("a@example.com"), user("b@example.com")).iterator();
+        when(userRepository.findExistingEmails(any())).thenReturn(Set.of());
+        doThrow(duplicateEmail()).when(userRepository).flush();
+        when(userRepository.save(any(User.class)))
+                .thenThrow(duplicateEmail())
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        BulkImportResult result = importService.importUsers(users);
+
+        // Assert
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.errors()).extracting(BulkRowError::email).containsExactly("a@example.com");
+    }
+
+    @Test
+    void importUsers_MalformedInput_ShouldStopAndReportRow() {
+        // Arrange
+        Iterator<UserDto> users = new Iterator<>() {
+            private int calls;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public UserDto next() {
+                if (calls++ == 0) return user("a@example.com");
+                throw new IllegalStateException("Unexpected character");
+            }
+        };
+        when(userRepository.findExistingEmails(any())).thenReturn(Set.of());
+
+        // Act
+        BulkImportResult result = importService.importUsers(users);
+
+        // Assert
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.errors()).extracting(BulkRowError::row).containsExactly(1);
+    }
+}
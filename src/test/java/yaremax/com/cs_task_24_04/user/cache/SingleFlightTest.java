@@ -0,0 +1,142 @@
+package yaremax.com.cs_task_24_04.user.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import yaremax.com.cs_task_24_04.exceptions.ResourceNotFoundException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private double calls(String result) {
+        return meterRegistry.get("single.flight.calls").tag("name", "test").tag("result", result).counter().count();
+    }
+
+    @Test
+    void execute_ConcurrentCallsForSameKey_ShouldLoadOnce() throws Exception {
+        // Arrange
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "user";
+        }));
+        loading.await();
+
+        // Act
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+        while (calls("coalesced") < 5) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("user");
+        for (Future<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("user");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(calls("leader")).isEqualTo(1);
+    }
+
+    @Test
+    void execute_AfterCompletion_ShouldLoadAgain() {
+        // Arrange
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        singleFlight.execute(1L, () -> "user" + loads.incrementAndGet());
+        String second = singleFlight.execute(1L, () -> "user" + loads.incrementAndGet());
+
+        // Assert
+        assertThat(second).isEqualTo("user2");
+        assertThat(calls("coalesced")).isZero();
+    }
+
+    @Test
+    void execute_LeaderFails_ShouldPropagateFailureToFollowers() throws Exception {
+        // Arrange
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.execute(1L, () -> {
+            loading.countDown();
+            await(release);
+            throw new ResourceNotFoundException("User with id 1 not found");
+        }));
+        loading.await();
+
+        // Act
+        Future<String> follower = executor.submit(() -> singleFlight.execute(1L, () -> "other"));
+        while (calls("coalesced") < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        assertThatExceptionOfType(Exception.class)
+                .isThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .withCauseInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void execute_LeaderSlowerThanMaxWait_ShouldLoadIndependently() throws Exception {
+        // Arrange
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", Duration.ofMillis(50), meterRegistry);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.execute(1L, () -> {
+            loading.countDown();
+            await(release);
+            return "user";
+        }));
+        loading.await();
+
+        // Act
+        String result = singleFlight.execute(1L, () -> "fallback");
+        release.countDown();
+
+        // Assert
+        assertThat(result).isEqualTo("fallback");
+        assertThat(calls("timeout")).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
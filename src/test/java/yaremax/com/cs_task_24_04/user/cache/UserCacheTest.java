@@ -0,0 +1,249 @@
+package yaremax.com.cs_task_24_04.user.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserCache cache(boolean negativeEnabled) {
+        return cache(negativeEnabled, Duration.ofSeconds(5));
+    }
+
+    private UserCache cache(boolean negativeEnabled, Duration maxWait) {
+        return new UserCache(100, Duration.ofMinutes(10), negativeEnabled, Duration.ofSeconds(30), maxWait, meterRegistry);
+    }
+
+    private static Function<Long, Optional<UserResponse>> countingLoader(AtomicInteger loads, UserResponse user) {
+        return id -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(user);
+        };
+    }
+
+    @Test
+    void get_CachedUser_ShouldNotCallLoaderAgain() {
+        // Arrange
+        UserCache userCache = cache(true);
+        UserResponse user = new UserResponse(1L, "test@example.com", null, null, null, null, null, 0L);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        userCache.get(1L, countingLoader(loads, user));
+        Optional<UserResponse> cached = userCache.get(1L, countingLoader(loads, user));
+
+        // Assert
+        assertThat(cached).contains(user);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_MissingUserWithNegativeCaching_ShouldCacheAbsence() {
+        // Arrange
+        UserCache userCache = cache(true);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        userCache.get(1L, countingLoader(loads, null));
+        Optional<UserResponse> cached = userCache.get(1L, countingLoader(loads, null));
+
+        // Assert
+        assertThat(cached).isEmpty();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_MissingUserWithoutNegativeCaching_ShouldCallLoaderEveryTime() {
+        // Arrange
+        UserCache userCache = cache(false);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        userCache.get(1L, countingLoader(loads, null));
+        userCache.get(1L, countingLoader(loads, null));
+
+        // Assert
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evict_ShouldForceReload() {
+        // Arrange
+        UserCache userCache = cache(true);
+        AtomicInteger loads = new AtomicInteger();
+        userCache.get(1L, countingLoader(loads, new UserResponse(1L, "test@example.com", null, null, null, null, null, 0L)));
+        userCache.get(2L, countingLoader(loads, null));
+
+        // Act
+        userCache.evict(1L);
+        userCache.evictAll(List.of(2L));
+        userCache.get(1L, countingLoader(loads, null));
+        userCache.get(2L, countingLoader(loads, null));
+
+        // Assert
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void getAll_ShouldLoadOnlyMissingIdsAndCacheAbsence() {
+        // Arrange
+        UserCache userCache = cache(true);
+        UserResponse user = new UserResponse(1L, "test@example.com", null, null, null, null, null, 0L);
+        List<List<Long>> loadedIds = new ArrayList<>();
+        Function<List<Long>, List<UserResponse>> loader = ids -> {
+            loadedIds.add(ids);
+            return ids.contains(1L) ? List.of(user) : List.of();
+        };
+
+        // Act
+        Map<Long, Optional<UserResponse>> first = userCache.getAll(List.of(1L, 2L), loader);
+        Map<Long, Optional<UserResponse>> second = userCache.getAll(List.of(1L, 2L), loader);
+
+        // Assert
+        assertThat(first).containsEntry(1L, Optional.of(user)).containsEntry(2L, Optional.empty());
+        assertThat(second).isEqualTo(first);
+        assertThat(loadedIds).hasSize(1);
+    }
+
+    @Test
+    void evict_DuringLoad_ShouldNotWaitForLoadAndDropLoadedRow() throws Exception {
+        // Arrange
+        UserCache userCache = cache(true);
+        UserResponse before = new UserResponse(1L, "old@example.com", null, null, null, null, null, 0L);
+        UserResponse after = new UserResponse(1L, "new@example.com", null, null, null, null, null, 1L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = new Thread(() -> userCache.get(1L, id -> {
+            loading.countDown();
+            awaitUninterruptibly(release);
+            return Optional.of(before);
+        }));
+
+        // Act
+        reader.start();
+        loading.await();
+        try {
+            CompletableFuture.runAsync(() -> userCache.evict(1L)).get(5, TimeUnit.SECONDS);
+            userCache.get(2L, id -> Optional.empty());
+        } finally {
+            release.countDown();
+            reader.join();
+        }
+
+        // Assert
+        assertThat(userCache.get(1L, id -> Optional.of(after))).contains(after);
+    }
+
+    @Test
+    void get_ConcurrentMiss_ShouldWaitForInFlightLoad() throws Exception {
+        // Arrange
+        UserCache userCache = cache(true);
+        UserResponse user = new UserResponse(1L, "test@example.com", null, null, null, null, null, 0L);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread leader = new Thread(() -> userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            awaitUninterruptibly(release);
+            return Optional.of(user);
+        }));
+
+        // Act
+        leader.start();
+        loading.await();
+        CompletableFuture<Optional<UserResponse>> follower = CompletableFuture.supplyAsync(() -> userCache.get(1L, countingLoader(loads, user)));
+        while (meterRegistry.get("single.flight.calls").tag("name", "users").tag("result", "coalesced").counter().count() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        leader.join();
+
+        // Assert
+        assertThat(follower.get(5, TimeUnit.SECONDS)).contains(user);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("single.flight.calls").tag("name", "users").tag("result", "leader").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_InFlightLoadSlowerThanMaxWait_ShouldLoadOnItsOwn() throws Exception {
+        // Arrange
+        UserCache userCache = cache(true, Duration.ofMillis(50));
+        UserResponse user = new UserResponse(1L, "test@example.com", null, null, null, null, null, 0L);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread leader = new Thread(() -> userCache.get(1L, id -> {
+            loading.countDown();
+            awaitUninterruptibly(release);
+            return Optional.of(user);
+        }));
+
+        // Act
+        leader.start();
+        loading.await();
+        Optional<UserResponse> loaded;
+        try {
+            loaded = userCache.get(1L, countingLoader(loads, user));
+        } finally {
+            release.countDown();
+            leader.join();
+        }
+
+        // Assert
+        assertThat(loaded).contains(user);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("single.flight.calls").tag("name", "users").tag("result", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evict_DuringBulkLoad_ShouldNotCacheLoadedRow() throws InterruptedException {
+        // Arrange
+        UserCache userCache = cache(true);
+        UserResponse before = new UserResponse(1L, "old@example.com", null, null, null, null, null, 0L);
+        UserResponse after = new UserResponse(1L, "new@example.com", null, null, null, null, null, 1L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = new Thread(() -> userCache.getAll(List.of(1L, 2L), ids -> {
+            loading.countDown();
+            awaitUninterruptibly(release);
+            return List.of(before);
+        }));
+
+        // Act
+        reader.start();
+        loading.await();
+        userCache.evict(1L);
+        release.countDown();
+        reader.join();
+
+        // Assert
+        assertThat(userCache.get(1L, id -> Optional.of(after))).contains(after);
+        assertThat(userCache.getAll(List.of(2L), ids -> List.of(after))).containsEntry(2L, Optional.empty());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package yaremax.com.cs_task_24_04.user.changes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.user.User;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+class UserChangeFeedServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTombstoneRepository userTombstoneRepository;
+
+    private ScheduledExecutorService scheduler;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private UserChangeFeedService feed(Instant now) {
+        return feed(Clock.fixed(now, ZoneOffset.UTC), Duration.ofMillis(10));
+    }
+
+    private UserChangeFeedService feed(Clock clock, Duration recheckInterval) {
+        return feed(userRepository, clock, recheckInterval);
+    }
+
+    private UserChangeFeedService feed(UserRepository repository, Clock clock, Duration recheckInterval) {
+        return new UserChangeFeedService(repository, userTombstoneRepository, Duration.ofSeconds(2),
+                recheckInterval, meterRegistry, clock, scheduler);
+    }
+
+    private static Clock clock(AtomicReference<Instant> now) {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+    }
+
+    private User user(String email) {
+        return userRepository.saveAndFlush(User.builder()
+                .email(email)
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(LocalDate.of(2000, 1, 1))
+                .build());
+    }
+
+    @Test
+    void getChanges_ShouldPageThroughUpdatesAndDeletesInChangeOrder() {
+        // Arrange
+        User first = user("a@example.com");
+        User second = user("b@example.com");
+        Instant deletedAt = second.getUpdatedAt().plus(1, ChronoUnit.MILLIS);
+        userTombstoneRepository.saveAndFlush(new UserTombstone(999L, deletedAt));
+        UserChangeFeedService feed = feed(deletedAt.plusSeconds(60));
+
+        // Act
+        UserChangesPage firstPage = feed.getChanges(null, 2);
+        UserChangesPage secondPage = feed.getChanges(firstPage.watermark(), 2);
+        UserChangesPage thirdPage = feed.getChanges(secondPage.watermark(), 2);
+
+        // Assert
+        assertThat(firstPage.changes()).extracting(UserChangeEntry::id).containsExactly(first.getId(), second.getId());
+        assertThat(firstPage.changes().get(0).user().email()).isEqualTo("a@example.com");
+        assertThat(firstPage.hasMore()).isTrue();
+        assertThat(secondPage.changes()).containsExactly(new UserChangeEntry(999L, true, deletedAt, null));
+        assertThat(secondPage.hasMore()).isFalse();
+        assertThat(thirdPage.changes()).isEmpty();
+        assertThat(thirdPage.watermark()).isEqualTo(secondPage.watermark());
+    }
+
+    @Test
+    void getChanges_ShouldHoldBackChangesWithinSettleTime() {
+        // Arrange
+        User user = user("a@example.com");
+
+        // Act
+        UserChangesPage unsettled = feed(user.getUpdatedAt().plusSeconds(1)).getChanges(null, 10);
+        UserChangesPage settled = feed(user.getUpdatedAt().plusSeconds(2)).getChanges(null, 10);
+
+        // Assert
+        assertThat(unsettled.changes()).isEmpty();
+        assertThat(settled.changes()).extracting(UserChangeEntry::id).containsExactly(user.getId());
+    }
+
+    @Test
+    void awaitChanges_NoChanges_ShouldCompleteWithEmptyPageAfterWait() throws Exception {
+        // Arrange
+        UserChangeFeedService feed = feed(Instant.now());
+
+        // Act
+        UserChangesPage page = feed.awaitChanges(null, 10, Duration.ofMillis(50)).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(page.changes()).isEmpty();
+        assertThat(ChangeWatermark.decode(page.watermark())).isEqualTo(ChangeWatermark.START);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // the poll reads from another thread, so the user must be committed
+    void awaitChanges_CommitSettlesWhileWaiting_ShouldWakeWithoutRecheck() throws Exception {
+        // Arrange
+        User user = user("a@example.com");
+        AtomicReference<Instant> now = new AtomicReference<>(user.getUpdatedAt().plusSeconds(1));
+        UserChangeFeedService feed = feed(clock(now), Duration.ofMinutes(1));
+        CompletableFuture<UserChangesPage> waiting = feed.awaitChanges(null, 10, Duration.ofSeconds(20));
+        scheduler.submit(() -> { }).get(); // the first read has found nothing settled
+
+        // Act
+        now.set(user.getUpdatedAt().plusSeconds(2));
+        feed.committed(user.getUpdatedAt());
+        UserChangesPage page;
+        try {
+            page = waiting.get(5, TimeUnit.SECONDS);
+        } finally {
+            userRepository.delete(user);
+        }
+
+        // Assert
+        assertThat(page.changes()).extracting(UserChangeEntry::id).containsExactly(user.getId());
+        assertThat(meterRegistry.counter("user.changes.late.commits").count()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // the poll reads from another thread, so the users must be committed
+    void awaitChanges_WaitersAtDifferentWatermarks_ShouldShareOneReadPerWakeUp() throws Exception {
+        // Arrange
+        User first = user("a@example.com");
+        User second = user("b@example.com");
+        UserRepository repository = mock(UserRepository.class, delegatesTo(userRepository));
+        AtomicReference<Instant> now = new AtomicReference<>(first.getUpdatedAt().plusSeconds(1));
+        UserChangeFeedService feed = feed(repository, clock(now), Duration.ofMinutes(1));
+        String afterFirst = new ChangeWatermark(first.getUpdatedAt(), first.getId()).encode();
+        CompletableFuture<UserChangesPage> fromStart = feed.awaitChanges(null, 1, Duration.ofSeconds(20));
+        CompletableFuture<UserChangesPage> fromFirst = feed.awaitChanges(afterFirst, 10, Duration.ofSeconds(20));
+        scheduler.submit(() -> { }).get(); // both first reads have found nothing settled
+
+        // Act
+        now.set(second.getUpdatedAt().plusSeconds(2));
+        feed.committed(second.getUpdatedAt());
+        UserChangesPage startPage;
+        UserChangesPage firstPage;
+        try {
+            startPage = fromStart.get(5, TimeUnit.SECONDS);
+            firstPage = fromFirst.get(5, TimeUnit.SECONDS);
+        } finally {
+            userRepository.deleteAll(List.of(first, second));
+        }
+
+        // Assert
+        assertThat(startPage.changes()).extracting(UserChangeEntry::id).containsExactly(first.getId());
+        assertThat(startPage.hasMore()).isTrue();
+        assertThat(firstPage.changes()).extracting(UserChangeEntry::id).containsExactly(second.getId());
+        assertThat(firstPage.hasMore()).isFalse();
+        verify(repository, times(3)).findChangesAfter(any(), anyLong(), any(), any());
+    }
+
+    @Test
+    void committed_AfterChangeSettled_ShouldCountLateCommit() {
+        // Arrange
+        Instant now = Instant.parse("2024-01-01T00:00:10Z");
+        UserChangeFeedService feed = feed(now);
+
+        // Act
+        feed.committed(now.minusSeconds(1));
+        feed.committed(now.minusSeconds(3));
+
+        // Assert
+        assertThat(meterRegistry.counter("user.changes.late.commits").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void awaitChanges_WaitTooLong_ShouldThrowInvalidDataException() {
+        // Arrange
+        UserChangeFeedService feed = feed(Instant.now());
+
+        // Act & Assert
+        assertThatExceptionOfType(InvalidDataException.class)
+                .isThrownBy(() -> feed.awaitChanges(null, 10, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void getChanges_InvalidWatermark_ShouldThrowInvalidDataException() {
+        // Arrange
+        UserChangeFeedService feed = feed(Instant.now());
+
+        // Act & Assert
+        assertThatExceptionOfType(InvalidDataException.class)
+                .isThrownBy(() -> feed.getChanges("not-a-watermark", 10));
+    }
+
+    @Test
+    void replayChanges_ShouldIncludeUnsettledChangesAfterSettledWatermark() {
+        // Arrange
+        User user = user("a@example.com");
+        Instant deletedAt = user.getUpdatedAt().plusSeconds(1);
+        userTombstoneRepository.saveAndFlush(new UserTombstone(999L, deletedAt));
+        UserChangeFeedService feed = feed(user.getUpdatedAt().plusSeconds(2));
+        List<UserChangeEntry> replayed = new ArrayList<>();
+
+        // Act
+        ChangeWatermark watermark = feed.settledWatermark();
+        feed.replayChanges(watermark, replayed::add);
+
+        // Assert
+        assertThat(watermark).isEqualTo(new ChangeWatermark(user.getUpdatedAt(), Long.MAX_VALUE));
+        assertThat(feed.getChanges(watermark.encode(), 10).changes()).isEmpty();
+        assertThat(replayed).containsExactly(new UserChangeEntry(999L, true, deletedAt, null));
+    }
+}
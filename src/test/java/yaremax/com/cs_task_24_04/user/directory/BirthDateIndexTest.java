@@ -0,0 +1,138 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import yaremax.com.cs_task_24_04.user.DateRange;
+import yaremax.com.cs_task_24_04.user.UserCursor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BirthDateIndexTest {
+    private static final LocalDate BASE = LocalDate.of(1970, 1, 1);
+    private static final Comparator<UserCursor> ORDER = Comparator.comparing(UserCursor::birthDate).thenComparing(UserCursor::id);
+
+    private final BirthDateIndex index = new BirthDateIndex(true, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Test
+    void randomWrites_ShouldAnswerPagesAndCountsLikeSortedSet() {
+        // Arrange
+        TreeSet<UserCursor> expected = new TreeSet<>(ORDER);
+        Map<Long, LocalDate> birthDates = new HashMap<>();
+        Random random = new Random(7);
+
+        // Act
+        for (int i = 0; i < 30_000; i++) {
+            long id = 1 + random.nextInt(12_000);
+            LocalDate previous = birthDates.remove(id);
+            if (previous != null) expected.remove(new UserCursor(previous, id));
+            if (random.nextInt(4) == 0) {
+                index.remove(id, (long) i);
+            } else {
+                LocalDate birthDate = BASE.plusDays(random.nextInt(400) - 200);
+                index.put(id, birthDate, (long) i);
+                birthDates.put(id, birthDate);
+                expected.add(new UserCursor(birthDate, id));
+            }
+        }
+
+        // Assert
+        for (int i = 0; i < 200; i++) {
+            LocalDate from = BASE.plusDays(random.nextInt(500) - 250);
+            LocalDate to = from.plusDays(random.nextInt(100));
+            long afterId = random.nextInt(12_000);
+            assertThat(index.count(from, to)).isEqualTo(expected.subSet(new UserCursor(from, 0L), true, new UserCursor(to, Long.MAX_VALUE), true).size());
+            assertThat(index.findPage(from, afterId, to, 50)).containsExactlyElementsOf(expected
+                    .subSet(new UserCursor(from, afterId), false, new UserCursor(to, Long.MAX_VALUE), true).stream()
+                    .limit(50)
+                    .toList());
+        }
+        assertThat(index.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void put_LateWriteAfterRemove_ShouldNotResurrectUser() {
+        // Arrange
+        index.put(1L, BASE, 1L);
+        index.remove(1L, 2L);
+
+        // Act
+        index.put(1L, BASE, 1L);
+
+        // Assert
+        assertThat(index.count(BASE, BASE)).isZero();
+    }
+
+    @Test
+    void load_ShouldFillBlocksAndLetConcurrentWritesWin() {
+        // Arrange
+        index.put(2L, BASE.plusDays(10_000), 1L);
+        index.remove(3L, null);
+        List<UserCursor> rows = Stream.iterate(1L, id -> id + 1).limit(3 * BirthDateIndex.BLOCK_CAPACITY)
+                .map(id -> new UserCursor(BASE.plusDays(id / 10), id))
+                .toList();
+
+        // Act
+        index.load(rows.stream());
+
+        // Assert
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(rows.size() - 1);
+        assertThat(index.count(BASE, BASE)).isEqualTo(7);
+        assertThat(index.findPage(BASE, 0L, BASE, 10)).extracting(UserCursor::id).containsExactly(1L, 4L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(index.findPage(BASE.plusDays(10_000), 0L, BASE.plusDays(10_000), 10)).extracting(UserCursor::id).containsExactly(2L);
+    }
+
+    @Test
+    void put_OlderVersionAfterNewer_ShouldKeepNewerBirthDate() {
+        // Arrange
+        index.load(Stream.of(new UserCursor(BASE, 1L)));
+        index.put(1L, BASE.plusDays(20), 3L);
+
+        // Act
+        index.put(1L, BASE.plusDays(10), 2L);
+
+        // Assert
+        assertThat(index.findPage(BASE, 0L, BASE.plusDays(30), 10)).containsExactly(new UserCursor(BASE.plusDays(20), 1L));
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void count_EmptyIndexOrEmptyRange_ShouldBeZero() {
+        // Act & Assert
+        assertThat(index.count(BASE, BASE.plusDays(10))).isZero();
+        index.put(1L, BASE, 0L);
+        assertThat(index.count(BASE.plusDays(1), BASE.plusDays(10))).isZero();
+        assertThat(index.count(LocalDate.MIN, LocalDate.MAX)).isEqualTo(1);
+    }
+
+    @Test
+    void countBuckets_ShouldMatchCountPerBucketAcrossBlocks() {
+        // Arrange
+        for (long id = 1; id <= 3 * BirthDateIndex.BLOCK_CAPACITY; id++) {
+            index.put(id, BASE.plusDays(id % 1000), 0L);
+        }
+        List<LocalDate> starts = List.of(BASE, BASE.plusDays(100), BASE.plusDays(101), BASE.plusDays(700));
+        LocalDate to = BASE.plusDays(899);
+
+        // Act
+        long[] counts = index.countBuckets(starts, to);
+
+        // Assert
+        assertThat(counts).containsExactly(
+                index.count(BASE, BASE.plusDays(99)),
+                index.count(BASE.plusDays(100), BASE.plusDays(100)),
+                index.count(BASE.plusDays(101), BASE.plusDays(699)),
+                index.count(BASE.plusDays(700), to));
+        assertThat(index.range()).contains(new DateRange(BASE, BASE.plusDays(999)));
+    }
+}
@@ -0,0 +1,81 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdOrderTest {
+
+    private static List<Integer> slotsAfter(IdOrder order, long afterId) {
+        List<Integer> slots = new ArrayList<>();
+        for (int position = order.firstAfter(afterId); position < order.size(); position++) {
+            int slot = order.slot(position);
+            if (slot != IdOrder.REMOVED) slots.add(slot);
+        }
+        return slots;
+    }
+
+    @Test
+    void randomInsertsAndRemoves_ShouldMatchTreeMap() {
+        // Arrange
+        IdOrder order = new IdOrder(4);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 50_000; i++) {
+            long id = 1 + random.nextInt(5_000);
+            if (expected.containsKey(id)) {
+                order.remove(id);
+                expected.remove(id);
+            } else {
+                order.insert(id, i);
+                expected.put(id, i);
+            }
+        }
+
+        // Assert
+        for (long afterId : new long[]{0L, 1_234L, 4_999L, 5_000L}) {
+            assertThat(slotsAfter(order, afterId)).containsExactlyElementsOf(expected.tailMap(afterId, false).values());
+        }
+    }
+
+    @Test
+    void remove_QuarterOfEntries_ShouldSqueezeThemOut() {
+        // Arrange
+        IdOrder order = new IdOrder(16);
+        for (long id = 1; id <= 100; id++) {
+            order.insert(id, (int) id);
+        }
+
+        // Act
+        for (long id = 1; id <= 26; id++) {
+            order.remove(id);
+        }
+
+        // Assert
+        assertThat(order.size()).isEqualTo(74);
+        assertThat(slotsAfter(order, 0L)).hasSize(74).first().isEqualTo(27);
+    }
+
+    @Test
+    void insert_RemovedIdBeforeSqueeze_ShouldReuseItsEntry() {
+        // Arrange
+        IdOrder order = new IdOrder(16);
+        Map.of(1L, 10, 2L, 20, 3L, 30).forEach(order::insert);
+        order.remove(2L);
+
+        // Act
+        order.insert(2L, 21);
+
+        // Assert
+        assertThat(order.size()).isEqualTo(3);
+        assertThat(slotsAfter(order, 0L)).containsExactly(10, 21, 30);
+    }
+}
@@ -0,0 +1,54 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapTest {
+
+    @Test
+    void randomPutsAndRemoves_ShouldMatchHashMap() {
+        // Arrange
+        LongIntHashMap index = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            long id = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                index.remove(id);
+                expected.remove(id);
+            } else {
+                index.put(id, i);
+                expected.put(id, i);
+            }
+        }
+
+        // Assert
+        assertThat(index.size()).isEqualTo(expected.size());
+        for (long id = 1; id <= 5_000; id++) {
+            assertThat(index.get(id)).isEqualTo(expected.getOrDefault(id, LongIntHashMap.ABSENT));
+        }
+    }
+
+    @Test
+    void reserve_ShouldKeepEntries() {
+        // Arrange
+        LongIntHashMap index = new LongIntHashMap(4);
+        index.put(7L, 1);
+        index.put(Long.MAX_VALUE, 2);
+
+        // Act
+        index.reserve(10_000);
+
+        // Assert
+        assertThat(index.get(7L)).isEqualTo(1);
+        assertThat(index.get(Long.MAX_VALUE)).isEqualTo(2);
+        assertThat(index.get(8L)).isEqualTo(LongIntHashMap.ABSENT);
+    }
+}
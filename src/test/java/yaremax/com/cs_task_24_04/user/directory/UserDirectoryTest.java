@@ -0,0 +1,182 @@
+package yaremax.com.cs_task_24_04.user.directory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDirectoryTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserDirectory directory = new UserDirectory(true, Duration.ofMinutes(1), meterRegistry);
+
+    private static UserResponse user(long id, LocalDate birthDate, long version) {
+        return new UserResponse(id, "user" + id + "@example.com", "John", "Doe", birthDate, id % 2 == 0 ? "Kyiv" : null, null, version);
+    }
+
+    @Test
+    void put_ShouldStoreAllFields() {
+        // Arrange
+        UserResponse user = new UserResponse(5L, "jöhn@example.com", "Jöhn", "Doe", LocalDate.of(1990, 5, 15), "Kyiv", "+380", 2L);
+
+        // Act
+        directory.put(user);
+
+        // Assert
+        assertThat(directory.find(5L)).contains(user);
+        assertThat(directory.find(6L)).isEmpty();
+    }
+
+    @Test
+    void put_OlderVersion_ShouldBeIgnored() {
+        // Arrange
+        directory.put(user(1L, LocalDate.of(1990, 1, 1), 3L));
+
+        // Act
+        directory.put(new UserResponse(1L, "stale@example.com", "Stale", "Doe", null, null, null, 2L));
+
+        // Assert
+        assertThat(directory.find(1L).orElseThrow().version()).isEqualTo(3L);
+    }
+
+    @Test
+    void put_LateWriteAfterRemove_ShouldNotResurrectUser() {
+        // Arrange
+        directory.load(Stream.of(user(1L, LocalDate.of(1990, 1, 1), 2L)));
+        directory.remove(1L, 3L);
+
+        // Act
+        directory.put(user(1L, LocalDate.of(1990, 1, 1), 3L));
+
+        // Assert
+        assertThat(directory.find(1L)).isEmpty();
+    }
+
+    @Test
+    void put_AfterTombstoneExpired_ShouldStoreUser() {
+        // Arrange
+        UserDirectory shortLived = new UserDirectory(true, Duration.ZERO, new SimpleMeterRegistry());
+        shortLived.remove(1L, null);
+
+        // Act
+        shortLived.put(user(1L, LocalDate.of(1990, 1, 1), 0L));
+
+        // Assert
+        assertThat(shortLived.find(1L)).isPresent();
+    }
+
+    @Test
+    void load_UserRemovedWhileLoading_ShouldNotBeResurrected() {
+        // Arrange
+        directory.remove(1L, null);
+
+        // Act
+        directory.load(Stream.of(user(1L, LocalDate.of(1990, 1, 1), 0L), user(2L, LocalDate.of(1990, 1, 1), 0L)));
+
+        // Assert
+        assertThat(directory.isReady()).isTrue();
+        assertThat(directory.find(1L)).isEmpty();
+        assertThat(directory.find(2L)).isPresent();
+    }
+
+    @Test
+    void findPageAfterId_ShouldMatchRepositoryOrderAcrossGrowthUpdatesAndRemovals() {
+        // Arrange
+        List<UserResponse> expected = new ArrayList<>();
+        for (long id = 3_000; id >= 1; id--) {
+            directory.put(user(id, LocalDate.of(1950, 1, 1).plusDays(id % 97), 0L));
+        }
+        for (long id = 1; id <= 3_000; id++) {
+            if (id % 3 == 0) {
+                directory.remove(id, 0L);
+            } else {
+                UserResponse updated = user(id, LocalDate.of(1950, 1, 1).plusDays(id % 89), 1L);
+                directory.put(updated);
+                expected.add(updated);
+            }
+        }
+        directory.put(user(3L, LocalDate.of(1950, 1, 1), 2L));
+        expected.add(user(3L, LocalDate.of(1950, 1, 1), 2L));
+        directory.put(user(5_000L, null, 0L));
+        expected.add(user(5_000L, null, 0L));
+
+        // Act
+        List<UserResponse> first = directory.findPageAfterId(0L, 50);
+        List<UserResponse> middle = directory.findPageAfterId(1_000L, 50);
+        List<UserResponse> last = directory.findPageAfterId(2_998L, 50);
+
+        // Assert
+        List<UserResponse> byId = expected.stream().sorted(Comparator.comparing(UserResponse::id)).toList();
+        assertThat(first).containsExactlyElementsOf(byId.subList(0, 50));
+        assertThat(middle).containsExactlyElementsOf(byId.stream().filter(user -> user.id() > 1_000L).limit(50).toList());
+        assertThat(last).containsExactly(byId.get(byId.size() - 2), byId.get(byId.size() - 1));
+        assertThat(directory.findPageAfterId(5_000L, 50)).isEmpty();
+        assertThat(meterRegistry.get("user.directory.size").gauge().value()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void put_ManyUpdates_ShouldCompactArenaAndKeepValues() {
+        // Arrange
+        String padding = "x".repeat(1_000);
+
+        // Act
+        for (long version = 0; version < 20_000; version++) {
+            directory.put(new UserResponse(1L, version + "@example.com", "John", "Doe", null, padding, null, version));
+        }
+
+        // Assert
+        assertThat(directory.find(1L).orElseThrow().email()).isEqualTo("19999@example.com");
+        assertThat(directory.allocatedBytes()).isLessThan(64L << 20);
+    }
+
+    @Test
+    void put_ChurnAcrossManyUsers_ShouldCompactIncrementallyAndKeepValues() {
+        // Arrange
+        String padding = "y".repeat(500);
+        Map<Long, UserResponse> expected = new HashMap<>();
+
+        // Act
+        for (int round = 0; round < 100; round++) {
+            for (long id = 1; id <= 2_000; id++) {
+                if ((id + round) % 7 == 0) {
+                    directory.remove(id, (long) round);
+                    expected.remove(id);
+                    continue;
+                }
+                UserResponse user = new UserResponse(id, round + "." + id + "@example.com", "Name" + (id + round) % 50, "Doe",
+                        null, padding, round % 2 == 0 ? null : "+380" + id, (long) round);
+                directory.put(user);
+                expected.put(id, user);
+            }
+        }
+
+        // Assert
+        for (long id = 1; id <= 2_000; id++) {
+            assertThat(directory.find(id)).isEqualTo(Optional.ofNullable(expected.get(id)));
+        }
+        assertThat(directory.allocatedBytes()).isLessThan(64L << 20);
+    }
+
+    @Test
+    void disabled_ShouldIgnoreWritesAndNeverBecomeReady() {
+        // Arrange
+        UserDirectory disabled = new UserDirectory(false, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+        // Act
+        disabled.load(LongStream.rangeClosed(1, 3).mapToObj(id -> user(id, null, 0L)));
+
+        // Assert
+        assertThat(disabled.isReady()).isFalse();
+    }
+}
@@ -0,0 +1,92 @@
+package yaremax.com.cs_task_24_04.user.export;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.user.DateRange;
+import yaremax.com.cs_task_24_04.user.User;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.validator.common.DateRangeValidator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@DataJpaTest
+class UserExportServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserExportService exportService;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new UserExportService(userRepository, new DateRangeValidator(),
+                Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(), 2);
+        users = userRepository.saveAllAndFlush(List.of(
+                user("a@example.com", "Ann", "Lee", LocalDate.of(1980, 1, 1), null),
+                user("b@example.com", "Bob", "O\"Neil", LocalDate.of(1990, 6, 15), "Kyiv, Khreshchatyk 1"),
+                user("c@example.com", "Cid", "Doe", LocalDate.of(2000, 12, 31), null)));
+    }
+
+    private static User user(String email, String firstName, String lastName, LocalDate birthDate, String address) {
+        return User.builder()
+                .email(email)
+                .firstName(firstName)
+                .lastName(lastName)
+                .birthDate(birthDate)
+                .address(address)
+                .build();
+    }
+
+    private String export(ExportFormat format, DateRange range, long afterId) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(format, range, afterId, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void export_Csv_ShouldWriteEveryUserAcrossChunksWithQuoting() throws IOException {
+        // Act
+        String csv = export(ExportFormat.CSV, null, 0L);
+
+        // Assert
+        assertThat(csv.split("\r\n")).containsExactly(
+                UserExportService.CSV_HEADER,
+                users.get(0).getId() + ",a@example.com,Ann,Lee,1980-01-01,,,0",
+                users.get(1).getId() + ",b@example.com,Bob,\"O\"\"Neil\",1990-06-15,\"Kyiv, Khreshchatyk 1\",,0",
+                users.get(2).getId() + ",c@example.com,Cid,Doe,2000-12-31,,,0");
+    }
+
+    @Test
+    void export_NdjsonAfterIdWithinRange_ShouldWriteMatchingUsersOnePerLine() throws IOException {
+        // Arrange
+        DateRange range = new DateRange(LocalDate.of(1985, 1, 1), LocalDate.of(2010, 1, 1));
+
+        // Act
+        String ndjson = export(ExportFormat.NDJSON, range, users.get(1).getId());
+
+        // Assert
+        assertThat(ndjson).isEqualTo("{\"id\":" + users.get(2).getId() + ",\"email\":\"c@example.com\",\"firstName\":\"Cid\","
+                + "\"lastName\":\"Doe\",\"birthDate\":\"2000-12-31\",\"address\":null,\"phone\":null,\"version\":0}\n");
+    }
+
+    @Test
+    void checkRange_ShouldAllowNoBoundsAndRejectOneBound() {
+        // Act & Assert
+        assertThat(exportService.checkRange(new DateRange(null, null))).isNull();
+        assertThatExceptionOfType(InvalidDataException.class)
+                .isThrownBy(() -> exportService.checkRange(new DateRange(LocalDate.of(1990, 1, 1), null)));
+    }
+}
@@ -0,0 +1,37 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileUserChangeSinkTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void publish_ShouldAppendOneJsonLinePerChange(@TempDir Path directory) throws Exception {
+        // Arrange
+        Path file = directory.resolve("changes.ndjson");
+        FileUserChangeSink sink = new FileUserChangeSink(file, objectMapper);
+        UserResponse user = new UserResponse(1L, "john@example.com", "John", "Doe", null, null, null, 0L);
+
+        // Act
+        sink.publish(List.of(new UserChange(1L, 1L, UserChangeType.CREATED, Instant.EPOCH, user)));
+        sink.publish(List.of(new UserChange(2L, 1L, UserChangeType.DELETED, Instant.EPOCH, null)));
+
+        // Assert
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(0), UserChange.class).user()).isEqualTo(user);
+        assertThat(objectMapper.readValue(lines.get(1), UserChange.class).type()).isEqualTo(UserChangeType.DELETED);
+    }
+}
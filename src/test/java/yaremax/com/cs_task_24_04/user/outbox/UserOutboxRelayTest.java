@@ -0,0 +1,147 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserOutboxRelayTest {
+
+    @Mock
+    private UserOutboxRepository userOutboxRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final List<UserChange> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private UserOutboxRelay relay(UserChangeSink sink) {
+        return new UserOutboxRelay(userOutboxRepository, sink, transactionTemplate, objectMapper, meterRegistry, 2, 3);
+    }
+
+    private static UserOutboxEvent event(long id, long userId, UserChangeType type, String payload) {
+        return new UserOutboxEvent(id, userId, type, Instant.EPOCH, payload, 0, null);
+    }
+
+    @Test
+    void relay_ShouldPublishBatchesInOrderAndDeleteThem() {
+        // Arrange
+        List<UserOutboxEvent> first = List.of(
+                event(1, 10, UserChangeType.CREATED, "{\"id\":10,\"email\":\"a@example.com\",\"birthDate\":\"1990-01-01\",\"version\":0}"),
+                event(2, 10, UserChangeType.UPDATED, "{\"id\":10,\"email\":\"b@example.com\",\"version\":1}"));
+        List<UserOutboxEvent> second = List.of(event(3, 10, UserChangeType.DELETED, null));
+        when(userOutboxRepository.claimOldest(Limit.of(2))).thenReturn(first, second);
+        when(userOutboxRepository.findOldestId()).thenReturn(1L, 3L);
+
+        // Act
+        relay(published::addAll).relay();
+
+        // Assert
+        assertThat(published).extracting(UserChange::sequence).containsExactly(1L, 2L, 3L);
+        assertThat(published.get(1).user().email()).isEqualTo("b@example.com");
+        assertThat(published.get(2).user()).isNull();
+        verify(userOutboxRepository).deleteAllInBatch(first);
+        verify(userOutboxRepository).deleteAllInBatch(second);
+        assertThat(meterRegistry.get("user.outbox.published").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void relay_SinkFails_ShouldKeepEventsForNextRun() {
+        // Arrange
+        when(userOutboxRepository.claimOldest(Limit.of(2))).thenReturn(List.of(event(1, 10, UserChangeType.DELETED, null)));
+        when(userOutboxRepository.findOldestId()).thenReturn(1L);
+        UserChangeSink failingSink = changes -> {
+            throw new IOException("disk full");
+        };
+
+        // Act
+        relay(failingSink).relay();
+
+        // Assert
+        verify(userOutboxRepository, never()).deleteAllInBatch(any());
+        assertThat(meterRegistry.get("user.outbox.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relay_OlderEventsClaimedElsewhere_ShouldLeaveBatchForLaterRun() {
+        // Arrange
+        when(userOutboxRepository.claimOldest(Limit.of(2))).thenReturn(List.of(event(3, 10, UserChangeType.DELETED, null)));
+        when(userOutboxRepository.findOldestId()).thenReturn(1L);
+
+        // Act
+        relay(published::addAll).relay();
+
+        // Assert
+        assertThat(published).isEmpty();
+        verify(userOutboxRepository, never()).deleteAllInBatch(any());
+    }
+
+    @Test
+    void relay_EventRejectedBySink_ShouldPublishEarlierEventsAndCountAttempt() {
+        // Arrange
+        UserOutboxEvent good = event(1, 10, UserChangeType.DELETED, null);
+        UserOutboxEvent bad = event(2, 11, UserChangeType.DELETED, null);
+        when(userOutboxRepository.claimOldest(Limit.of(2))).thenReturn(List.of(good, bad));
+        when(userOutboxRepository.claimOldest(Limit.of(1))).thenReturn(List.of(good), List.of(bad));
+        when(userOutboxRepository.findOldestId()).thenReturn(1L, 1L, 2L);
+        when(userOutboxRepository.findById(2L)).thenReturn(Optional.of(bad));
+        UserChangeSink rejectingSink = changes -> {
+            if (changes.stream().anyMatch(change -> change.userId() == 11L)) throw new IllegalArgumentException("rejected");
+            published.addAll(changes);
+        };
+
+        // Act
+        relay(rejectingSink).relay();
+
+        // Assert
+        assertThat(published).extracting(UserChange::sequence).containsExactly(1L);
+        verify(userOutboxRepository).deleteAllInBatch(List.of(good));
+        assertThat(bad.getAttempts()).isEqualTo(1);
+        assertThat(bad.getDeadLetteredAt()).isNull();
+        assertThat(meterRegistry.get("user.outbox.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relay_EventFailingOnLastAttempt_ShouldBeDeadLettered() {
+        // Arrange
+        UserOutboxEvent bad = event(1, 10, UserChangeType.UPDATED, "not json");
+        bad.setAttempts(2);
+        when(userOutboxRepository.claimOldest(any())).thenReturn(List.of(bad));
+        when(userOutboxRepository.findOldestId()).thenReturn(1L);
+        when(userOutboxRepository.findById(1L)).thenReturn(Optional.of(bad));
+
+        // Act
+        relay(published::addAll).relay();
+
+        // Assert
+        assertThat(published).isEmpty();
+        assertThat(bad.getAttempts()).isEqualTo(3);
+        assertThat(bad.getDeadLetteredAt()).isNotNull();
+        assertThat(meterRegistry.get("user.outbox.dead.lettered").counter().count()).isEqualTo(1);
+    }
+}
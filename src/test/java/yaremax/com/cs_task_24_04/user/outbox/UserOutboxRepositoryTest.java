@@ -0,0 +1,36 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class UserOutboxRepositoryTest {
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    private static UserOutboxEvent event(long userId, Instant deadLetteredAt) {
+        return new UserOutboxEvent(null, userId, UserChangeType.DELETED, Instant.EPOCH, null, 0, deadLetteredAt);
+    }
+
+    @Test
+    void claimOldest_ShouldSkipDeadLetteredEvents() {
+        // Arrange
+        UserOutboxEvent deadLettered = userOutboxRepository.save(event(1L, Instant.EPOCH));
+        UserOutboxEvent pending = userOutboxRepository.save(event(2L, null));
+
+        // Act
+        List<UserOutboxEvent> claimed = userOutboxRepository.claimOldest(Limit.of(10));
+
+        // Assert
+        assertThat(claimed).containsExactly(pending);
+        assertThat(userOutboxRepository.findOldestId()).isEqualTo(pending.getId()).isNotEqualTo(deadLettered.getId());
+    }
+}
@@ -0,0 +1,58 @@
+package yaremax.com.cs_task_24_04.user.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@DataJpaTest
+@Import(UserOutbox.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class UserOutboxTest {
+
+    @Autowired
+    private UserOutbox userOutbox;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @Test
+    void record_ShouldStoreEventWithSerializedUser() {
+        // Arrange
+        UserResponse user = new UserResponse(7L, "john@example.com", "John", "Doe", LocalDate.of(1990, 5, 15), null, null, 2L);
+
+        // Act
+        userOutbox.record(UserChangeType.UPDATED, user);
+        userOutbox.recordDeleted(8L);
+
+        // Assert
+        List<UserOutboxEvent> events = userOutboxRepository.findAll();
+        assertThat(events).extracting(UserOutboxEvent::getUserId).containsExactly(7L, 8L);
+        assertThat(events.get(0).getType()).isEqualTo(UserChangeType.UPDATED);
+        assertThat(events.get(0).getPayload()).contains("\"birthDate\":\"1990-05-15\"");
+        assertThat(events.get(1).getPayload()).isNull();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void record_WithoutTransaction_ShouldBeRejected() {
+        // Arrange
+        UserResponse user = new UserResponse(7L, "john@example.com", "John", "Doe", null, null, null, 0L);
+
+        // Act & Assert
+        assertThatExceptionOfType(IllegalTransactionStateException.class)
+                .isThrownBy(() -> userOutbox.record(UserChangeType.CREATED, user));
+    }
+}
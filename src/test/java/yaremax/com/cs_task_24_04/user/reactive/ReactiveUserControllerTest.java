@@ -0,0 +1,98 @@
+package yaremax.com.cs_task_24_04.user.reactive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import yaremax.com.cs_task_24_04.exceptions.DuplicateResourceException;
+import yaremax.com.cs_task_24_04.exceptions.ReactiveExceptionHandler;
+import yaremax.com.cs_task_24_04.exceptions.ResourceNotFoundException;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserControllerTest {
+
+    private WebTestClient webTestClient;
+
+    @Mock
+    private ReactiveUserService userService;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(new ReactiveUserController(userService))
+                .controllerAdvice(new ReactiveExceptionHandler(new SimpleMeterRegistry()))
+                .build();
+    }
+
+    @Test
+    void getUser_UserExists_ShouldReturnUser() {
+        // Arrange
+        when(userService.getUserById(1L)).thenReturn(Mono.just(new UserResponse(1L, "test@example.com", null, null, null, null, null, 0L)));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/v1/users/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.email").isEqualTo("test@example.com");
+    }
+
+    @Test
+    void getUser_UserNotFound_ShouldReturnNotFound() {
+        // Arrange
+        when(userService.getUserById(1L)).thenReturn(Mono.error(new ResourceNotFoundException("")));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/v1/users/{id}", 1L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getAllUsers_Ndjson_ShouldStreamEveryUser() {
+        // Arrange
+        when(userService.getAllUsers()).thenReturn(Flux.just(new UserResponse(1L, null, null, null, null, null, null, 0L),
+                new UserResponse(2L, null, null, null, null, null, null, 0L)));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/v1/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(UserResponse.class).hasSize(2);
+    }
+
+    @Test
+    void createUser_DuplicateEmail_ShouldReturnConflict() {
+        // Arrange
+        when(userService.createUser(any())).thenReturn(Mono.error(new DuplicateResourceException("")));
+
+        // Act & Assert
+        webTestClient.post().uri("/api/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\": \"test@example.com\"}")
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void deleteUser_ShouldReturnSuccessMessage() {
+        // Arrange
+        when(userService.deleteUser(1L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        webTestClient.delete().uri("/api/v1/users/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Successfully deleted user");
+    }
+}
@@ -0,0 +1,150 @@
+package yaremax.com.cs_task_24_04.user.reactive;
+
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import yaremax.com.cs_task_24_04.exceptions.DuplicateResourceException;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.exceptions.ResourceNotFoundException;
+import yaremax.com.cs_task_24_04.user.DateRange;
+import yaremax.com.cs_task_24_04.user.UserDto;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.validator.common.DateRangeValidator;
+import yaremax.com.cs_task_24_04.validator.user.FullUserDtoValidator;
+import yaremax.com.cs_task_24_04.validator.user.PartialUserDtoValidator;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+    @Mock
+    private FullUserDtoValidator fullUserDtoValidator;
+    @Mock
+    private PartialUserDtoValidator partialUserDtoValidator;
+    @Mock
+    private DateRangeValidator dateRangeValidator;
+
+    private ReactiveUserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new ReactiveUserService(userRepository, fullUserDtoValidator, partialUserDtoValidator, dateRangeValidator);
+    }
+
+    @Test
+    void createUser_ValidUser_ShouldInsertUser() {
+        // Arrange
+        UserDto userDto = UserDto.builder().email("test@example.com").build();
+        UserResponse user = new UserResponse(1L, "test@example.com", null, null, null, null, null, 0L);
+        when(userRepository.insert(userDto)).thenReturn(Mono.just(user));
+
+        // Act & Assert
+        StepVerifier.create(userService.createUser(userDto))
+                .expectNext(user)
+                .verifyComplete();
+        verify(fullUserDtoValidator).validate(userDto);
+    }
+
+    @Test
+    void createUser_InvalidUser_ShouldFailWithoutTouchingDatabase() {
+        // Arrange
+        UserDto userDto = UserDto.builder().email("invalid").build();
+        doThrow(new InvalidDataException("Invalid email")).when(fullUserDtoValidator).validate(userDto);
+
+        // Act & Assert
+        StepVerifier.create(userService.createUser(userDto))
+                .expectError(InvalidDataException.class)
+                .verify();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void createUser_DuplicateEmail_ShouldFailWithDuplicateResourceException() {
+        // Arrange
+        UserDto userDto = UserDto.builder().email("test@example.com").build();
+        when(userRepository.insert(userDto)).thenReturn(Mono.error(new DataIntegrityViolationException("insert failed",
+                new R2dbcDataIntegrityViolationException("duplicate key value violates unique constraint \"uk_users_email\"", "23505"))));
+
+        // Act & Assert
+        StepVerifier.create(userService.createUser(userDto))
+                .expectError(DuplicateResourceException.class)
+                .verify();
+    }
+
+    @Test
+    void createUser_OtherIntegrityViolation_ShouldNotReportDuplicate() {
+        // Arrange
+        UserDto userDto = UserDto.builder().email("test@example.com").build();
+        when(userRepository.insert(userDto)).thenReturn(Mono.error(new DataIntegrityViolationException("insert failed",
+                new R2dbcDataIntegrityViolationException("null value in column \"email_domain\" violates not-null constraint", "23502"))));
+
+        // Act & Assert
+        StepVerifier.create(userService.createUser(userDto))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+    }
+
+    @Test
+    void getUserById_UserDoesNotExist_ShouldFailWithResourceNotFoundException() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(userService.getUserById(1L))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void patchUser_UserDoesNotExist_ShouldFailWithResourceNotFoundException() {
+        // Arrange
+        UserDto partialUserDto = UserDto.builder().firstName("Bob").build();
+        when(userRepository.update(1L, partialUserDto)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(userService.patchUser(1L, partialUserDto))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+        verify(partialUserDtoValidator).validate(partialUserDto);
+    }
+
+    @Test
+    void deleteUser_NoRowsDeleted_ShouldFailWithResourceNotFoundException() {
+        // Arrange
+        when(userRepository.deleteById(1L)).thenReturn(Mono.just(0L));
+
+        // Act & Assert
+        StepVerifier.create(userService.deleteUser(1L))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getAllUsersByBirthDateRange_ShouldHonourBackpressure() {
+        // Arrange
+        LocalDate from = LocalDate.of(1980, 1, 1);
+        LocalDate to = LocalDate.of(1989, 12, 31);
+        when(userRepository.findByBirthDateBetween(from, to))
+                .thenReturn(Flux.range(1, 3).map(i -> new UserResponse((long) i, null, null, null, null, null, null, 0L)));
+
+        // Act & Assert
+        StepVerifier.create(userService.getAllUsersByBirthDateRange(from, to), 1)
+                .expectNextCount(1)
+                .thenRequest(2)
+                .expectNextCount(2)
+                .verifyComplete();
+        verify(dateRangeValidator).validate(new DateRange(from, to));
+    }
+}
@@ -0,0 +1,72 @@
+package yaremax.com.cs_task_24_04.user.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserPrefixIndexTest {
+
+    private final UserPrefixIndex index = new UserPrefixIndex(true, new SimpleMeterRegistry());
+
+    private static UserResponse user(long id, String email, String firstName, String lastName, long version) {
+        return new UserResponse(id, email, firstName, lastName, null, null, null, version);
+    }
+
+    @Test
+    void search_ShouldRankNamesBeforeEmailsAndListEachUserOnce() {
+        // Arrange
+        index.load(Stream.of(
+                user(1, "doe.fan@example.com", "Alice", "Smith", 0),
+                user(2, "jane@example.com", "Jane", "Doe", 0),
+                user(3, "doe@example.com", "Doerte", "Doe", 0),
+                user(4, "bob@example.com", "Bob", "Brown", 0)));
+
+        // Act & Assert
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("doe", 0, 10)).containsExactly(2L, 3L, 1L);
+        assertThat(index.search("doe", 1, 1)).containsExactly(3L);
+    }
+
+    @Test
+    void put_NewerVersion_ShouldReplaceOldTokens() {
+        // Arrange
+        index.load(Stream.of(user(1, "john@example.com", "John", "Doe", 0)));
+
+        // Act
+        index.put(user(1, "john@example.com", "Jack", "Doe", 1));
+        index.put(user(1, "john@example.com", "John", "Doe", 0));
+
+        // Assert
+        assertThat(index.search("jac", 0, 10)).containsExactly(1L);
+        assertThat(index.search("john", 0, 10)).containsExactly(1L);
+        assertThat(index.search("johnd", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void load_UserRemovedWhileLoading_ShouldStayRemoved() {
+        // Arrange
+        index.remove(1L);
+
+        // Act
+        index.load(Stream.of(user(1, "john@example.com", "John", "Doe", 0)));
+
+        // Assert
+        assertThat(index.search("j", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void disabledIndex_ShouldNeverBecomeReady() {
+        // Arrange
+        UserPrefixIndex disabled = new UserPrefixIndex(false, new SimpleMeterRegistry());
+
+        // Act
+        disabled.load(Stream.of(user(1, "john@example.com", "John", "Doe", 0)));
+
+        // Assert
+        assertThat(disabled.isReady()).isFalse();
+    }
+}
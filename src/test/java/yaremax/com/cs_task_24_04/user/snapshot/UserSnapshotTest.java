@@ -0,0 +1,114 @@
+package yaremax.com.cs_task_24_04.user.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import yaremax.com.cs_task_24_04.user.UserResponse;
+import yaremax.com.cs_task_24_04.user.changes.ChangeWatermark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class UserSnapshotTest {
+    private static final ChangeWatermark WATERMARK = new ChangeWatermark(Instant.parse("2024-04-24T10:15:30.123456Z"), Long.MAX_VALUE);
+
+    @TempDir
+    private Path directory;
+
+    private static List<UserResponse> users() {
+        return List.of(
+                new UserResponse(1L, "john@example.com", "John", "Doe", LocalDate.of(1990, 5, 15), "Kyiv, Khreshchatyk 1", "+380501234567", 3L),
+                new UserResponse(2L, "jürgen@example.com", "Jürgen", "Müller", null, null, null, 0L),
+                new UserResponse(5L, "empty@example.com", "", "Doe", LocalDate.of(1969, 12, 31), "", null, 1L));
+    }
+
+    @Test
+    void open_WrittenSnapshot_ShouldReturnSameUsersAndWatermark() throws IOException {
+        // Arrange
+        Path file = directory.resolve("users.snapshot");
+
+        // Act
+        int written = UserSnapshotWriter.write(file, WATERMARK, users().stream());
+        UserSnapshot snapshot = UserSnapshot.open(file);
+
+        // Assert
+        assertThat(written).isEqualTo(3);
+        assertThat(snapshot.rowCount()).isEqualTo(3);
+        assertThat(snapshot.watermark()).isEqualTo(WATERMARK);
+        assertThat(snapshot.users()).containsExactlyElementsOf(users());
+        assertThat(Files.list(directory)).containsExactly(file);
+    }
+
+    @Test
+    void open_ManyUsers_ShouldReadRowsInOrder() throws IOException {
+        // Arrange
+        Path file = directory.resolve("users.snapshot");
+        Stream<UserResponse> users = IntStream.range(0, 20_000)
+                .mapToObj(i -> new UserResponse((long) i, "user" + i + "@example.com", "John", "Doe", LocalDate.ofEpochDay(i), null, null, 0L));
+        UserSnapshotWriter.write(file, WATERMARK, users);
+
+        // Act
+        UserSnapshot snapshot = UserSnapshot.open(file);
+
+        // Assert
+        assertThat(snapshot.users().skip(19_999).findFirst()).get()
+                .extracting(UserResponse::email).isEqualTo("user19999@example.com");
+    }
+
+    @Test
+    void open_ColumnsSpanningSeveralSegments_ShouldReadValuesAcrossSegmentBoundaries() throws IOException {
+        // Arrange
+        Path file = directory.resolve("users.snapshot");
+        List<UserResponse> users = IntStream.range(0, 500)
+                .mapToObj(i -> new UserResponse((long) i, "user" + i + "@example.com", "J".repeat(i % 40), null, LocalDate.ofEpochDay(i), null, null, (long) i))
+                .toList();
+        UserSnapshotWriter.write(file, WATERMARK, users.stream());
+
+        // Act
+        UserSnapshot snapshot = UserSnapshot.open(file, 24);
+
+        // Assert
+        assertThat(snapshot.users()).containsExactlyElementsOf(users);
+    }
+
+    @Test
+    void open_CorruptColumn_ShouldThrowIOException() throws IOException {
+        // Arrange
+        Path file = directory.resolve("users.snapshot");
+        UserSnapshotWriter.write(file, WATERMARK, users().stream());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), Files.size(file) - 1);
+        }
+
+        // Act & Assert
+        assertThatExceptionOfType(IOException.class)
+                .isThrownBy(() -> UserSnapshot.open(file))
+                .withMessageContaining("Checksum mismatch");
+    }
+
+    @Test
+    void open_TruncatedOrForeignFile_ShouldThrowIOException() throws IOException {
+        // Arrange
+        Path truncated = directory.resolve("truncated.snapshot");
+        UserSnapshotWriter.write(truncated, WATERMARK, users().stream());
+        try (FileChannel channel = FileChannel.open(truncated, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(truncated) - 8);
+        }
+        Path foreign = Files.writeString(directory.resolve("foreign.snapshot"), "x".repeat(UserSnapshot.HEADER_SIZE));
+
+        // Act & Assert
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> UserSnapshot.open(truncated));
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> UserSnapshot.open(foreign));
+    }
+}
@@ -0,0 +1,103 @@
+package yaremax.com.cs_task_24_04.user.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
+import yaremax.com.cs_task_24_04.user.DateRange;
+import yaremax.com.cs_task_24_04.user.UserCursor;
+import yaremax.com.cs_task_24_04.user.UserRepository;
+import yaremax.com.cs_task_24_04.user.directory.BirthDateIndex;
+import yaremax.com.cs_task_24_04.validator.common.DateRangeValidator;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final BirthDateIndex birthDateIndex = new BirthDateIndex(true, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    private UserStatsService service() {
+        return new UserStatsService(userRepository, birthDateIndex, new DateRangeValidator());
+    }
+
+    @Test
+    void getBirthDateHistogram_IndexNotReady_ShouldSumMonthsFromDatabase() {
+        // Arrange
+        LocalDate from = LocalDate.of(1990, 3, 15);
+        LocalDate to = LocalDate.of(1992, 1, 1);
+        when(userRepository.countByBirthMonth(from, to)).thenReturn(List.of(
+                new BirthMonthCount(1990, 3, 2L),
+                new BirthMonthCount(1990, 12, 1L),
+                new BirthMonthCount(1992, 1, 4L)));
+
+        // Act
+        BirthDateHistogram histogram = service().getBirthDateHistogram(from, to, BucketSize.YEAR);
+
+        // Assert
+        assertThat(histogram).isEqualTo(new BirthDateHistogram(BucketSize.YEAR, 7,
+                List.of(new BirthDateBucket("1990", 3), new BirthDateBucket("1992", 4))));
+    }
+
+    @Test
+    void getBirthDateHistogram_IndexReady_ShouldCountClippedMonthsWithoutDatabase() {
+        // Arrange
+        birthDateIndex.load(Stream.of(
+                new UserCursor(LocalDate.of(1990, 1, 10), 1L),
+                new UserCursor(LocalDate.of(1990, 1, 20), 2L),
+                new UserCursor(LocalDate.of(1990, 3, 1), 3L),
+                new UserCursor(LocalDate.of(1990, 3, 2), 4L)));
+
+        // Act
+        BirthDateHistogram histogram = service().getBirthDateHistogram(LocalDate.of(1990, 1, 15), LocalDate.of(1990, 3, 1), BucketSize.MONTH);
+
+        // Assert
+        assertThat(histogram.buckets()).containsExactly(new BirthDateBucket("1990-01", 1), new BirthDateBucket("1990-03", 1));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getBirthDateHistogram_NoBounds_ShouldCoverAllUsers() {
+        // Arrange
+        when(userRepository.findBirthDateRange()).thenReturn(new DateRange(LocalDate.of(1980, 6, 1), LocalDate.of(1981, 2, 1)));
+        when(userRepository.countByBirthMonth(LocalDate.of(1980, 6, 1), LocalDate.of(1981, 2, 1)))
+                .thenReturn(List.of(new BirthMonthCount(1980, 6, 1L), new BirthMonthCount(1981, 2, 1L)));
+
+        // Act
+        BirthDateHistogram histogram = service().getBirthDateHistogram(null, null, BucketSize.YEAR);
+
+        // Assert
+        assertThat(histogram.buckets()).containsExactly(new BirthDateBucket("1980", 1), new BirthDateBucket("1981", 1));
+    }
+
+    @Test
+    void getBirthDateHistogram_NoUsers_ShouldReturnEmptyHistogram() {
+        // Arrange
+        when(userRepository.findBirthDateRange()).thenReturn(new DateRange(null, null));
+
+        // Act
+        BirthDateHistogram histogram = service().getBirthDateHistogram(null, null, BucketSize.MONTH);
+
+        // Assert
+        assertThat(histogram).isEqualTo(new BirthDateHistogram(BucketSize.MONTH, 0, List.of()));
+    }
+
+    @Test
+    void getBirthDateHistogram_TooManyBuckets_ShouldThrowInvalidDataException() {
+        // Act & Assert
+        assertThatExceptionOfType(InvalidDataException.class)
+                .isThrownBy(() -> service().getBirthDateHistogram(LocalDate.of(1000, 1, 1), LocalDate.of(2000, 1, 1), BucketSize.MONTH));
+    }
+}
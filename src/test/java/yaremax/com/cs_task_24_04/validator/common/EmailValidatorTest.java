@@ -1,15 +1,23 @@
 package yaremax.com.cs_task_24_04.validator.common;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
 import yaremax.com.cs_task_24_04.exceptions.InvalidDataException;
 
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatNoException;
 
 class EmailValidatorTest {
 
+    private static final Pattern REFERENCE_PATTERN = Pattern.compile("^(?=.{1,64}@)[A-Za-z0-9]+(\\.[A-Za-z0-9]+)*@"
+            + "[^-][A-Za-z0-9-]+(\\.[A-Za-z0-9-]+)*(\\.[A-Za-z]{2,})$");
+
     private final EmailValidator validator = new EmailValidator();
 
     @ParameterizedTest
@@ -37,4 +45,64 @@ class EmailValidatorTest {
         assertThatNoException()
                 .isThrownBy(() -> validator.validate(email));
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a@b.co", "a@@b.com", "a@.b.com", "a@-b.com", "a@b-.com", "a@b.c", "a@b.c1",
+            "a@b..com", "a@b.com.", "a..b@c.com", "a@b", "@b.com", "a@", "a@bc", "a@ b.com", "a@\nb.com",
+            "a@\uD83D\uDE00b.com", "a@\uD83Db.com", "a@b.com\n", " a@b.com", "A1.B2@X-Y.Z-Z.AbC",
+            "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa@b.com",
+            "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa@b.com"})
+    void validate_EdgeCases_ShouldAgreeWithReferenceRegex(String email) {
+        // Act & Assert
+        assertThat(accepts(email)).as(email).isEqualTo(REFERENCE_PATTERN.matcher(email).matches());
+    }
+
+    @Test
+    void validate_RandomInputs_ShouldAgreeWithReferenceRegex() {
+        // Arrange
+        Random random = new Random(42);
+        String[] alphabet = {"a", "Z", "7", ".", ".", "-", "@", "@", "_", " ", "\n", "\u2028", "\uD83D\uDE00", "\uD83D", "com"};
+
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder email = new StringBuilder();
+            int parts = 1 + random.nextInt(12);
+            for (int j = 0; j < parts; j++) {
+                email.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            if (random.nextBoolean()) {
+                email.append(random.nextBoolean() ? ".com" : ".c0");
+            }
+            String candidate = email.toString();
+            if (candidate.trim().isEmpty()) continue;
+
+            // Act & Assert
+            assertThat(accepts(candidate)).as(candidate).isEqualTo(REFERENCE_PATTERN.matcher(candidate).matches());
+        }
+    }
+
+    @Test
+    void validate_RandomLocalPartLengths_ShouldAgreeWithReferenceRegex() {
+        // Arrange
+        Random random = new Random(7);
+
+        for (int length = 1; length <= 80; length++) {
+            StringBuilder local = new StringBuilder();
+            for (int j = 0; j < length; j++) {
+                local.append(j > 0 && j < length - 1 && random.nextInt(5) == 0 ? '.' : 'x');
+            }
+            String candidate = local + "@domain.com";
+
+            // Act & Assert
+            assertThat(accepts(candidate)).as(candidate).isEqualTo(REFERENCE_PATTERN.matcher(candidate).matches());
+        }
+    }
+
+    private boolean accepts(String email) {
+        try {
+            validator.validate(email);
+            return true;
+        } catch (InvalidDataException ex) {
+            return false;
+        }
+    }
+}